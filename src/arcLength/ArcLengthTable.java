@@ -0,0 +1,211 @@
+package arcLength;
+
+import component.Arc;
+import component.DoublePoint;
+import mathTools.MathTools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class is a prefix-sum table of the lengths of an arc chain, e.g. the
+ * fitted arcs of a Bezier curve, for feed-rate planning and dash patterns.
+ * <p>
+ * The length of an arc is radius * |sweep angle|, so building the table takes
+ * one pass without trigonometric functions. The arc at a distance s along the
+ * chain is found with binary search, and only that arc needs one cosine and
+ * one sine. The table keeps a reference to the arcs, which must not change.
+ */
+public class ArcLengthTable {
+
+    /* the arcs of the chain */
+    private final Arc[] arcs;
+
+    /* cumulativeLengths[i] is the length of the chain before the arc i, and
+       the last element is the total length */
+    private final double[] cumulativeLengths;
+
+    /**
+     * Constructor
+     *
+     * @param arcs the arcs of the chain in order
+     */
+    public ArcLengthTable(List<Arc> arcs) {
+
+        this.arcs = arcs.toArray(new Arc[0]);
+        this.cumulativeLengths = new double[this.arcs.length + 1];
+
+        for (int i = 0; i < this.arcs.length; i++) {
+            cumulativeLengths[i + 1] = cumulativeLengths[i] + this.arcs[i].getLength();
+        }
+    }
+
+    /**
+     * To get the total length of the chain.
+     *
+     * @return the total length of the chain
+     */
+    public double getTotalLength() {
+        return cumulativeLengths[arcs.length];
+    }
+
+    /**
+     * To find the index of the arc which contains the point at a distance
+     * along the chain. The distance is clamped to [0, total length].
+     *
+     * @param distance the distance along the chain
+     * @return the index of the arc, or -1 if the chain is empty
+     */
+    public int findArcIndex(double distance) {
+
+        if (arcs.length == 0) {
+            return -1;
+        }
+
+        int index = Arrays.binarySearch(cumulativeLengths, distance);
+        if (index < 0) {
+            index = -index - 2;
+        }
+
+        return Math.max(0, Math.min(arcs.length - 1, index));
+    }
+
+    /**
+     * To calculate the point and the unit tangent vector at a distance along
+     * the chain. The distance is clamped to [0, total length].
+     *
+     * @param distance the distance along the chain
+     * @param result   an array of at least 4 elements which receives the x and
+     *                 the y coordinates of the point and of the unit tangent
+     *                 vector in the direction of the chain
+     */
+    public void evaluate(double distance, double[] result) {
+
+        int index = findArcIndex(distance);
+        if (index < 0) {
+            throw new IllegalStateException("The arc chain is empty");
+        }
+
+        Arc arc = arcs[index];
+        double offset = Math.max(0.0, Math.min(arc.getLength(),
+                distance - cumulativeLengths[index]));
+
+        double sign = arc.getClockwiseFlag() ? -1.0 : 1.0;
+        double angle = arc.getRadius() > 0.0
+                ? arc.getStartAngle() + sign * offset / arc.getRadius()
+                : arc.getStartAngle();
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle);
+
+        result[0] = arc.getCenter().getX() + arc.getRadius() * cos;
+        result[1] = arc.getCenter().getY() + arc.getRadius() * sin;
+        result[2] = -sign * sin;
+        result[3] = sign * cos;
+    }
+
+    /**
+     * To calculate the point at a distance along the chain.
+     *
+     * @param distance the distance along the chain
+     * @return the point
+     */
+    public DoublePoint pointAt(double distance) {
+
+        double[] result = new double[4];
+        evaluate(distance, result);
+
+        return new DoublePoint(result[0], result[1]);
+    }
+
+    /**
+     * To calculate the unit tangent vector at a distance along the chain.
+     *
+     * @param distance the distance along the chain
+     * @return the unit tangent vector in the direction of the chain
+     */
+    public DoublePoint tangentAt(double distance) {
+
+        double[] result = new double[4];
+        evaluate(distance, result);
+
+        return new DoublePoint(result[2], result[3]);
+    }
+
+    /**
+     * To resample the chain at a fixed spacing, starting from the start point.
+     * The last point is always the end point, which replaces a resampled
+     * point that only misses it by rounding errors. In every arc the
+     * points are generated by rotating the vector from the center, so only
+     * the first point of every arc needs trigonometric functions.
+     *
+     * @param spacing the distance between two adjacent points along the chain
+     * @param points  the resampled points
+     */
+    public void resample(double spacing, ArrayList<DoublePoint> points) {
+
+        if (!(spacing > 0.0)) {
+            throw new IllegalArgumentException("spacing must be positive");
+        }
+
+        if (!points.isEmpty()) {
+            points.clear();
+        }
+
+        if (arcs.length == 0) {
+            return;
+        }
+
+        /* the distance of the next point is computed from its index, so
+           the rounding errors of the spacing don't add up */
+        long pointIndex = 0;
+        double distance = 0.0;
+
+        for (int i = 0; i < arcs.length; i++) {
+
+            Arc arc = arcs[i];
+            double radius = arc.getRadius();
+            double end = cumulativeLengths[i + 1];
+
+            if (distance > end || radius <= 0.0) {
+                continue;
+            }
+
+            double sign = arc.getClockwiseFlag() ? -1.0 : 1.0;
+            double angle = arc.getStartAngle()
+                    + sign * (distance - cumulativeLengths[i]) / radius;
+            double vectorX = radius * Math.cos(angle);
+            double vectorY = radius * Math.sin(angle);
+
+            double step = sign * spacing / radius;
+            double cosStep = Math.cos(step);
+            double sinStep = Math.sin(step);
+
+            while (distance <= end) {
+
+                points.add(new DoublePoint(arc.getCenter().getX() + vectorX,
+                        arc.getCenter().getY() + vectorY));
+
+                double rotatedX = vectorX * cosStep - vectorY * sinStep;
+                vectorY = vectorX * sinStep + vectorY * cosStep;
+                vectorX = rotatedX;
+
+                pointIndex++;
+                distance = pointIndex * spacing;
+            }
+        }
+
+        /* a last point which only misses the end point by the rounding
+           errors of the rotations is replaced by the end point. If every arc
+           has a zero radius, there are no points yet */
+        DoublePoint endPoint = arcs[arcs.length - 1].getEndPoint();
+        double tolerance = MathTools.EPSILON * Math.max(1.0, getTotalLength());
+
+        if (!points.isEmpty() && MathTools.euclideanDistance(
+                points.get(points.size() - 1), endPoint) <= tolerance) {
+            points.set(points.size() - 1, endPoint);
+        } else {
+            points.add(endPoint);
+        }
+    }
+}
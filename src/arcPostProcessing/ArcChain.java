@@ -0,0 +1,50 @@
+package arcPostProcessing;
+
+import component.Arc;
+
+import java.util.ArrayList;
+
+/**
+ * This class is to store a continuous chain of arcs which is produced by
+ * {@link ArcChainLinker}. Adjacent arcs meet within the join tolerance of the
+ * linker, and the end point of the last arc meets the start point of the
+ * first arc within it if the chain is closed.
+ */
+public class ArcChain {
+
+    /* the arcs in order */
+    private final ArrayList<Arc> arcs;
+
+    /* a variable to mark that the chain is closed */
+    private final boolean closedFlag;
+
+    /**
+     * Constructor
+     *
+     * @param arcs       the arcs in order, which are not copied
+     * @param closedFlag true for a closed chain
+     */
+    public ArcChain(ArrayList<Arc> arcs, boolean closedFlag) {
+
+        this.arcs = arcs;
+        this.closedFlag = closedFlag;
+    }
+
+    /**
+     * To get this.arcs.
+     *
+     * @return this.arcs
+     */
+    public ArrayList<Arc> getArcs() {
+        return arcs;
+    }
+
+    /**
+     * To get this.closedFlag.
+     *
+     * @return this.closedFlag
+     */
+    public boolean getClosedFlag() {
+        return closedFlag;
+    }
+}
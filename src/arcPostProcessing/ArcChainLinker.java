@@ -0,0 +1,625 @@
+package arcPostProcessing;
+
+import component.Arc;
+import component.DoublePoint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class contains methods to link the arcs of separately converted curves
+ * into continuous chains, and to order the chains for output, e.g. to keep
+ * the moves of a plotter or a cutter without drawing short.
+ * <p>
+ * {@link #linkChains} hashes the end points of the chains on a grid whose
+ * cells are twice as large as the join tolerance, so the end points which may
+ * meet an end point are found in the 2 x 2 cells which its tolerance
+ * overlaps, and every end point is joined to the nearest free end point
+ * within the tolerance. The joins form paths and cycles of chains, which are
+ * walked into maximal chains. This takes linear time for end points which are
+ * spread like the curves of a drawing.
+ * <p>
+ * {@link #orderChains} orders the chains by the nearest-neighbor heuristic:
+ * the next chain is the one which starts nearest to the end of the previous
+ * chain. The nearest start is searched ring by ring on a uniform grid. A
+ * closed chain can be entered at any of its joint points.
+ * <p>
+ * If the direction of the chains doesn't matter, they may be reversed to be
+ * joined or entered at their other ends. A reversed arc runs the other way
+ * around its circle, with the same center, radius and end points.
+ */
+public class ArcChainLinker {
+
+    /**
+     * To link chains of arcs whose end points meet within a tolerance into
+     * maximal continuous chains. The arcs are not moved, so the gaps within
+     * the tolerance stay in the linked chains.
+     *
+     * @param chains         the chains of arcs, e.g. the arcs of every
+     *                       converted curve. Empty chains are skipped
+     * @param joinTolerance  the max distance of two end points which are
+     *                       joined
+     * @param reversibleFlag true if the chains may be reversed
+     * @param linkedChains   the linked chains
+     */
+    public static void linkChains(List<? extends List<Arc>> chains,
+                                  double joinTolerance, boolean reversibleFlag,
+                                  ArrayList<ArcChain> linkedChains) {
+
+        if (!(joinTolerance > 0.0) || Double.isInfinite(joinTolerance)) {
+            throw new IllegalArgumentException(
+                    "The join tolerance must be positive: " + joinTolerance);
+        }
+
+        if (!linkedChains.isEmpty()) {
+            linkedChains.clear();
+        }
+
+        /* the end point 2i is the start point of the chain i, and the end
+           point 2i + 1 is its end point */
+        int chainCount = chains.size();
+        double[] endPoints = new double[4 * chainCount];
+        int[] partners = new int[2 * chainCount];
+        Arrays.fill(partners, -1);
+
+        /* an open-addressing table of the cells of the grid: the key of a
+           cell and its first end point, whose next end points are linked by
+           {@code nextIds} */
+        double cellSize = 2.0 * joinTolerance;
+        int capacity = Integer.highestOneBit(Math.max(2 * chainCount, 1)) * 4;
+        long[] cellKeys = new long[capacity];
+        int[] cellHeads = new int[capacity];
+        int[] nextIds = new int[2 * chainCount];
+        Arrays.fill(cellHeads, -1);
+
+        for (int i = 0; i < chainCount; i++) {
+
+            List<Arc> chain = chains.get(i);
+            if (chain.isEmpty()) {
+                Arrays.fill(endPoints, 4 * i, 4 * i + 4, Double.NaN);
+                continue;
+            }
+
+            Arc firstArc = chain.get(0);
+            Arc lastArc = chain.get(chain.size() - 1);
+            endPoints[4 * i] = firstArc.getStartX();
+            endPoints[4 * i + 1] = firstArc.getStartY();
+            endPoints[4 * i + 2] = lastArc.getEndX();
+            endPoints[4 * i + 3] = lastArc.getEndY();
+
+            for (int id = 2 * i; id <= 2 * i + 1; id++) {
+                double x = endPoints[2 * id];
+                double y = endPoints[2 * id + 1];
+                if (Double.isFinite(x) && Double.isFinite(y)) {
+                    long key = calculateCellKey((long) Math.floor(x / cellSize),
+                            (long) Math.floor(y / cellSize));
+                    int slot = findSlot(cellKeys, cellHeads, key);
+                    cellKeys[slot] = key;
+                    nextIds[id] = cellHeads[slot];
+                    cellHeads[slot] = id;
+                }
+            }
+        }
+
+        /* Join every end point to the nearest free end point around it. Only
+        an end point meets a start point unless the chains may be reversed */
+        for (int id = 0; id < 2 * chainCount; id++) {
+
+            double x = endPoints[2 * id];
+            double y = endPoints[2 * id + 1];
+            if (partners[id] != -1 || !Double.isFinite(x) || !Double.isFinite(y)) {
+                continue;
+            }
+
+            long firstCellX = (long) Math.floor((x - joinTolerance) / cellSize);
+            long lastCellX = (long) Math.floor((x + joinTolerance) / cellSize);
+            long firstCellY = (long) Math.floor((y - joinTolerance) / cellSize);
+            long lastCellY = (long) Math.floor((y + joinTolerance) / cellSize);
+            int nearestId = -1;
+            double nearestSquaredDistance = joinTolerance * joinTolerance;
+
+            for (long neighborX = firstCellX; neighborX <= lastCellX; neighborX++) {
+                for (long neighborY = firstCellY; neighborY <= lastCellY; neighborY++) {
+
+                    int slot = findSlot(cellKeys, cellHeads,
+                            calculateCellKey(neighborX, neighborY));
+
+                    for (int candidate = cellHeads[slot]; candidate != -1;
+                         candidate = nextIds[candidate]) {
+
+                        if (candidate == id || partners[candidate] != -1
+                                || (!reversibleFlag && (candidate & 1) == (id & 1))) {
+                            continue;
+                        }
+
+                        double dx = endPoints[2 * candidate] - x;
+                        double dy = endPoints[2 * candidate + 1] - y;
+                        double squaredDistance = dx * dx + dy * dy;
+                        if (squaredDistance <= nearestSquaredDistance) {
+                            nearestId = candidate;
+                            nearestSquaredDistance = squaredDistance;
+                        }
+                    }
+                }
+            }
+
+            if (nearestId != -1) {
+                partners[id] = nearestId;
+                partners[nearestId] = id;
+            }
+        }
+
+        boolean[] visitedFlags = new boolean[chainCount];
+        for (int i = 0; i < chainCount; i++) {
+            visitedFlags[i] = chains.get(i).isEmpty();
+        }
+
+        /* The paths are walked from their free ends, and the cycles which
+        are left are walked from any of their chains */
+        for (int i = 0; i < chainCount; i++) {
+            if (!visitedFlags[i]) {
+                if (partners[2 * i] == -1) {
+                    linkedChains.add(walkChains(chains, partners, visitedFlags,
+                            2 * i));
+                } else if (reversibleFlag && partners[2 * i + 1] == -1) {
+                    linkedChains.add(walkChains(chains, partners, visitedFlags,
+                            2 * i + 1));
+                }
+            }
+        }
+
+        for (int i = 0; i < chainCount; i++) {
+            if (!visitedFlags[i]) {
+                linkedChains.add(walkChains(chains, partners, visitedFlags, 2 * i));
+            }
+        }
+    }
+
+    /**
+     * To order chains by the nearest-neighbor heuristic, starting from a
+     * position. The chains are replaced by the ordered chains, which may be
+     * reversed if {@code reversibleFlag} is true, and closed chains may start
+     * at another joint point.
+     *
+     * @param chains         the chains
+     * @param startPosition  the position before the first chain
+     * @param reversibleFlag true if the open chains may be reversed
+     * @return the total length of the moves between the chains
+     */
+    public static double orderChains(ArrayList<ArcChain> chains,
+                                     DoublePoint startPosition,
+                                     boolean reversibleFlag) {
+
+        /* the entries of the chains: the start point of an open chain, the
+           end point of an open chain which may be reversed, and the start
+           point of every arc of a closed chain */
+        int entryCount = 0;
+        for (ArcChain chain : chains) {
+            if (chain.getClosedFlag()) {
+                entryCount += chain.getArcs().size();
+            } else if (!chain.getArcs().isEmpty()) {
+                entryCount += reversibleFlag ? 2 : 1;
+            }
+        }
+
+        double[] entryPoints = new double[2 * entryCount];
+        int[] entryChains = new int[entryCount];
+        /* the index of the first arc, or -1 for a reversed open chain */
+        int[] entryArcs = new int[entryCount];
+
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+
+        int count = 0;
+        for (int k = 0; k < chains.size(); k++) {
+
+            ArrayList<Arc> arcs = chains.get(k).getArcs();
+            if (arcs.isEmpty()) {
+                continue;
+            }
+
+            if (chains.get(k).getClosedFlag()) {
+                for (int j = 0; j < arcs.size(); j++) {
+                    Arc arc = arcs.get(j);
+                    count = addEntry(arc.getStartX(), arc.getStartY(), k, j,
+                            entryPoints, entryChains, entryArcs, count);
+                }
+            } else {
+                Arc firstArc = arcs.get(0);
+                count = addEntry(firstArc.getStartX(), firstArc.getStartY(), k, 0,
+                        entryPoints, entryChains, entryArcs, count);
+                if (reversibleFlag) {
+                    Arc lastArc = arcs.get(arcs.size() - 1);
+                    count = addEntry(lastArc.getEndX(), lastArc.getEndY(), k, -1,
+                            entryPoints, entryChains, entryArcs, count);
+                }
+            }
+        }
+
+        for (int e = 0; e < entryCount; e++) {
+            if (isFiniteEntry(entryPoints, e)) {
+                minX = Math.min(minX, entryPoints[2 * e]);
+                minY = Math.min(minY, entryPoints[2 * e + 1]);
+                maxX = Math.max(maxX, entryPoints[2 * e]);
+                maxY = Math.max(maxY, entryPoints[2 * e + 1]);
+            }
+        }
+
+        ArrayList<ArcChain> orderedChains = new ArrayList<>(chains.size());
+        boolean[] usedFlags = new boolean[chains.size()];
+        double currentX = startPosition.getX();
+        double currentY = startPosition.getY();
+        double moveLength = 0.0;
+
+        if (minX <= maxX) {
+
+            /* a grid with about one entry per cell, and with no more cells
+               than entries along either axis */
+            double width = maxX - minX;
+            double height = maxY - minY;
+            double cellSize = Math.max(Math.sqrt(width * height / entryCount),
+                    Math.max(width, height) / entryCount);
+            if (!(cellSize > 0.0)) {
+                cellSize = 1.0;
+            }
+            int gridWidth = (int) (width / cellSize) + 1;
+            int gridHeight = (int) (height / cellSize) + 1;
+
+            int[] cellStarts = new int[gridWidth * gridHeight + 1];
+            int[] cellCounts = new int[gridWidth * gridHeight];
+            int[] cellEntries = new int[entryCount];
+
+            for (int e = 0; e < entryCount; e++) {
+                if (isFiniteEntry(entryPoints, e)) {
+                    cellStarts[findCell(entryPoints[2 * e], entryPoints[2 * e + 1],
+                            minX, minY, cellSize, gridWidth, gridHeight) + 1]++;
+                }
+            }
+            for (int c = 0; c < gridWidth * gridHeight; c++) {
+                cellStarts[c + 1] += cellStarts[c];
+            }
+            for (int e = 0; e < entryCount; e++) {
+                if (isFiniteEntry(entryPoints, e)) {
+                    int c = findCell(entryPoints[2 * e], entryPoints[2 * e + 1],
+                            minX, minY, cellSize, gridWidth, gridHeight);
+                    cellEntries[cellStarts[c] + cellCounts[c]++] = e;
+                }
+            }
+
+            while (true) {
+
+                int entry = findNearestEntry(currentX, currentY, entryPoints,
+                        entryChains, usedFlags, cellStarts, cellCounts,
+                        cellEntries, minX, minY, cellSize, gridWidth, gridHeight);
+                if (entry == -1) {
+                    break;
+                }
+
+                moveLength += Math.hypot(entryPoints[2 * entry] - currentX,
+                        entryPoints[2 * entry + 1] - currentY);
+
+                int k = entryChains[entry];
+                usedFlags[k] = true;
+                ArcChain chain = enterChain(chains.get(k), entryArcs[entry]);
+                orderedChains.add(chain);
+
+                Arc lastArc = chain.getArcs().get(chain.getArcs().size() - 1);
+                currentX = lastArc.getEndX();
+                currentY = lastArc.getEndY();
+            }
+        }
+
+        /* the chains without a finite entry keep their order at the end */
+        for (int k = 0; k < chains.size(); k++) {
+            if (!usedFlags[k]) {
+                orderedChains.add(chains.get(k));
+            }
+        }
+
+        chains.clear();
+        chains.addAll(orderedChains);
+
+        return moveLength;
+    }
+
+    /**
+     * To reverse an arc. The start angle of the reversed arc is moved into
+     * the range [-pi, pi].
+     *
+     * @param arc the arc
+     * @return the reversed arc, which shares the center and has exactly the
+     * same end points
+     */
+    public static Arc reverseArc(Arc arc) {
+
+        double startAngle = arc.getEndAngle();
+        double endAngle = arc.getStartAngle();
+
+        if (startAngle > Math.PI) {
+            startAngle -= 2.0 * Math.PI;
+            endAngle -= 2.0 * Math.PI;
+        } else if (startAngle < -Math.PI) {
+            startAngle += 2.0 * Math.PI;
+            endAngle += 2.0 * Math.PI;
+        }
+
+        return new Arc(arc.getCenter(), arc.getRadius(), startAngle, endAngle,
+                !arc.getClockwiseFlag(), arc.getEndX(), arc.getEndY(),
+                arc.getStartX(), arc.getStartY());
+    }
+
+    /**
+     * To walk the joined chains from an end point until a free end point or
+     * the first chain again.
+     *
+     * @param chains       the chains
+     * @param partners     the end point which every end point is joined to,
+     *                     or -1
+     * @param visitedFlags the flags of the walked chains
+     * @param entryId      the end point where the walk enters the first chain
+     * @return the linked chain
+     */
+    private static ArcChain walkChains(List<? extends List<Arc>> chains,
+                                       int[] partners, boolean[] visitedFlags,
+                                       int entryId) {
+
+        ArrayList<Arc> arcs = new ArrayList<>();
+        int id = entryId;
+
+        while (true) {
+
+            int i = id / 2;
+            visitedFlags[i] = true;
+
+            List<Arc> chain = chains.get(i);
+            boolean forwardFlag = (id & 1) == 0;
+            if (forwardFlag) {
+                arcs.addAll(chain);
+            } else {
+                for (int j = chain.size() - 1; j >= 0; j--) {
+                    arcs.add(reverseArc(chain.get(j)));
+                }
+            }
+
+            int nextId = partners[forwardFlag ? id + 1 : id - 1];
+            if (nextId == -1) {
+                return new ArcChain(arcs, false);
+            }
+            if (visitedFlags[nextId / 2]) {
+                return new ArcChain(arcs, true);
+            }
+            id = nextId;
+        }
+    }
+
+    /**
+     * To find the nearest entry of an unused chain, searching the cells ring
+     * by ring around the position. The entries of used chains are removed
+     * from the cells on the way.
+     *
+     * @param x           the x coordinate of the position
+     * @param y           the y coordinate of the position
+     * @param entryPoints the coordinates of the entries
+     * @param entryChains the chain of every entry
+     * @param usedFlags   the flags of the used chains
+     * @param cellStarts  the index of the first entry of every cell
+     * @param cellCounts  the number of entries of every cell
+     * @param cellEntries the entries of the cells
+     * @param minX        the min x coordinate of the grid
+     * @param minY        the min y coordinate of the grid
+     * @param cellSize    the size of a cell
+     * @param gridWidth   the number of cells along the x axis
+     * @param gridHeight  the number of cells along the y axis
+     * @return the nearest entry, or -1 if there is none
+     */
+    private static int findNearestEntry(double x, double y, double[] entryPoints,
+                                        int[] entryChains, boolean[] usedFlags,
+                                        int[] cellStarts, int[] cellCounts,
+                                        int[] cellEntries, double minX, double minY,
+                                        double cellSize, int gridWidth,
+                                        int gridHeight) {
+
+        int centerX = findCellCoordinate(x, minX, cellSize, gridWidth);
+        int centerY = findCellCoordinate(y, minY, cellSize, gridHeight);
+        int maxRing = Math.max(gridWidth, gridHeight);
+
+        int nearestEntry = -1;
+        double nearestSquaredDistance = Double.POSITIVE_INFINITY;
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+
+            for (int dy = -ring; dy <= ring; dy++) {
+
+                int cellY = centerY + dy;
+                if (cellY < 0 || cellY >= gridHeight) {
+                    continue;
+                }
+
+                /* the whole row on the top and the bottom of the ring, and
+                the two ends of the rows between them */
+                int step = Math.abs(dy) == ring ? 1 : Math.max(2 * ring, 1);
+
+                for (int dx = -ring; dx <= ring; dx += step) {
+
+                    int cellX = centerX + dx;
+                    if (cellX < 0 || cellX >= gridWidth) {
+                        continue;
+                    }
+
+                    int cell = cellY * gridWidth + cellX;
+                    int start = cellStarts[cell];
+                    int index = start;
+
+                    while (index < start + cellCounts[cell]) {
+
+                        int entry = cellEntries[index];
+                        if (usedFlags[entryChains[entry]]) {
+                            cellEntries[index] = cellEntries[start + cellCounts[cell] - 1];
+                            cellCounts[cell]--;
+                            continue;
+                        }
+
+                        double entryDx = entryPoints[2 * entry] - x;
+                        double entryDy = entryPoints[2 * entry + 1] - y;
+                        double squaredDistance = entryDx * entryDx + entryDy * entryDy;
+                        if (squaredDistance < nearestSquaredDistance) {
+                            nearestEntry = entry;
+                            nearestSquaredDistance = squaredDistance;
+                        }
+                        index++;
+                    }
+                }
+            }
+
+            /* the cells beyond this ring are at least this far away */
+            double ringDistance = ring * cellSize;
+            if (nearestEntry != -1
+                    && nearestSquaredDistance <= ringDistance * ringDistance) {
+                break;
+            }
+        }
+
+        return nearestEntry;
+    }
+
+    /**
+     * To create the chain which is entered at an entry.
+     *
+     * @param chain    the chain
+     * @param entryArc the index of the first arc, or -1 to reverse the chain
+     * @return the entered chain
+     */
+    private static ArcChain enterChain(ArcChain chain, int entryArc) {
+
+        ArrayList<Arc> arcs = chain.getArcs();
+
+        if (entryArc == 0) {
+            return chain;
+        }
+
+        ArrayList<Arc> enteredArcs = new ArrayList<>(arcs.size());
+        if (entryArc == -1) {
+            for (int j = arcs.size() - 1; j >= 0; j--) {
+                enteredArcs.add(reverseArc(arcs.get(j)));
+            }
+        } else {
+            enteredArcs.addAll(arcs.subList(entryArc, arcs.size()));
+            enteredArcs.addAll(arcs.subList(0, entryArc));
+        }
+
+        return new ArcChain(enteredArcs, chain.getClosedFlag());
+    }
+
+    /**
+     * To add an entry.
+     *
+     * @param x           the x coordinate of the point of the entry
+     * @param y           the y coordinate of the point of the entry
+     * @param chainIndex  the index of the chain
+     * @param arcIndex    the index of the first arc, or -1 for a reversed
+     *                    open chain
+     * @param entryPoints the coordinates of the entries
+     * @param entryChains the chain of every entry
+     * @param entryArcs   the first arc of every entry
+     * @param count       the number of entries before this one
+     * @return the number of entries
+     */
+    private static int addEntry(double x, double y, int chainIndex, int arcIndex,
+                                double[] entryPoints, int[] entryChains,
+                                int[] entryArcs, int count) {
+
+        entryPoints[2 * count] = x;
+        entryPoints[2 * count + 1] = y;
+        entryChains[count] = chainIndex;
+        entryArcs[count] = arcIndex;
+
+        return count + 1;
+    }
+
+    /**
+     * To judge if the point of an entry is finite.
+     *
+     * @param entryPoints the coordinates of the entries
+     * @param entry       the entry
+     * @return true for a finite point
+     */
+    private static boolean isFiniteEntry(double[] entryPoints, int entry) {
+        return Double.isFinite(entryPoints[2 * entry])
+                && Double.isFinite(entryPoints[2 * entry + 1]);
+    }
+
+    /**
+     * To find the cell of a point, clamped into the grid.
+     *
+     * @param x          the x coordinate of the point
+     * @param y          the y coordinate of the point
+     * @param minX       the min x coordinate of the grid
+     * @param minY       the min y coordinate of the grid
+     * @param cellSize   the size of a cell
+     * @param gridWidth  the number of cells along the x axis
+     * @param gridHeight the number of cells along the y axis
+     * @return the index of the cell
+     */
+    private static int findCell(double x, double y, double minX, double minY,
+                                double cellSize, int gridWidth, int gridHeight) {
+
+        return findCellCoordinate(y, minY, cellSize, gridHeight) * gridWidth
+                + findCellCoordinate(x, minX, cellSize, gridWidth);
+    }
+
+    /**
+     * To find the cell coordinate of a point coordinate, clamped into the
+     * grid.
+     *
+     * @param coordinate the coordinate of the point
+     * @param min        the min coordinate of the grid
+     * @param cellSize   the size of a cell
+     * @param cellCount  the number of cells along the axis
+     * @return the cell coordinate
+     */
+    private static int findCellCoordinate(double coordinate, double min,
+                                          double cellSize, int cellCount) {
+
+        double cell = Math.floor((coordinate - min) / cellSize);
+
+        return (int) Math.max(0.0, Math.min(cellCount - 1.0, cell));
+    }
+
+    /**
+     * To combine the coordinates of a cell of the join grid into a key.
+     * Different cells may share a key, which only adds candidates.
+     *
+     * @param cellX the x coordinate of the cell
+     * @param cellY the y coordinate of the cell
+     * @return the key
+     */
+    private static long calculateCellKey(long cellX, long cellY) {
+        return cellX * 0x9E3779B97F4A7C15L + cellY;
+    }
+
+    /**
+     * To find the slot of a cell in the table of the join grid by linear
+     * probing, or the empty slot where it would be added.
+     *
+     * @param cellKeys  the keys of the slots
+     * @param cellHeads the first end point of every slot, or -1 for an empty
+     *                  slot
+     * @param key       the key of the cell
+     * @return the slot
+     */
+    private static int findSlot(long[] cellKeys, int[] cellHeads, long key) {
+
+        int mask = cellKeys.length - 1;
+        long hash = key * 0xBF58476D1CE4E5B9L;
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+
+        while (cellHeads[slot] != -1 && cellKeys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+}
@@ -0,0 +1,318 @@
+package arcPostProcessing;
+
+import component.Arc;
+import component.DoublePoint;
+import mathTools.MathTools;
+import mathTools.cubicBezierTools.CubicBezierTools;
+
+import java.util.ArrayList;
+
+/**
+ * This class contains methods to merge adjacent fitted arcs which lie on
+ * almost the same circle.
+ * <p>
+ * The recursive subdivision in {@code BezierCurveToArcs} often splits a span
+ * of a near-circular curve into several arcs with almost identical centers
+ * and radii. The arcs are merged in one pass: the current run of arcs is
+ * replaced by the arc through its start point, the last joint point and the
+ * end point of the next arc, if this arc still lies within the allowable
+ * error of the span of the original Bezier curve which it replaces. The
+ * deviation is checked in both directions like {@code ArcChainVerifier}:
+ * the sampled points of the span must be close to the merged arc, and the
+ * sampled points of the merged arc must be close to the span.
+ */
+public class ArcMerger {
+
+    /* the number of sampled points on the Bezier curve to find the initial t
+       value of the nearest point */
+    private static final int CURVE_SAMPLES = 64;
+
+    /* the number of sampled points on a merged arc which are checked against
+       the span of the Bezier curve, and the number of sampled points on the
+       span which are checked against the merged arc */
+    private static final int ARC_SAMPLES = 16;
+    private static final int SPAN_SAMPLES = 16;
+
+    /* the number of Newton iterations to find the t value of the nearest
+       point on the Bezier curve */
+    private static final int NEWTON_ITERATIONS = 8;
+
+    /**
+     * To merge adjacent fitted arcs of a cubic Bezier curve which lie on
+     * almost the same circle. The arcs are merged in place, and the start
+     * point and the end point of the whole series are kept exactly.
+     *
+     * @param A              the start point of the Bezier curve
+     * @param controlPointA  the first control point of the Bezier curve which
+     *                       is close to {@code A}
+     * @param controlPointB  the second control point of the Bezier curve which
+     *                       is close to {@code B}
+     * @param B              the end point of the Bezier curve
+     * @param allowableError the allowable error between the original Bezier
+     *                       curve and the merged arcs
+     * @param arcs           the fitted arcs, which are replaced by the merged
+     *                       arcs
+     * @return the number of removed arcs
+     */
+    public static int mergeCoCircularArcs(
+            DoublePoint A, DoublePoint controlPointA, DoublePoint controlPointB,
+            DoublePoint B, double allowableError, ArrayList<Arc> arcs) {
+
+        if (arcs.size() < 2) {
+            return 0;
+        }
+
+        double[] curve = {A.getX(), A.getY(),
+                controlPointA.getX(), controlPointA.getY(),
+                controlPointB.getX(), controlPointB.getY(),
+                B.getX(), B.getY()};
+
+        double[] curveSamples = new double[2 * CURVE_SAMPLES];
+        for (int i = 0; i < CURVE_SAMPLES; i++) {
+            double t = (double) i / (CURVE_SAMPLES - 1);
+            curveSamples[2 * i] = CubicBezierTools.coordinateOnBezierCurve(
+                    t, curve[0], curve[2], curve[4], curve[6]);
+            curveSamples[2 * i + 1] = CubicBezierTools.coordinateOnBezierCurve(
+                    t, curve[1], curve[3], curve[5], curve[7]);
+        }
+
+        int count = 0;
+        Arc current = arcs.get(0);
+
+        for (int i = 1; i < arcs.size(); i++) {
+
+            Arc next = arcs.get(i);
+            Arc merged = mergeTwoArcs(current, next, curve, curveSamples,
+                    allowableError);
+
+            if (merged != null) {
+                current = merged;
+            } else {
+                arcs.set(count++, current);
+                current = next;
+            }
+        }
+        arcs.set(count++, current);
+
+        int removedCount = arcs.size() - count;
+        arcs.subList(count, arcs.size()).clear();
+
+        return removedCount;
+    }
+
+    /**
+     * To merge two adjacent arcs into the arc through the start point of
+     * {@code first}, the joint point and the end point of {@code second}.
+     *
+     * @param first          the first arc
+     * @param second         the second arc which starts at the end point of
+     *                       {@code first}
+     * @param curve          the coordinates of the start point, the two
+     *                       control points and the end point of the Bezier
+     *                       curve
+     * @param curveSamples   the sampled points of the Bezier curve
+     * @param allowableError the allowable error
+     * @return the merged arc, or null if the two arcs can not be merged
+     */
+    private static Arc mergeTwoArcs(Arc first, Arc second, double[] curve,
+                                    double[] curveSamples,
+                                    double allowableError) {
+
+        if (first.getClockwiseFlag() != second.getClockwiseFlag()) {
+            return null;
+        }
+
+        DoublePoint startPoint = first.getStartPoint();
+        DoublePoint jointPoint = first.getEndPoint();
+        DoublePoint endPoint = second.getEndPoint();
+
+        DoublePoint center = MathTools.findCircumCenterPointOfTriangle(
+                startPoint, jointPoint, endPoint);
+        if (center == null) {
+            return null;
+        }
+
+        double radius = MathTools.euclideanDistance(center, startPoint);
+        double startAngle
+                = MathTools.calculateAngleRelativeToCircleCenter(center, startPoint);
+        double jointAngle
+                = MathTools.calculateAngleRelativeToCircleCenter(center, jointPoint);
+        double endAngle
+                = MathTools.calculateAngleRelativeToCircleCenter(center, endPoint);
+
+        /* The merged arc must keep the direction and pass through the joint
+        point, i.e. its sweep is not greater than pi */
+        jointAngle = normalizeAngle(jointAngle, startAngle);
+        endAngle = normalizeAngle(endAngle, startAngle);
+        if ((endAngle < startAngle) != first.getClockwiseFlag()
+                || Math.abs(jointAngle - startAngle) > Math.abs(endAngle - startAngle)
+                || (jointAngle < startAngle) != first.getClockwiseFlag()) {
+            return null;
+        }
+
+        Arc merged = new Arc(center, radius, startAngle, endAngle,
+                first.getClockwiseFlag(), startPoint, endPoint);
+
+        /* The span of the Bezier curve which the merged arc replaces, from
+        the nearest point of its start point to that of its end point */
+        double startT = findNearestT(startPoint.getX(), startPoint.getY(),
+                curve, curveSamples, 0.0, 1.0);
+        double endT = findNearestT(endPoint.getX(), endPoint.getY(),
+                curve, curveSamples, startT, 1.0);
+
+        /* The sampled points of the span must be close to the merged arc */
+        for (int k = 1; k < SPAN_SAMPLES; k++) {
+            double t = startT + (endT - startT) * k / SPAN_SAMPLES;
+            if (MathTools.distanceFromPointToArc(
+                    CubicBezierTools.coordinateOnBezierCurve(
+                            t, curve[0], curve[2], curve[4], curve[6]),
+                    CubicBezierTools.coordinateOnBezierCurve(
+                            t, curve[1], curve[3], curve[5], curve[7]),
+                    merged) > allowableError) {
+                return null;
+            }
+        }
+
+        /* The sampled points of the merged arc must be close to the span */
+        for (int k = 1; k < ARC_SAMPLES; k++) {
+            DoublePoint point = pointOnArc(merged,
+                    startAngle + (endAngle - startAngle) * k / ARC_SAMPLES);
+            double t = findNearestT(point.getX(), point.getY(),
+                    curve, curveSamples, startT, endT);
+            if (squaredDistanceToCurve(point.getX(), point.getY(), curve, t)
+                    > allowableError * allowableError) {
+                return null;
+            }
+        }
+
+        return merged;
+    }
+
+    /**
+     * To calculate the point on the circle of an arc at the given angle.
+     *
+     * @param arc   the arc
+     * @param angle the angle
+     * @return the point on the circle of the arc
+     */
+    private static DoublePoint pointOnArc(Arc arc, double angle) {
+
+        return new DoublePoint(
+                arc.getCenter().getX() + arc.getRadius() * Math.cos(angle),
+                arc.getCenter().getY() + arc.getRadius() * Math.sin(angle));
+    }
+
+    /**
+     * To move an angle into the range [{@code startAngle} - pi,
+     * {@code startAngle} + pi].
+     *
+     * @param angle      the angle
+     * @param startAngle the start angle
+     * @return the moved angle
+     */
+    private static double normalizeAngle(double angle, double startAngle) {
+
+        while (angle < startAngle - Math.PI) {
+            angle += 2.0 * Math.PI;
+        }
+        while (angle > startAngle + Math.PI) {
+            angle -= 2.0 * Math.PI;
+        }
+
+        return angle;
+    }
+
+    /**
+     * To find the t value of the nearest point on a span of the Bezier curve
+     * to a point. The initial t value is the one of the nearest sampled point
+     * in the span, or an end of the span, and it is refined with Newton's
+     * method on g(t) = (Q(t) - P) · Q'(t) within the span.
+     *
+     * @param x            the x coordinate of the point
+     * @param y            the y coordinate of the point
+     * @param curve        the coordinates of the start point, the two control
+     *                     points and the end point of the Bezier curve
+     * @param curveSamples the sampled points of the Bezier curve
+     * @param startT       the start t value of the span
+     * @param endT         the end t value of the span
+     * @return the t value of the nearest point in the span
+     */
+    private static double findNearestT(double x, double y, double[] curve,
+                                       double[] curveSamples,
+                                       double startT, double endT) {
+
+        double t = startT;
+        double nearestDistance = squaredDistanceToCurve(x, y, curve, startT);
+
+        double endDistance = squaredDistanceToCurve(x, y, curve, endT);
+        if (endDistance < nearestDistance) {
+            nearestDistance = endDistance;
+            t = endT;
+        }
+
+        for (int i = 0; i < CURVE_SAMPLES; i++) {
+            double sampleT = (double) i / (CURVE_SAMPLES - 1);
+            if (sampleT <= startT || sampleT >= endT) {
+                continue;
+            }
+            double deltaX = curveSamples[2 * i] - x;
+            double deltaY = curveSamples[2 * i + 1] - y;
+            double distance = deltaX * deltaX + deltaY * deltaY;
+            if (distance < nearestDistance) {
+                nearestDistance = distance;
+                t = sampleT;
+            }
+        }
+
+        for (int i = 0; i < NEWTON_ITERATIONS; i++) {
+
+            double deltaX = CubicBezierTools.coordinateOnBezierCurve(
+                    t, curve[0], curve[2], curve[4], curve[6]) - x;
+            double deltaY = CubicBezierTools.coordinateOnBezierCurve(
+                    t, curve[1], curve[3], curve[5], curve[7]) - y;
+            double dx = CubicBezierTools.coordinateOfDerivativeOnBezierCurve(
+                    t, curve[0], curve[2], curve[4], curve[6]);
+            double dy = CubicBezierTools.coordinateOfDerivativeOnBezierCurve(
+                    t, curve[1], curve[3], curve[5], curve[7]);
+            double ddx = CubicBezierTools
+                    .coordinateOfSecondDerivativeOnBezierCurve(
+                            t, curve[0], curve[2], curve[4], curve[6]);
+            double ddy = CubicBezierTools
+                    .coordinateOfSecondDerivativeOnBezierCurve(
+                            t, curve[1], curve[3], curve[5], curve[7]);
+
+            double g = deltaX * dx + deltaY * dy;
+            double dg = dx * dx + dy * dy + deltaX * ddx + deltaY * ddy;
+
+            if (dg <= MathTools.EPSILON) {
+                break;
+            }
+
+            t = Math.min(endT, Math.max(startT, t - g / dg));
+        }
+
+        return t;
+    }
+
+    /**
+     * To calculate the squared distance from a point to the point of the
+     * Bezier curve at t.
+     *
+     * @param x     the x coordinate of the point
+     * @param y     the y coordinate of the point
+     * @param curve the coordinates of the start point, the two control points
+     *              and the end point of the Bezier curve
+     * @param t     the t value
+     * @return the squared distance
+     */
+    private static double squaredDistanceToCurve(double x, double y,
+                                                 double[] curve, double t) {
+
+        double deltaX = CubicBezierTools.coordinateOnBezierCurve(
+                t, curve[0], curve[2], curve[4], curve[6]) - x;
+        double deltaY = CubicBezierTools.coordinateOnBezierCurve(
+                t, curve[1], curve[3], curve[5], curve[7]) - y;
+
+        return deltaX * deltaX + deltaY * deltaY;
+    }
+}
@@ -0,0 +1,348 @@
+package arcStore;
+
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.FlatteningPathIterator;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+
+/**
+ * This class is a {@code Shape} view over a range of the arcs of an
+ * {@link OffHeapArcStore}, so Java2D can fill, stroke or rasterize millions of
+ * arcs without an {@code Arc2D} or a {@code Path2D} of them. Its
+ * {@code PathIterator} reads the arcs through a {@link StoredArc} flyweight and
+ * emits every arc as one cubic Bezier curve, or as two when its sweep is
+ * larger than pi / 2, with the usual control distance of
+ * 4 / 3 * tan(sweep / 4) * radius. The joints are the stored points, so the
+ * segments of adjacent arcs meet exactly.
+ * <p>
+ * A new subpath starts wherever the start point of an arc is not the end point
+ * of the arc before it. An arc whose radius or angles are not finite is
+ * emitted as a line to its end point. The subpaths are not closed, and the
+ * winding rule is non-zero.
+ * <p>
+ * The view doesn't see arcs which are added to the store afterwards, and it
+ * can't be used after the store is closed.
+ */
+public class ArcStoreShape implements Shape {
+
+    /* the store of the arcs */
+    private final OffHeapArcStore store;
+
+    /* the index of the first arc and the index after the last arc */
+    private final long firstArc;
+    private final long endArc;
+
+    /* the bounds of the control points, or null before they are needed */
+    private Rectangle2D bounds = null;
+
+    /**
+     * Constructor. The view covers the arcs in the store at this time.
+     *
+     * @param store the store of the arcs
+     */
+    public ArcStoreShape(OffHeapArcStore store) {
+        this(store, 0, store.getArcCount());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param store    the store of the arcs
+     * @param firstArc the index of the first arc
+     * @param endArc   the index after the last arc
+     */
+    public ArcStoreShape(OffHeapArcStore store, long firstArc, long endArc) {
+
+        if (firstArc < 0 || endArc > store.getArcCount() || firstArc > endArc) {
+            throw new IndexOutOfBoundsException("Arcs " + firstArc + " to "
+                    + endArc + " of " + store.getArcCount());
+        }
+
+        this.store = store;
+        this.firstArc = firstArc;
+        this.endArc = endArc;
+    }
+
+    @Override
+    public Rectangle getBounds() {
+        return getBounds2D().getBounds();
+    }
+
+    /**
+     * To get the bounds of the points and the control points of the segments,
+     * which contain the shape. They are calculated at the first call.
+     *
+     * @return the bounds
+     */
+    @Override
+    public Rectangle2D getBounds2D() {
+
+        if (bounds == null) {
+
+            double minX = Double.POSITIVE_INFINITY;
+            double minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY;
+            double maxY = Double.NEGATIVE_INFINITY;
+            double[] coordinates = new double[6];
+
+            for (PathIterator iterator = getPathIterator(null);
+                 !iterator.isDone(); iterator.next()) {
+
+                int pointCount = iterator.currentSegment(coordinates)
+                        == PathIterator.SEG_CUBICTO ? 3 : 1;
+
+                for (int i = 0; i < pointCount; i++) {
+                    minX = Math.min(minX, coordinates[2 * i]);
+                    minY = Math.min(minY, coordinates[2 * i + 1]);
+                    maxX = Math.max(maxX, coordinates[2 * i]);
+                    maxY = Math.max(maxY, coordinates[2 * i + 1]);
+                }
+            }
+
+            bounds = minX <= maxX
+                    ? new Rectangle2D.Double(minX, minY, maxX - minX, maxY - minY)
+                    : new Rectangle2D.Double();
+        }
+
+        return (Rectangle2D) bounds.clone();
+    }
+
+    @Override
+    public boolean contains(double x, double y) {
+        return getBounds2D().contains(x, y)
+                && Path2D.contains(getPathIterator(null), x, y);
+    }
+
+    @Override
+    public boolean contains(Point2D p) {
+        return contains(p.getX(), p.getY());
+    }
+
+    @Override
+    public boolean intersects(double x, double y, double w, double h) {
+        return getBounds2D().intersects(x, y, w, h)
+                && Path2D.intersects(getPathIterator(null), x, y, w, h);
+    }
+
+    @Override
+    public boolean intersects(Rectangle2D r) {
+        return intersects(r.getX(), r.getY(), r.getWidth(), r.getHeight());
+    }
+
+    @Override
+    public boolean contains(double x, double y, double w, double h) {
+        return getBounds2D().contains(x, y, w, h)
+                && Path2D.contains(getPathIterator(null), x, y, w, h);
+    }
+
+    @Override
+    public boolean contains(Rectangle2D r) {
+        return contains(r.getX(), r.getY(), r.getWidth(), r.getHeight());
+    }
+
+    @Override
+    public PathIterator getPathIterator(AffineTransform at) {
+        return new ArcIterator(store.createView(), firstArc, endArc, at);
+    }
+
+    @Override
+    public PathIterator getPathIterator(AffineTransform at, double flatness) {
+        return new FlatteningPathIterator(getPathIterator(at), flatness);
+    }
+
+    /**
+     * This class is to iterate the segments of the arcs.
+     */
+    private static class ArcIterator implements PathIterator {
+
+        /* the flyweight of the current arc */
+        private final StoredArc arc;
+
+        /* the index after the last arc */
+        private final long endArc;
+
+        /* the transform of the coordinates, or null */
+        private final AffineTransform transform;
+
+        /* the index of the current arc */
+        private long index;
+
+        /* the current piece of the current arc and the number of its pieces,
+           which is 0 for an arc that is emitted as a line */
+        private int piece = 0;
+        private int pieceCount;
+
+        /* a flag to mark that the current segment is the move to the start
+           point of the current arc */
+        private boolean moveFlag;
+
+        /* the end point of the arc before the current arc */
+        private double previousEndX = Double.NaN;
+        private double previousEndY = Double.NaN;
+
+        /* the coordinates of the current segment */
+        private final double[] segment = new double[6];
+
+        /**
+         * Constructor
+         *
+         * @param arc       the flyweight of the arcs
+         * @param firstArc  the index of the first arc
+         * @param endArc    the index after the last arc
+         * @param transform the transform of the coordinates, or null
+         */
+        ArcIterator(StoredArc arc, long firstArc, long endArc,
+                    AffineTransform transform) {
+
+            this.arc = arc;
+            this.endArc = endArc;
+            this.transform = transform;
+
+            index = firstArc;
+            if (index < endArc) {
+                loadArc();
+            }
+        }
+
+        @Override
+        public int getWindingRule() {
+            return WIND_NON_ZERO;
+        }
+
+        @Override
+        public boolean isDone() {
+            return index >= endArc;
+        }
+
+        @Override
+        public void next() {
+
+            if (moveFlag) {
+                moveFlag = false;
+                return;
+            }
+
+            piece++;
+            if (piece >= pieceCount) {
+
+                previousEndX = arc.getEndX();
+                previousEndY = arc.getEndY();
+
+                index++;
+                piece = 0;
+                if (index < endArc) {
+                    loadArc();
+                }
+            }
+        }
+
+        @Override
+        public int currentSegment(float[] coords) {
+
+            int type = calculateSegment();
+            for (int i = 0; i < 6; i++) {
+                coords[i] = (float) segment[i];
+            }
+
+            return type;
+        }
+
+        @Override
+        public int currentSegment(double[] coords) {
+
+            int type = calculateSegment();
+            System.arraycopy(segment, 0, coords, 0, 6);
+
+            return type;
+        }
+
+        /**
+         * To point the flyweight at the current arc and decide its pieces.
+         */
+        private void loadArc() {
+
+            arc.moveTo(index);
+
+            moveFlag = arc.getStartX() != previousEndX
+                    || arc.getStartY() != previousEndY;
+
+            double sweep = arc.getEndAngle() - arc.getStartAngle();
+
+            if (!Double.isFinite(arc.getRadius()) || !Double.isFinite(sweep)) {
+                pieceCount = 0;
+            } else {
+                pieceCount = Math.abs(sweep) > Math.PI / 2.0 ? 2 : 1;
+            }
+        }
+
+        /**
+         * To calculate the current segment into {@code segment}.
+         *
+         * @return the type of the segment
+         */
+        private int calculateSegment() {
+
+            int type;
+            int pointCount;
+
+            if (moveFlag) {
+
+                segment[0] = arc.getStartX();
+                segment[1] = arc.getStartY();
+                type = SEG_MOVETO;
+                pointCount = 1;
+
+            } else if (pieceCount == 0) {
+
+                segment[0] = arc.getEndX();
+                segment[1] = arc.getEndY();
+                type = SEG_LINETO;
+                pointCount = 1;
+
+            } else {
+
+                double centerX = arc.getCenterX();
+                double centerY = arc.getCenterY();
+                double radius = arc.getRadius();
+                double startAngle = arc.getStartAngle();
+                double sweep = (arc.getEndAngle() - startAngle) / pieceCount;
+                double angle0 = startAngle + piece * sweep;
+                double angle1 = angle0 + sweep;
+                double k = 4.0 / 3.0 * Math.tan(sweep / 4.0) * radius;
+
+                double cos0 = Math.cos(angle0);
+                double sin0 = Math.sin(angle0);
+                double cos1 = Math.cos(angle1);
+                double sin1 = Math.sin(angle1);
+
+                /* The first piece starts and the last piece ends at the stored
+                points, so adjacent arcs meet exactly */
+                double x0 = piece == 0 ? arc.getStartX() : centerX + radius * cos0;
+                double y0 = piece == 0 ? arc.getStartY() : centerY + radius * sin0;
+                double x3 = piece == pieceCount - 1
+                        ? arc.getEndX() : centerX + radius * cos1;
+                double y3 = piece == pieceCount - 1
+                        ? arc.getEndY() : centerY + radius * sin1;
+
+                segment[0] = x0 - k * sin0;
+                segment[1] = y0 + k * cos0;
+                segment[2] = x3 + k * sin1;
+                segment[3] = y3 - k * cos1;
+                segment[4] = x3;
+                segment[5] = y3;
+                type = SEG_CUBICTO;
+                pointCount = 3;
+            }
+
+            if (transform != null) {
+                transform.transform(segment, 0, segment, 0, pointCount);
+            }
+
+            return type;
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package arcStore;
+
+import bezierCurveToArcs.ConversionContext;
+import bezierCurveToArcs.ConversionStatistics;
+import component.Arc;
+import component.DoublePoint;
+
+import java.io.Closeable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+/**
+ * This class is to keep a large number of arcs outside the heap, in chunks of
+ * direct {@code ByteBuffer}s, so huge jobs run with a small heap and short
+ * pauses of the garbage collector. An arc takes {@code RECORD_SIZE} bytes, and
+ * an {@code Arc} object with its center takes about 100 bytes of heap.
+ * <p>
+ * The arcs are appended curve by curve: {@link #beginCurve()} starts a curve,
+ * and the arcs which follow belong to it. The converter appends to the store
+ * directly through {@link #convertACubicBezierCurveToArcs}. The arcs are read
+ * by index through a {@link StoredArc} flyweight, which can be moved from arc
+ * to arc without creating objects.
+ * <p>
+ * The memory of the chunks is released by {@link #close()}, and not only when
+ * the garbage collector finds the store unreachable. A store is not
+ * thread-safe.
+ */
+public class OffHeapArcStore implements Closeable {
+
+    /* the bytes of an arc: the center x and y, the radius, the start angle,
+       the end angle, the start point x and y, the end point x and y, the
+       index of the curve and the flags */
+    static final int RECORD_SIZE = 80;
+
+    /* the offsets of the values in a record */
+    static final int CENTER_X = 0;
+    static final int CENTER_Y = 8;
+    static final int RADIUS = 16;
+    static final int START_ANGLE = 24;
+    static final int END_ANGLE = 32;
+    static final int START_X = 40;
+    static final int START_Y = 48;
+    static final int END_X = 56;
+    static final int END_Y = 64;
+    static final int CURVE_INDEX = 72;
+    static final int FLAGS = 76;
+
+    /* the flag of a clockwise arc */
+    static final int CLOCKWISE_FLAG = 1;
+
+    /* the log2 of the number of arcs in a chunk */
+    static final int CHUNK_SHIFT = 16;
+
+    /* the number of arcs in a chunk */
+    private static final int CHUNK_ARC_COUNT = 1 << CHUNK_SHIFT;
+
+    /* {@code sun.misc.Unsafe.invokeCleaner} and its receiver, or null if it
+       is not available, when the chunks are left to the garbage collector */
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            unsafe = null;
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    /* the chunks of the arcs */
+    private final ArrayList<ByteBuffer> chunks = new ArrayList<>();
+
+    /* the number of arcs and the number of curves */
+    private long arcCount = 0;
+    private int curveCount = 0;
+
+    /* a flag to mark that the memory has been released */
+    private boolean closedFlag = false;
+
+    /* {@code add} as a consumer for the converter */
+    private final Consumer<Arc> arcAppender = this::add;
+
+    /**
+     * To start a new curve. The arcs which are added afterwards belong to it.
+     *
+     * @return the index of the new curve
+     */
+    public int beginCurve() {
+
+        checkNotClosed();
+
+        return curveCount++;
+    }
+
+    /**
+     * To add an arc to the current curve.
+     *
+     * @param arc the arc
+     */
+    public void add(Arc arc) {
+
+        checkNotClosed();
+
+        if (curveCount == 0) {
+            throw new IllegalStateException("No curve has begun");
+        }
+
+        int chunkIndex = (int) (arcCount >>> CHUNK_SHIFT);
+        if (chunkIndex == chunks.size()) {
+            chunks.add(ByteBuffer.allocateDirect(CHUNK_ARC_COUNT * RECORD_SIZE)
+                    .order(ByteOrder.nativeOrder()));
+        }
+
+        ByteBuffer chunk = chunks.get(chunkIndex);
+        int offset = (int) (arcCount & (CHUNK_ARC_COUNT - 1)) * RECORD_SIZE;
+
+        DoublePoint center = arc.getCenter();
+
+        chunk.putDouble(offset + CENTER_X, center.getX());
+        chunk.putDouble(offset + CENTER_Y, center.getY());
+        chunk.putDouble(offset + RADIUS, arc.getRadius());
+        chunk.putDouble(offset + START_ANGLE, arc.getStartAngle());
+        chunk.putDouble(offset + END_ANGLE, arc.getEndAngle());
+        chunk.putDouble(offset + START_X, arc.getStartX());
+        chunk.putDouble(offset + START_Y, arc.getStartY());
+        chunk.putDouble(offset + END_X, arc.getEndX());
+        chunk.putDouble(offset + END_Y, arc.getEndY());
+        chunk.putInt(offset + CURVE_INDEX, curveCount - 1);
+        chunk.putInt(offset + FLAGS, arc.getClockwiseFlag() ? CLOCKWISE_FLAG : 0);
+
+        arcCount++;
+    }
+
+    /**
+     * To convert a cubic Bezier curve and append its arcs to the store as a
+     * new curve.
+     *
+     * @param A              the start point of the Bezier curve
+     * @param controlPointA  the first control point of the Bezier curve which
+     *                       is close to {@code A}
+     * @param controlPointB  the second control point of the Bezier curve which
+     *                       is close to {@code B}
+     * @param B              the end point of the Bezier curve
+     * @param allowableError the allowable error
+     * @param context        the conversion context of the current thread
+     * @param statistics     the statistics which the counters of this
+     *                       conversion are added to
+     * @return the index of the curve
+     */
+    public int convertACubicBezierCurveToArcs(
+            DoublePoint A, DoublePoint controlPointA, DoublePoint controlPointB,
+            DoublePoint B, double allowableError, ConversionContext context,
+            ConversionStatistics statistics) {
+
+        int curveIndex = beginCurve();
+
+        context.convertACubicBezierCurveToArcs(A, controlPointA, controlPointB,
+                B, allowableError, arcAppender, statistics);
+
+        return curveIndex;
+    }
+
+    /**
+     * To convert a cubic Bezier curve which is given by its coordinates and
+     * append its arcs to the store as a new curve.
+     *
+     * @param coordinates    the array which holds the coordinates of the start
+     *                       point, the first control point, the second
+     *                       control point and the end point in this order
+     * @param offset         the index of the x coordinate of the start point
+     * @param allowableError the allowable error
+     * @param context        the conversion context of the current thread
+     * @param statistics     the statistics which the counters of this
+     *                       conversion are added to
+     * @return the index of the curve
+     */
+    public int convertACubicBezierCurveToArcs(
+            double[] coordinates, int offset, double allowableError,
+            ConversionContext context, ConversionStatistics statistics) {
+
+        int curveIndex = beginCurve();
+
+        context.convertACubicBezierCurveToArcs(coordinates, offset,
+                allowableError, arcAppender, statistics);
+
+        return curveIndex;
+    }
+
+    /**
+     * To create a flyweight to read the arcs of this store. It points at the
+     * first arc.
+     *
+     * @return the flyweight
+     */
+    public StoredArc createView() {
+
+        checkNotClosed();
+
+        return new StoredArc(this);
+    }
+
+    /**
+     * To find the index of the first arc of a curve by binary search.
+     *
+     * @param curveIndex the index of the curve
+     * @return the index of the first arc of the curve, or the index of the
+     * first arc of the next curve with arcs if it has none
+     */
+    public long findFirstArc(int curveIndex) {
+
+        checkNotClosed();
+
+        long low = 0;
+        long high = arcCount;
+
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (getCurveIndex(middle) < curveIndex) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * To get this.arcCount.
+     *
+     * @return this.arcCount
+     */
+    public long getArcCount() {
+        return arcCount;
+    }
+
+    /**
+     * To get this.curveCount.
+     *
+     * @return this.curveCount
+     */
+    public int getCurveCount() {
+        return curveCount;
+    }
+
+    /**
+     * To get the number of bytes of the chunks.
+     *
+     * @return the number of bytes outside the heap
+     */
+    public long getReservedBytes() {
+        return (long) chunks.size() * CHUNK_ARC_COUNT * RECORD_SIZE;
+    }
+
+    /**
+     * To release the memory of the chunks. The store and its flyweights can't
+     * be used afterwards.
+     */
+    @Override
+    public void close() {
+
+        if (closedFlag) {
+            return;
+        }
+        closedFlag = true;
+
+        if (INVOKE_CLEANER != null) {
+            for (ByteBuffer chunk : chunks) {
+                try {
+                    INVOKE_CLEANER.invoke(UNSAFE, chunk);
+                } catch (ReflectiveOperationException e) {
+                    /* left to the garbage collector */
+                }
+            }
+        }
+
+        chunks.clear();
+        arcCount = 0;
+        curveCount = 0;
+    }
+
+    /**
+     * To get the chunk of an arc.
+     *
+     * @param arcIndex the index of the arc
+     * @return the chunk
+     */
+    ByteBuffer getChunk(long arcIndex) {
+
+        checkNotClosed();
+
+        if (arcIndex < 0 || arcIndex >= arcCount) {
+            throw new IndexOutOfBoundsException(
+                    "Arc " + arcIndex + " of " + arcCount);
+        }
+
+        return chunks.get((int) (arcIndex >>> CHUNK_SHIFT));
+    }
+
+    /**
+     * To get the offset of an arc in its chunk.
+     *
+     * @param arcIndex the index of the arc
+     * @return the offset in bytes
+     */
+    static int getOffset(long arcIndex) {
+        return (int) (arcIndex & (CHUNK_ARC_COUNT - 1)) * RECORD_SIZE;
+    }
+
+    /**
+     * To get the index of the curve of an arc.
+     *
+     * @param arcIndex the index of the arc
+     * @return the index of the curve
+     */
+    private int getCurveIndex(long arcIndex) {
+        return chunks.get((int) (arcIndex >>> CHUNK_SHIFT))
+                .getInt(getOffset(arcIndex) + CURVE_INDEX);
+    }
+
+    /**
+     * To make sure that the memory hasn't been released.
+     */
+    void checkNotClosed() {
+
+        if (closedFlag) {
+            throw new IllegalStateException("The arc store has been closed");
+        }
+    }
+}
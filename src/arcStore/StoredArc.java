@@ -0,0 +1,205 @@
+package arcStore;
+
+import component.Arc;
+import component.DoublePoint;
+
+import java.nio.ByteBuffer;
+
+/**
+ * This class is a flyweight to read the arcs of an {@link OffHeapArcStore}.
+ * It points at one arc at a time and reads its values from the store, so a
+ * single object can walk over millions of arcs. {@link #toArc()} creates an
+ * {@code Arc} object when one is needed.
+ * <p>
+ * A flyweight points at no arc until it is moved, and it can't be used after
+ * its store is closed.
+ */
+public class StoredArc {
+
+    /* the store of the arcs */
+    private final OffHeapArcStore store;
+
+    /* the index of the current arc */
+    private long index = -1;
+
+    /* the chunk and the offset of the current arc */
+    private ByteBuffer chunk;
+    private int offset;
+
+    /**
+     * Constructor
+     *
+     * @param store the store of the arcs
+     */
+    StoredArc(OffHeapArcStore store) {
+        this.store = store;
+    }
+
+    /**
+     * To point at an arc.
+     *
+     * @param index the index of the arc
+     * @return this flyweight
+     */
+    public StoredArc moveTo(long index) {
+
+        chunk = store.getChunk(index);
+        offset = OffHeapArcStore.getOffset(index);
+        this.index = index;
+
+        return this;
+    }
+
+    /**
+     * To point at the next arc.
+     *
+     * @return false if there is no next arc
+     */
+    public boolean next() {
+
+        if (index + 1 >= store.getArcCount()) {
+            return false;
+        }
+
+        moveTo(index + 1);
+        return true;
+    }
+
+    /**
+     * To get this.index.
+     *
+     * @return this.index
+     */
+    public long getIndex() {
+        return index;
+    }
+
+    /**
+     * To get the index of the curve of the arc.
+     *
+     * @return the index of the curve
+     */
+    public int getCurveIndex() {
+        return chunk().getInt(offset + OffHeapArcStore.CURVE_INDEX);
+    }
+
+    /**
+     * To get the x coordinate of the center.
+     *
+     * @return the x coordinate of the center
+     */
+    public double getCenterX() {
+        return chunk().getDouble(offset + OffHeapArcStore.CENTER_X);
+    }
+
+    /**
+     * To get the y coordinate of the center.
+     *
+     * @return the y coordinate of the center
+     */
+    public double getCenterY() {
+        return chunk().getDouble(offset + OffHeapArcStore.CENTER_Y);
+    }
+
+    /**
+     * To get the radius.
+     *
+     * @return the radius
+     */
+    public double getRadius() {
+        return chunk().getDouble(offset + OffHeapArcStore.RADIUS);
+    }
+
+    /**
+     * To get the start angle.
+     *
+     * @return the start angle
+     */
+    public double getStartAngle() {
+        return chunk().getDouble(offset + OffHeapArcStore.START_ANGLE);
+    }
+
+    /**
+     * To get the end angle.
+     *
+     * @return the end angle
+     */
+    public double getEndAngle() {
+        return chunk().getDouble(offset + OffHeapArcStore.END_ANGLE);
+    }
+
+    /**
+     * To get the direction.
+     *
+     * @return true for clockwise and false for anti-clockwise
+     */
+    public boolean getClockwiseFlag() {
+        return (chunk().getInt(offset + OffHeapArcStore.FLAGS)
+                & OffHeapArcStore.CLOCKWISE_FLAG) != 0;
+    }
+
+    /**
+     * To get the x coordinate of the start point.
+     *
+     * @return the x coordinate of the start point
+     */
+    public double getStartX() {
+        return chunk().getDouble(offset + OffHeapArcStore.START_X);
+    }
+
+    /**
+     * To get the y coordinate of the start point.
+     *
+     * @return the y coordinate of the start point
+     */
+    public double getStartY() {
+        return chunk().getDouble(offset + OffHeapArcStore.START_Y);
+    }
+
+    /**
+     * To get the x coordinate of the end point.
+     *
+     * @return the x coordinate of the end point
+     */
+    public double getEndX() {
+        return chunk().getDouble(offset + OffHeapArcStore.END_X);
+    }
+
+    /**
+     * To get the y coordinate of the end point.
+     *
+     * @return the y coordinate of the end point
+     */
+    public double getEndY() {
+        return chunk().getDouble(offset + OffHeapArcStore.END_Y);
+    }
+
+    /**
+     * To create an {@code Arc} object of the current arc.
+     *
+     * @return the arc
+     */
+    public Arc toArc() {
+
+        return new Arc(new DoublePoint(getCenterX(), getCenterY()), getRadius(),
+                getStartAngle(), getEndAngle(), getClockwiseFlag(),
+                getStartX(), getStartY(), getEndX(), getEndY());
+    }
+
+    /**
+     * To get the chunk of the current arc. The memory of a closed store must
+     * not be read, as it has been freed.
+     *
+     * @return the chunk
+     */
+    private ByteBuffer chunk() {
+
+        store.checkNotClosed();
+
+        if (chunk == null) {
+            throw new IllegalStateException("The flyweight points at no arc");
+        }
+
+        return chunk;
+    }
+}
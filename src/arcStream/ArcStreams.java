@@ -0,0 +1,103 @@
+package arcStream;
+
+import bezierCurveToArcs.ConverterConfiguration;
+import bezierCurveToArcs.TolerancePolicy;
+import component.Arc;
+
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * This class is to convert a curve collection as a stream, so post-processing
+ * can run as a stream pipeline without collecting every arc first. The curves
+ * are converted lazily as the stream pulls them, and a parallel stream splits
+ * them by curve ranges, see {@link CurveArcsSpliterator}.
+ * <p>
+ * The stream of the curves is {@code SIZED}, while the stream of the arcs is
+ * only {@code ORDERED}, because the number of arcs isn't known before the
+ * curves are converted.
+ */
+public class ArcStreams {
+
+    /**
+     * To create a stream of the arcs of every curve.
+     *
+     * @param coordinates    the coordinates of the curves, 8 for every curve
+     *                       in the order of the start point, the first control
+     *                       point, the second control point and the end point
+     * @param allowableError the allowable error
+     * @param configuration  the configuration of the converter
+     * @param parallelFlag   true for a parallel stream
+     * @return the stream of the curves in order
+     */
+    public static Stream<CurveArcs> curves(double[] coordinates, double allowableError,
+                                           ConverterConfiguration configuration,
+                                           boolean parallelFlag) {
+
+        return curves(coordinates, TolerancePolicy.constant(allowableError),
+                configuration, parallelFlag);
+    }
+
+    /**
+     * To create a stream of the arcs of every curve, with the allowable error
+     * of every curve given by a policy.
+     *
+     * @param coordinates     the coordinates of the curves, 8 for every curve
+     *                        in the order of the start point, the first
+     *                        control point, the second control point and the
+     *                        end point
+     * @param tolerancePolicy the policy of the allowable error of every curve
+     * @param configuration   the configuration of the converter
+     * @param parallelFlag    true for a parallel stream
+     * @return the stream of the curves in order
+     */
+    public static Stream<CurveArcs> curves(double[] coordinates,
+                                           TolerancePolicy tolerancePolicy,
+                                           ConverterConfiguration configuration,
+                                           boolean parallelFlag) {
+
+        return StreamSupport.stream(new CurveArcsSpliterator(coordinates, 0,
+                coordinates.length / 8, tolerancePolicy, configuration), parallelFlag);
+    }
+
+    /**
+     * To create a stream of the arcs of all curves in order.
+     *
+     * @param coordinates    the coordinates of the curves, 8 for every curve
+     *                       in the order of the start point, the first control
+     *                       point, the second control point and the end point
+     * @param allowableError the allowable error
+     * @param configuration  the configuration of the converter
+     * @param parallelFlag   true for a parallel stream
+     * @return the stream of the arcs in order
+     */
+    public static Stream<Arc> arcs(double[] coordinates, double allowableError,
+                                   ConverterConfiguration configuration,
+                                   boolean parallelFlag) {
+
+        return curves(coordinates, allowableError, configuration, parallelFlag)
+                .flatMap(curve -> curve.getArcs().stream());
+    }
+
+    /**
+     * To create a stream of the arcs of all curves in order, with the
+     * allowable error of every curve given by a policy.
+     *
+     * @param coordinates     the coordinates of the curves, 8 for every curve
+     *                        in the order of the start point, the first
+     *                        control point, the second control point and the
+     *                        end point
+     * @param tolerancePolicy the policy of the allowable error of every curve
+     * @param configuration   the configuration of the converter
+     * @param parallelFlag    true for a parallel stream
+     * @return the stream of the arcs in order
+     */
+    public static Stream<Arc> arcs(double[] coordinates,
+                                   TolerancePolicy tolerancePolicy,
+                                   ConverterConfiguration configuration,
+                                   boolean parallelFlag) {
+
+        return curves(coordinates, tolerancePolicy, configuration, parallelFlag)
+                .flatMap(curve -> curve.getArcs().stream());
+    }
+}
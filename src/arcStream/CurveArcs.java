@@ -0,0 +1,64 @@
+package arcStream;
+
+import bezierCurveToArcs.ConversionStatistics;
+import component.Arc;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class is to store the fitted arcs of one curve of a curve collection,
+ * which is an element of the streams of {@link ArcStreams}.
+ */
+public class CurveArcs {
+
+    /* the index of the curve in the collection */
+    private final int curveIndex;
+
+    /* the fitted arcs in order */
+    private final List<Arc> arcs;
+
+    /* the statistics of the conversion of the curve */
+    private final ConversionStatistics statistics;
+
+    /**
+     * Constructor
+     *
+     * @param curveIndex the index of the curve in the collection
+     * @param arcs       the fitted arcs in order
+     * @param statistics the statistics of the conversion of the curve
+     */
+    public CurveArcs(int curveIndex, List<Arc> arcs, ConversionStatistics statistics) {
+
+        this.curveIndex = curveIndex;
+        this.arcs = Collections.unmodifiableList(arcs);
+        this.statistics = statistics;
+    }
+
+    /**
+     * To get this.curveIndex.
+     *
+     * @return this.curveIndex
+     */
+    public int getCurveIndex() {
+        return curveIndex;
+    }
+
+    /**
+     * To get this.arcs, which can't be modified.
+     *
+     * @return this.arcs
+     */
+    public List<Arc> getArcs() {
+        return arcs;
+    }
+
+    /**
+     * To get this.statistics.
+     *
+     * @return this.statistics
+     */
+    public ConversionStatistics getStatistics() {
+        return statistics;
+    }
+}
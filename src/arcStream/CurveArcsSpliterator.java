@@ -0,0 +1,148 @@
+package arcStream;
+
+import bezierCurveToArcs.ConversionStatistics;
+import bezierCurveToArcs.ConverterConfiguration;
+import bezierCurveToArcs.TolerancePolicy;
+import component.Arc;
+
+import java.util.ArrayList;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * This class is a spliterator over a range of the curves of a curve
+ * collection. A curve is converted only when the spliterator advances to it,
+ * with the conversion context of the thread which advances, so the splits of
+ * a parallel stream convert their curves on their own threads.
+ * <p>
+ * The number of curves of every split is known, so the spliterator is
+ * {@code SIZED} and {@code SUBSIZED}. A split takes the first half of the
+ * remaining curves, which keeps the encounter order.
+ */
+public class CurveArcsSpliterator implements Spliterator<CurveArcs> {
+
+    /* the coordinates of the curves, 8 for every curve in the order of the
+       start point, the first control point, the second control point and the
+       end point */
+    private final double[] coordinates;
+
+    /* the policy of the allowable error of every curve */
+    private final TolerancePolicy tolerancePolicy;
+
+    /* the configuration of the converter */
+    private final ConverterConfiguration configuration;
+
+    /* the index of the next curve */
+    private int index;
+
+    /* the index after the last curve */
+    private final int endIndex;
+
+    /**
+     * Constructor
+     *
+     * @param coordinates    the coordinates of the curves, 8 for every curve
+     * @param firstIndex     the index of the first curve
+     * @param endIndex       the index after the last curve
+     * @param allowableError the allowable error
+     * @param configuration  the configuration of the converter
+     */
+    public CurveArcsSpliterator(double[] coordinates, int firstIndex, int endIndex,
+                                double allowableError,
+                                ConverterConfiguration configuration) {
+
+        this(coordinates, firstIndex, endIndex,
+                TolerancePolicy.constant(allowableError), configuration);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param coordinates     the coordinates of the curves, 8 for every curve
+     * @param firstIndex      the index of the first curve
+     * @param endIndex        the index after the last curve
+     * @param tolerancePolicy the policy of the allowable error of every curve
+     * @param configuration   the configuration of the converter
+     */
+    public CurveArcsSpliterator(double[] coordinates, int firstIndex, int endIndex,
+                                TolerancePolicy tolerancePolicy,
+                                ConverterConfiguration configuration) {
+
+        if (firstIndex < 0 || firstIndex > endIndex
+                || endIndex > coordinates.length / 8) {
+            throw new IndexOutOfBoundsException("Curves " + firstIndex + " to "
+                    + endIndex + " of " + coordinates.length / 8);
+        }
+
+        this.coordinates = coordinates;
+        this.index = firstIndex;
+        this.endIndex = endIndex;
+        this.tolerancePolicy = tolerancePolicy;
+        this.configuration = configuration;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super CurveArcs> action) {
+
+        if (index >= endIndex) {
+            return false;
+        }
+
+        action.accept(convert(index++));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super CurveArcs> action) {
+
+        while (index < endIndex) {
+            action.accept(convert(index++));
+        }
+    }
+
+    @Override
+    public Spliterator<CurveArcs> trySplit() {
+
+        int middleIndex = (index + endIndex) >>> 1;
+        if (middleIndex <= index) {
+            return null;
+        }
+
+        CurveArcsSpliterator prefix = new CurveArcsSpliterator(coordinates,
+                index, middleIndex, tolerancePolicy, configuration);
+        index = middleIndex;
+
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return endIndex - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+    }
+
+    /**
+     * To convert a curve.
+     *
+     * @param curveIndex the index of the curve
+     * @return the arcs of the curve
+     */
+    private CurveArcs convert(int curveIndex) {
+
+        ArrayList<Arc> arcs = new ArrayList<>();
+        ConversionStatistics statistics = new ConversionStatistics();
+
+        int offset = 8 * curveIndex;
+        double allowableError = tolerancePolicy.calculateAllowableError(
+                coordinates, offset);
+
+        configuration.currentThreadContext().convertACubicBezierCurveToArcs(
+                coordinates, offset, allowableError, arcs::add, statistics);
+
+        return new CurveArcs(curveIndex, arcs, statistics);
+    }
+}
@@ -0,0 +1,314 @@
+package batch;
+
+import component.Arc;
+import component.DoublePoint;
+import shapeToArcs.ArcPathConsumer;
+
+import java.awt.geom.Rectangle2D;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * This class is to write the lines and the arcs of {@code ShapeToArcs} to an
+ * output file in one of the {@link OutputFormat}s. The methods of
+ * {@code ArcPathConsumer} can't throw {@code IOException}, so they throw
+ * {@code UncheckedIOException} instead.
+ * <p>
+ * The commands are built in a reused {@code StringBuilder}, because every
+ * shape of string concatenation spins its own method handles when it is first
+ * run, which adds up at the start of a short run.
+ */
+abstract class ArcFileWriter implements ArcPathConsumer, Closeable {
+
+    /**
+     * To start an input path.
+     *
+     * @throws IOException when the file can't be written
+     */
+    abstract void beginPath() throws IOException;
+
+    /**
+     * To end an input path.
+     *
+     * @throws IOException when the file can't be written
+     */
+    abstract void endPath() throws IOException;
+
+    /**
+     * This class is to write an SVG document.
+     */
+    static class SvgWriter extends ArcFileWriter {
+
+        /* the writer of the file */
+        private final BufferedWriter writer;
+
+        /* the command which is being written */
+        private final StringBuilder command = new StringBuilder();
+
+        /**
+         * Constructor
+         *
+         * @param file   the output file
+         * @param bounds the bounds of the input paths for the view box
+         * @throws IOException when the file can't be created
+         */
+        SvgWriter(Path file, Rectangle2D bounds) throws IOException {
+
+            writer = Files.newBufferedWriter(file);
+            writer.write("<svg xmlns=\"http://www.w3.org/2000/svg\" version=\"1.1\" "
+                    + "viewBox=\"" + bounds.getX() + " " + bounds.getY() + " "
+                    + bounds.getWidth() + " " + bounds.getHeight() + "\">\n");
+        }
+
+        @Override
+        void beginPath() throws IOException {
+            writer.write("  <path fill=\"none\" stroke=\"#000000\" d=\"");
+        }
+
+        @Override
+        void endPath() throws IOException {
+            writer.write("\"/>\n");
+        }
+
+        @Override
+        public void moveTo(double x, double y) {
+
+            command.setLength(0);
+            command.append("M ").append(x).append(' ').append(y).append(' ');
+            write();
+        }
+
+        @Override
+        public void lineTo(double x, double y) {
+
+            command.setLength(0);
+            command.append("L ").append(x).append(' ').append(y).append(' ');
+            write();
+        }
+
+        @Override
+        public void arcTo(Arc arc) {
+
+            DoublePoint endPoint = arc.getEndPoint();
+
+            /* the sweep is not greater than pi, and the y axis of SVG points
+               down */
+            command.setLength(0);
+            command.append("A ").append(arc.getRadius()).append(' ')
+                    .append(arc.getRadius()).append(" 0 0 ")
+                    .append(arc.getClockwiseFlag() ? "0 " : "1 ")
+                    .append(endPoint.getX()).append(' ')
+                    .append(endPoint.getY()).append(' ');
+            write();
+        }
+
+        @Override
+        public void closePath() {
+
+            command.setLength(0);
+            command.append("Z ");
+            write();
+        }
+
+        @Override
+        public void close() throws IOException {
+
+            writer.write("</svg>\n");
+            writer.close();
+        }
+
+        /**
+         * To write the command in {@code command}.
+         */
+        private void write() {
+
+            try {
+                writer.append(command);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * This class is to write a text file of commands.
+     */
+    static class TextWriter extends ArcFileWriter {
+
+        /* the writer of the file */
+        private final BufferedWriter writer;
+
+        /* the command which is being written */
+        private final StringBuilder command = new StringBuilder();
+
+        /**
+         * Constructor
+         *
+         * @param file the output file
+         * @throws IOException when the file can't be created
+         */
+        TextWriter(Path file) throws IOException {
+            writer = Files.newBufferedWriter(file);
+        }
+
+        @Override
+        void beginPath() throws IOException {
+            writer.write("P\n");
+        }
+
+        @Override
+        void endPath() {
+        }
+
+        @Override
+        public void moveTo(double x, double y) {
+
+            command.setLength(0);
+            command.append("M ").append(x).append(' ').append(y).append('\n');
+            write();
+        }
+
+        @Override
+        public void lineTo(double x, double y) {
+
+            command.setLength(0);
+            command.append("L ").append(x).append(' ').append(y).append('\n');
+            write();
+        }
+
+        @Override
+        public void arcTo(Arc arc) {
+
+            DoublePoint center = arc.getCenter();
+            DoublePoint endPoint = arc.getEndPoint();
+
+            command.setLength(0);
+            command.append("A ").append(center.getX()).append(' ')
+                    .append(center.getY()).append(' ')
+                    .append(arc.getRadius()).append(' ')
+                    .append(arc.getStartAngle()).append(' ')
+                    .append(arc.getEndAngle()).append(' ')
+                    .append(arc.getClockwiseFlag() ? "1 " : "0 ")
+                    .append(endPoint.getX()).append(' ')
+                    .append(endPoint.getY()).append('\n');
+            write();
+        }
+
+        @Override
+        public void closePath() {
+
+            command.setLength(0);
+            command.append("Z\n");
+            write();
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+
+        /**
+         * To write the command in {@code command}.
+         */
+        private void write() {
+
+            try {
+                writer.append(command);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * This class is to write a binary file of commands.
+     */
+    static class BinaryWriter extends ArcFileWriter {
+
+        /* the stream of the file */
+        private final DataOutputStream outputStream;
+
+        /**
+         * Constructor
+         *
+         * @param file the output file
+         * @throws IOException when the file can't be created
+         */
+        BinaryWriter(Path file) throws IOException {
+            outputStream = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(file)));
+        }
+
+        @Override
+        void beginPath() throws IOException {
+            outputStream.writeByte('P');
+        }
+
+        @Override
+        void endPath() {
+        }
+
+        @Override
+        public void moveTo(double x, double y) {
+
+            try {
+                outputStream.writeByte('M');
+                outputStream.writeDouble(x);
+                outputStream.writeDouble(y);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void lineTo(double x, double y) {
+
+            try {
+                outputStream.writeByte('L');
+                outputStream.writeDouble(x);
+                outputStream.writeDouble(y);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void arcTo(Arc arc) {
+
+            try {
+                outputStream.writeByte('A');
+                outputStream.writeDouble(arc.getCenter().getX());
+                outputStream.writeDouble(arc.getCenter().getY());
+                outputStream.writeDouble(arc.getRadius());
+                outputStream.writeDouble(arc.getStartAngle());
+                outputStream.writeDouble(arc.getEndAngle());
+                outputStream.writeByte(arc.getClockwiseFlag() ? 1 : 0);
+                outputStream.writeDouble(arc.getEndX());
+                outputStream.writeDouble(arc.getEndY());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void closePath() {
+
+            try {
+                outputStream.writeByte('Z');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            outputStream.close();
+        }
+    }
+}
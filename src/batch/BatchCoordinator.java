@@ -0,0 +1,434 @@
+package batch;
+
+import bezierCurveToArcs.ConversionStatistics;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * This class is to convert a large curve file with several local worker
+ * processes. The curves are split into shards in a job directory, the
+ * workers ({@link BatchWorker}) claim and convert the shards, and the arcs
+ * of the shards are merged back into input order. The file formats are
+ * described in {@link CurveFileFormat}.
+ * <p>
+ * The workers report their progress and statistics in the status files of
+ * the shards. A shard is retried when its local worker exits abnormally, or
+ * when its status hasn't changed for {@code STALE_TIMEOUT_MILLIS}, which also
+ * covers the workers on other hosts. Those are started by hand with the same
+ * job directory on a shared filesystem, see {@link BatchWorker}. The job
+ * fails when {@code MAX_ATTEMPTS} local workers in a row exit abnormally
+ * before they claim a shard, e.g. because the cache can't be opened.
+ * <p>
+ * Usage: java batch.BatchCoordinator &lt;input file&gt; &lt;output file&gt;
+ * &lt;job directory&gt; &lt;allowable error&gt; &lt;worker count&gt;
+ * &lt;curves per shard&gt; [cache directory]
+ */
+public class BatchCoordinator {
+
+    /* the max number of attempts to convert a shard */
+    public static final int MAX_ATTEMPTS = 3;
+
+    /* the time without a status update after which a shard is retried */
+    private static final long STALE_TIMEOUT_MILLIS = 60_000L;
+
+    /* the interval of polling the job directory */
+    private static final long POLL_INTERVAL_MILLIS = 500L;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+
+        if (args.length != 6 && args.length != 7) {
+            System.err.println("Usage: java batch.BatchCoordinator <input file> "
+                    + "<output file> <job directory> <allowable error> "
+                    + "<worker count> <curves per shard> [cache directory]");
+            System.exit(2);
+        }
+
+        ConversionStatistics statistics = convertFile(
+                Paths.get(args[0]), Paths.get(args[1]), Paths.get(args[2]),
+                Double.parseDouble(args[3]), Integer.parseInt(args[4]),
+                Integer.parseInt(args[5]),
+                args.length == 7 ? Paths.get(args[6]) : null);
+
+        System.out.println("curves: " + statistics.getCurveCount()
+                + ", arcs: " + statistics.getArcCount()
+                + ", Newton iterations: " + statistics.getNewtonIterationCount()
+                + ", max recursion depth: " + statistics.getMaxRecursionDepth()
+                + ", biarcs beyond the allowable error at the max depth: "
+                + statistics.getDepthLimitedBiarcCount());
+    }
+
+    /**
+     * To convert a curve file to an arc file with local worker processes.
+     *
+     * @param inputFile      the curve file
+     * @param outputFile     the arc file, with one line per curve in input
+     *                       order
+     * @param directory      the job directory, which must be empty or absent
+     * @param allowableError the allowable error
+     * @param workerCount    the number of local worker processes
+     * @param shardSize      the max number of curves of a shard
+     * @param cacheDirectory the directory of the {@code ConversionCache} of
+     *                       the workers, or null for none
+     * @return the statistics of all the shards
+     * @throws IOException when a file can't be read or written, when a shard
+     *                     fails {@code MAX_ATTEMPTS} times, or when
+     *                     {@code MAX_ATTEMPTS} workers in a row fail without
+     *                     a shard
+     * @throws InterruptedException when the current thread is interrupted
+     */
+    public static ConversionStatistics convertFile(
+            Path inputFile, Path outputFile, Path directory, double allowableError,
+            int workerCount, int shardSize, Path cacheDirectory)
+            throws IOException, InterruptedException {
+
+        JobDirectory jobDirectory = new JobDirectory(directory);
+        jobDirectory.createDirectories();
+
+        /* A cache directory which can't be created would fail every worker */
+        if (cacheDirectory != null) {
+            Files.createDirectories(cacheDirectory);
+        }
+
+        List<String> shardNames = splitIntoShards(inputFile, jobDirectory, shardSize);
+
+        List<Process> workers = new ArrayList<>();
+        Map<String, Integer> attempts = new HashMap<>();
+        String hostName = InetAddress.getLocalHost().getHostName();
+        int unclaimedFailureCount = 0;
+
+        try {
+            while (true) {
+
+                /* the claims of the dead workers are released before the
+                   scan, so their shards are pending in the same poll */
+                unclaimedFailureCount = reapWorkers(jobDirectory, shardNames,
+                        hostName, workers, attempts, unclaimedFailureCount);
+
+                int doneCount = 0;
+                long processed = 0;
+                long total = 0;
+                boolean pendingFlag = false;
+
+                for (String shardName : shardNames) {
+
+                    if (Files.exists(jobDirectory.outputFile(shardName))) {
+                        doneCount++;
+                    } else if (Files.exists(jobDirectory.claimFile(shardName))) {
+                        releaseStaleShard(jobDirectory, shardName, attempts);
+                    } else {
+                        pendingFlag = true;
+                    }
+
+                    Properties status = jobDirectory.readStatus(shardName);
+                    if (status != null) {
+                        processed += Long.parseLong(
+                                status.getProperty(JobDirectory.PROCESSED_KEY, "0"));
+                        total += Long.parseLong(
+                                status.getProperty(JobDirectory.TOTAL_KEY, "0"));
+                    }
+                }
+
+                System.out.println("shards: " + doneCount + "/" + shardNames.size()
+                        + ", curves of started shards: " + processed + "/" + total);
+
+                if (doneCount == shardNames.size()) {
+                    break;
+                }
+
+                while (pendingFlag && workers.size() < workerCount) {
+                    workers.add(startWorker(directory, allowableError,
+                            cacheDirectory));
+                }
+
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            }
+        } finally {
+            for (Process worker : workers) {
+                worker.destroy();
+            }
+        }
+
+        return mergeShards(jobDirectory, shardNames, outputFile);
+    }
+
+    /**
+     * To split the curves of a file into shard files in the job directory.
+     * Empty lines and comments are dropped.
+     *
+     * @param inputFile    the curve file
+     * @param jobDirectory the job directory
+     * @param shardSize    the max number of curves of a shard
+     * @return the names of the shards in input order
+     * @throws IOException when a file can't be read or written
+     */
+    private static List<String> splitIntoShards(Path inputFile,
+                                                JobDirectory jobDirectory,
+                                                int shardSize) throws IOException {
+
+        List<String> shardNames = new ArrayList<>();
+        BufferedWriter writer = null;
+        int curveCount = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(inputFile)) {
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+
+                if (!CurveFileFormat.isCurveLine(line)) {
+                    continue;
+                }
+
+                if (curveCount % shardSize == 0) {
+                    if (writer != null) {
+                        writer.close();
+                    }
+                    String shardName = JobDirectory.shardName(shardNames.size());
+                    shardNames.add(shardName);
+                    writer = Files.newBufferedWriter(jobDirectory.shardFile(shardName));
+                }
+
+                writer.write(line.trim());
+                writer.newLine();
+                curveCount++;
+            }
+        } finally {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+
+        return shardNames;
+    }
+
+    /**
+     * To remove the local workers which have exited, and to release the
+     * claims they hold, so that their shards are converted again. A worker
+     * which exits abnormally without a claim never adds to the attempts of a
+     * shard, so those failures are counted in a row instead.
+     *
+     * @param jobDirectory          the job directory
+     * @param shardNames            the names of the shards
+     * @param hostName              the name of this host, which starts the ids
+     *                              of the local workers
+     * @param workers               the local worker processes
+     * @param attempts              the number of failed attempts of every
+     *                              shard
+     * @param unclaimedFailureCount the number of workers in a row which have
+     *                              failed without a claim
+     * @return the new number of workers in a row which have failed without a
+     * claim
+     * @throws IOException when a shard fails {@code MAX_ATTEMPTS} times, or
+     *                     when {@code MAX_ATTEMPTS} workers in a row fail
+     *                     without a claim
+     */
+    private static int reapWorkers(JobDirectory jobDirectory,
+                                   List<String> shardNames, String hostName,
+                                   List<Process> workers,
+                                   Map<String, Integer> attempts,
+                                   int unclaimedFailureCount)
+            throws IOException {
+
+        Map<String, Integer> deadWorkerExitValues = new HashMap<>();
+        for (Iterator<Process> iterator = workers.iterator();
+             iterator.hasNext(); ) {
+            Process worker = iterator.next();
+            if (!worker.isAlive()) {
+                deadWorkerExitValues.put(hostName + "/" + worker.pid(),
+                        worker.exitValue());
+                iterator.remove();
+            }
+        }
+
+        if (deadWorkerExitValues.isEmpty()) {
+            return unclaimedFailureCount;
+        }
+
+        Set<String> claimingWorkerIds = new HashSet<>();
+        for (String shardName : shardNames) {
+
+            String workerId = readClaim(jobDirectory, shardName);
+            if (workerId != null && deadWorkerExitValues.containsKey(workerId)) {
+                claimingWorkerIds.add(workerId);
+                releaseShard(jobDirectory, shardName, workerId, attempts);
+            }
+        }
+
+        for (Map.Entry<String, Integer> entry : deadWorkerExitValues.entrySet()) {
+
+            if (entry.getValue() == 0 || claimingWorkerIds.contains(entry.getKey())) {
+                unclaimedFailureCount = 0;
+                continue;
+            }
+
+            unclaimedFailureCount++;
+            if (unclaimedFailureCount >= MAX_ATTEMPTS) {
+                throw new IOException(unclaimedFailureCount + " workers in a "
+                        + "row failed before they claimed a shard, the last "
+                        + "one " + entry.getKey() + " with the exit value "
+                        + entry.getValue());
+            }
+        }
+
+        return unclaimedFailureCount;
+    }
+
+    /**
+     * To release the claim of a shard whose status hasn't changed for
+     * {@code STALE_TIMEOUT_MILLIS}, which covers the workers on other hosts.
+     *
+     * @param jobDirectory the job directory
+     * @param shardName    the name of the claimed shard
+     * @param attempts     the number of failed attempts of every shard
+     * @throws IOException when a shard fails {@code MAX_ATTEMPTS} times
+     */
+    private static void releaseStaleShard(JobDirectory jobDirectory,
+                                          String shardName,
+                                          Map<String, Integer> attempts)
+            throws IOException {
+
+        Path claimFile = jobDirectory.claimFile(shardName);
+        Path statusFile = jobDirectory.statusFile(shardName);
+
+        String workerId;
+        long lastUpdateTime;
+        try {
+            workerId = Files.readString(claimFile);
+            lastUpdateTime = Files.exists(statusFile)
+                    ? Files.getLastModifiedTime(statusFile).toMillis()
+                    : Files.getLastModifiedTime(claimFile).toMillis();
+        } catch (NoSuchFileException e) {
+            /* released meanwhile */
+            return;
+        }
+
+        if (System.currentTimeMillis() - lastUpdateTime > STALE_TIMEOUT_MILLIS) {
+            releaseShard(jobDirectory, shardName, workerId, attempts);
+        }
+    }
+
+    /**
+     * To read the worker id in the claim file of a shard.
+     *
+     * @param jobDirectory the job directory
+     * @param shardName    the name of the shard
+     * @return the id of the worker, or null if the shard isn't claimed
+     * @throws IOException when the file can't be read
+     */
+    private static String readClaim(JobDirectory jobDirectory, String shardName)
+            throws IOException {
+
+        try {
+            return Files.readString(jobDirectory.claimFile(shardName));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * To release the claim of a shard whose worker has failed, so that the
+     * shard is converted again, unless the worker has finished it meanwhile.
+     *
+     * @param jobDirectory the job directory
+     * @param shardName    the name of the claimed shard
+     * @param workerId     the id of the failed worker
+     * @param attempts     the number of failed attempts of every shard
+     * @throws IOException when a shard fails {@code MAX_ATTEMPTS} times
+     */
+    private static void releaseShard(JobDirectory jobDirectory, String shardName,
+                                     String workerId,
+                                     Map<String, Integer> attempts)
+            throws IOException {
+
+        if (Files.exists(jobDirectory.outputFile(shardName))) {
+            return;
+        }
+
+        int attemptCount = attempts.merge(shardName, 1, Integer::sum);
+        if (attemptCount >= MAX_ATTEMPTS) {
+            throw new IOException("The shard " + shardName + " failed "
+                    + attemptCount + " times, the last time by " + workerId);
+        }
+
+        System.out.println("retrying " + shardName + " after the failure of "
+                + workerId);
+
+        Files.deleteIfExists(jobDirectory.statusFile(shardName));
+        Files.deleteIfExists(jobDirectory.claimFile(shardName));
+    }
+
+    /**
+     * To start a local worker process with the class path of this process.
+     *
+     * @param directory      the job directory
+     * @param allowableError the allowable error
+     * @param cacheDirectory the cache directory, or null for none
+     * @return the worker process
+     * @throws IOException when the process can't be started
+     */
+    private static Process startWorker(Path directory, double allowableError,
+                                       Path cacheDirectory) throws IOException {
+
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home")
+                + File.separator + "bin" + File.separator + "java");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(BatchWorker.class.getName());
+        command.add(directory.toString());
+        command.add(Double.toString(allowableError));
+        if (cacheDirectory != null) {
+            command.add(cacheDirectory.toString());
+        }
+
+        return new ProcessBuilder(command).inheritIO().start();
+    }
+
+    /**
+     * To concatenate the outputs of the shards in input order, and to add up
+     * their statistics.
+     *
+     * @param jobDirectory the job directory
+     * @param shardNames   the names of the shards in input order
+     * @param outputFile   the arc file
+     * @return the statistics of all the shards
+     * @throws IOException when a file can't be read or written
+     */
+    private static ConversionStatistics mergeShards(JobDirectory jobDirectory,
+                                                    List<String> shardNames,
+                                                    Path outputFile)
+            throws IOException {
+
+        ConversionStatistics statistics = new ConversionStatistics();
+
+        try (OutputStream outputStream = Files.newOutputStream(outputFile)) {
+            for (String shardName : shardNames) {
+
+                Files.copy(jobDirectory.outputFile(shardName), outputStream);
+
+                Properties status = jobDirectory.readStatus(shardName);
+                if (status != null) {
+                    statistics.add(JobDirectory.getStatistics(status));
+                }
+            }
+        }
+
+        return statistics;
+    }
+}
@@ -0,0 +1,247 @@
+package batch;
+
+import bezierCurveToArcs.ConversionContext;
+import bezierCurveToArcs.ConversionStatistics;
+import bezierCurveToArcs.ConverterConfiguration;
+import component.Arc;
+import component.DoublePoint;
+import conversionCache.ConversionCache;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * This class is a worker process of a sharded batch job, see
+ * {@link BatchCoordinator}. It claims the unclaimed shards of the job
+ * directory one by one, converts their curves and writes their arcs, until
+ * no shard is left. Several workers on several hosts can work on the same
+ * job directory on a shared filesystem.
+ * <p>
+ * With a cache directory, the arcs are read from a {@link ConversionCache}
+ * when the same curve has been converted before. The first worker which opens
+ * the cache writes the new arcs to it, and the others only read.
+ * <p>
+ * Usage: java batch.BatchWorker &lt;job directory&gt; &lt;allowable error&gt;
+ * [cache directory]
+ */
+public class BatchWorker {
+
+    /* the interval of the status updates */
+    private static final long STATUS_INTERVAL_NANOS = 1_000_000_000L;
+
+    public static void main(String[] args) throws IOException {
+
+        if (args.length != 2 && args.length != 3) {
+            System.err.println("Usage: java batch.BatchWorker <job directory> "
+                    + "<allowable error> [cache directory]");
+            System.exit(2);
+        }
+
+        JobDirectory jobDirectory = new JobDirectory(Paths.get(args[0]));
+        double allowableError = Double.parseDouble(args[1]);
+
+        String workerId = InetAddress.getLocalHost().getHostName()
+                + "/" + ProcessHandle.current().pid();
+
+        ConversionCache cache = args.length == 3
+                ? new ConversionCache(Paths.get(args[2]), ConverterConfiguration.DEFAULT,
+                ConversionCache.DEFAULT_MAX_SIZE, true)
+                : null;
+
+        try {
+            String shardName;
+            while ((shardName = claimNextShard(jobDirectory, workerId)) != null) {
+                if (cache != null && !cache.isWriter()) {
+                    cache.refresh();
+                }
+                convertShard(jobDirectory, shardName, workerId, allowableError,
+                        cache);
+            }
+        } finally {
+            if (cache != null) {
+                cache.close();
+            }
+        }
+    }
+
+    /**
+     * To claim the first shard which is neither done nor claimed. The worker
+     * id is written to a temporary file first, which is then linked as the
+     * claim file. The link appears atomically with its content and fails if
+     * the claim file exists, so a shard is claimed by one worker only and a
+     * reader never sees an empty claim.
+     *
+     * @param jobDirectory the job directory
+     * @param workerId     the id of this worker
+     * @return the name of the claimed shard, or null if no shard is left
+     * @throws IOException when the job directory can't be read
+     */
+    static String claimNextShard(JobDirectory jobDirectory, String workerId)
+            throws IOException {
+
+        for (String shardName : listShards(jobDirectory)) {
+
+            if (Files.exists(jobDirectory.outputFile(shardName))) {
+                continue;
+            }
+
+            Path claimFile = jobDirectory.claimFile(shardName);
+            if (Files.exists(claimFile)) {
+                continue;
+            }
+
+            /* the id of a worker is unique among the hosts, so is the name */
+            Path temporaryFile = claimFile.resolveSibling(claimFile.getFileName()
+                    + "." + workerId.replace('/', '-') + ".tmp");
+            Files.writeString(temporaryFile, workerId);
+
+            try {
+                Files.createLink(claimFile, temporaryFile);
+                return shardName;
+            } catch (FileAlreadyExistsException e) {
+                /* claimed by another worker */
+            } finally {
+                Files.delete(temporaryFile);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * To list the names of the shards of a job in input order.
+     *
+     * @param jobDirectory the job directory
+     * @return the names of the shards
+     * @throws IOException when the job directory can't be read
+     */
+    static List<String> listShards(JobDirectory jobDirectory) throws IOException {
+
+        try (Stream<Path> files = Files.list(jobDirectory.shardDirectory())) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(".curves"))
+                    .map(name -> name.substring(0, name.length() - ".curves".length()))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * To convert the curves of a shard. The progress and the statistics are
+     * written to the status file of the shard at least every
+     * {@code STATUS_INTERVAL_NANOS}, and the arcs are moved to the output file
+     * when all the curves are converted.
+     *
+     * @param jobDirectory   the job directory
+     * @param shardName      the name of the shard
+     * @param workerId       the id of this worker
+     * @param allowableError the allowable error
+     * @param cache          the cache of the arcs, or null for none
+     * @throws IOException when the files of the shard can't be read or written
+     */
+    private static void convertShard(JobDirectory jobDirectory, String shardName,
+                                     String workerId, double allowableError,
+                                     ConversionCache cache)
+            throws IOException {
+
+        List<String> lines = Files.readAllLines(jobDirectory.shardFile(shardName));
+
+        Path outputFile = jobDirectory.outputFile(shardName);
+        Path temporaryFile = outputFile.resolveSibling(
+                outputFile.getFileName() + "." + ProcessHandle.current().pid() + ".tmp");
+
+        ConversionContext context = ConverterConfiguration.DEFAULT.currentThreadContext();
+        ConversionStatistics statistics = new ConversionStatistics();
+        double[] coordinates = new double[8];
+        ArrayList<Arc> arcs = new ArrayList<>();
+        StringBuilder line = new StringBuilder();
+
+        Properties status = new Properties();
+        status.setProperty(JobDirectory.WORKER_KEY, workerId);
+        status.setProperty(JobDirectory.TOTAL_KEY, Integer.toString(lines.size()));
+
+        long lastStatusTime = System.nanoTime();
+        long firstHitCount = cache != null ? cache.getHitCount() : 0;
+        int processed = 0;
+
+        try (BufferedWriter writer = Files.newBufferedWriter(temporaryFile)) {
+
+            for (String curveLine : lines) {
+
+                processed++;
+
+                if (!CurveFileFormat.isCurveLine(curveLine)) {
+                    continue;
+                }
+
+                CurveFileFormat.parseCurve(curveLine, coordinates);
+                DoublePoint A = new DoublePoint(coordinates[0], coordinates[1]);
+                DoublePoint controlPointA
+                        = new DoublePoint(coordinates[2], coordinates[3]);
+                DoublePoint controlPointB
+                        = new DoublePoint(coordinates[4], coordinates[5]);
+                DoublePoint B = new DoublePoint(coordinates[6], coordinates[7]);
+
+                if (cache != null) {
+                    cache.convertACubicBezierCurveToArcs(A, controlPointA,
+                            controlPointB, B, allowableError, arcs, statistics);
+                } else {
+                    context.convertACubicBezierCurveToArcs(A, controlPointA,
+                            controlPointB, B, allowableError, arcs, statistics);
+                }
+
+                line.setLength(0);
+                CurveFileFormat.formatArcs(arcs, line);
+                writer.write(line.toString());
+                writer.newLine();
+
+                if (System.nanoTime() - lastStatusTime >= STATUS_INTERVAL_NANOS) {
+                    status.setProperty(JobDirectory.PROCESSED_KEY,
+                            Integer.toString(processed));
+                    JobDirectory.putStatistics(statistics, status);
+                    putCacheHitCount(cache, firstHitCount, status);
+                    jobDirectory.writeStatus(shardName, status);
+                    lastStatusTime = System.nanoTime();
+                }
+            }
+        }
+
+        status.setProperty(JobDirectory.PROCESSED_KEY, Integer.toString(processed));
+        JobDirectory.putStatistics(statistics, status);
+        putCacheHitCount(cache, firstHitCount, status);
+        jobDirectory.writeStatus(shardName, status);
+
+        Files.move(temporaryFile, outputFile, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * To write the number of the curves of a shard which were read from the
+     * cache into its status. Those are counted in the statistics too, but
+     * without Newton iterations.
+     *
+     * @param cache         the cache of the arcs, or null for none
+     * @param firstHitCount the number of hits of the cache before the shard
+     * @param status        the status
+     */
+    private static void putCacheHitCount(ConversionCache cache, long firstHitCount,
+                                         Properties status) {
+
+        if (cache != null) {
+            status.setProperty(JobDirectory.CACHE_HIT_COUNT_KEY,
+                    Long.toString(cache.getHitCount() - firstHitCount));
+        }
+    }
+}
@@ -0,0 +1,439 @@
+package batch;
+
+import bezierCurveToArcs.ConversionContext;
+import bezierCurveToArcs.ConversionStatistics;
+import bezierCurveToArcs.ConverterConfiguration;
+import bezierCurveToArcs.TolerancePolicy;
+import shapeToArcs.ShapeToArcs;
+import transform.DeviceTolerancePolicy;
+
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * This class is a command-line tool to convert files and directories of
+ * curves to lines and arcs with {@code ShapeToArcs}. The files are converted
+ * in parallel, one file per thread, and the throughput and the statistics are
+ * printed at the end.
+ * <p>
+ * The input files are recognized by their extensions:
+ * <ul>
+ * <li>".svg": the path elements of an SVG file, see {@link SvgPathReader};</li>
+ * <li>".curves": a curve file of {@link CurveFileFormat};</li>
+ * <li>".bin": 8 big-endian doubles per curve in the order of a curve
+ * file.</li>
+ * </ul>
+ * Directories are searched recursively, and the output files keep the
+ * relative paths of the input files with the extension of the
+ * {@link OutputFormat}. A file with another extension is refused when it is
+ * named explicitly, and nothing is converted when two input files would be
+ * written to the same output file, e.g. "a.svg" and "a.curves", or "x.svg"
+ * in two input directories.
+ * <p>
+ * Usage: java batch.CommandLineConverter [-e allowable error | -r dpi]
+ * [-f svg|text|binary] [-j threads] -o &lt;output directory&gt; &lt;input file
+ * or directory&gt;...
+ * <p>
+ * The option "-r" replaces the allowable error by half a pixel of a device
+ * with the given resolution, see {@link DeviceTolerancePolicy}, taking 96
+ * user units per inch as SVG does.
+ * <p>
+ * A short run is dominated by the start-up of the JVM. For small inputs,
+ * {@code -XX:TieredStopAtLevel=1} saves the time of the optimizing compiler.
+ */
+public class CommandLineConverter {
+
+    /* the allowable error without the option "-e" */
+    public static final double DEFAULT_ALLOWABLE_ERROR = 0.01;
+
+    /* the number of user units per inch for the option "-r", which are the
+       pixels of CSS and SVG */
+    private static final double USER_UNITS_PER_INCH = 96.0;
+
+    /* the number of bytes of a curve in a binary curve file */
+    private static final int BYTES_PER_BINARY_CURVE = 8 * Double.BYTES;
+
+    public static void main(String[] args) throws InterruptedException {
+
+        long startTime = System.nanoTime();
+
+        double allowableError = DEFAULT_ALLOWABLE_ERROR;
+        double dotsPerInch = 0.0;
+        OutputFormat format = OutputFormat.SVG;
+        int threadCount = Runtime.getRuntime().availableProcessors();
+        Path outputDirectory = null;
+        List<Path> inputs = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-e":
+                        allowableError = Double.parseDouble(args[++i]);
+                        break;
+                    case "-r":
+                        dotsPerInch = Double.parseDouble(args[++i]);
+                        break;
+                    case "-f":
+                        format = OutputFormat.valueOf(args[++i].toUpperCase());
+                        break;
+                    case "-j":
+                        threadCount = Integer.parseInt(args[++i]);
+                        break;
+                    case "-o":
+                        outputDirectory = Paths.get(args[++i]);
+                        break;
+                    default:
+                        inputs.add(Paths.get(args[i]));
+                        break;
+                }
+            }
+        } catch (RuntimeException e) {
+            outputDirectory = null;
+        }
+
+        if (outputDirectory == null || inputs.isEmpty()
+                || !(allowableError > 0.0) || !(dotsPerInch >= 0.0)
+                || threadCount < 1) {
+            System.err.println("Usage: java batch.CommandLineConverter "
+                    + "[-e allowable error | -r dpi] [-f svg|text|binary] [-j threads] "
+                    + "-o <output directory> <input file or directory>...");
+            System.exit(2);
+        }
+
+        List<Path> inputFiles = new ArrayList<>();
+        List<Path> outputFiles = new ArrayList<>();
+        try {
+            for (Path input : inputs) {
+                collectFiles(input, outputDirectory, format, inputFiles, outputFiles);
+            }
+            checkOutputFiles(inputFiles, outputFiles);
+        } catch (IOException e) {
+            System.err.println(e);
+            System.exit(1);
+        }
+
+        TolerancePolicy tolerancePolicy = dotsPerInch > 0.0
+                ? DeviceTolerancePolicy.forDpi(dotsPerInch, USER_UNITS_PER_INCH, null)
+                : TolerancePolicy.constant(allowableError);
+
+        ConversionStatistics statistics = new ConversionStatistics();
+        long byteCount = 0;
+        int failureCount = 0;
+
+        /* A single file is converted without starting a thread pool */
+        ExecutorService executor = threadCount > 1 && inputFiles.size() > 1
+                ? Executors.newFixedThreadPool(
+                Math.min(threadCount, inputFiles.size()))
+                : null;
+
+        List<Future<ConversionStatistics>> futures = new ArrayList<>();
+        if (executor != null) {
+            for (int i = 0; i < inputFiles.size(); i++) {
+                Path inputFile = inputFiles.get(i);
+                Path outputFile = outputFiles.get(i);
+                OutputFormat outputFormat = format;
+                futures.add(executor.submit(() -> convertFile(inputFile,
+                        outputFile, tolerancePolicy, outputFormat)));
+            }
+            executor.shutdown();
+        }
+
+        for (int i = 0; i < inputFiles.size(); i++) {
+
+            Path inputFile = inputFiles.get(i);
+
+            try {
+                if (executor != null) {
+                    statistics.add(futures.get(i).get());
+                } else {
+                    statistics.add(convertFile(inputFile, outputFiles.get(i),
+                            tolerancePolicy, format));
+                }
+                byteCount += Files.size(inputFile);
+            } catch (ExecutionException | IOException e) {
+                Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+                System.err.println(inputFile + ": " + cause);
+                failureCount++;
+            }
+        }
+
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+
+        System.out.println("files: " + (inputFiles.size() - failureCount)
+                + " converted, " + failureCount + " failed");
+        System.out.println("curves: " + statistics.getCurveCount()
+                + ", arcs: " + statistics.getArcCount()
+                + ", Newton iterations: " + statistics.getNewtonIterationCount()
+                + ", max recursion depth: " + statistics.getMaxRecursionDepth()
+                + ", biarcs beyond the allowable error at the max depth: "
+                + statistics.getDepthLimitedBiarcCount());
+        System.out.printf("time: %.3f s, %.0f curves/s, %.0f arcs/s, %.2f MB/s%n",
+                seconds, statistics.getCurveCount() / seconds,
+                statistics.getArcCount() / seconds, byteCount / 1e6 / seconds);
+
+        System.exit(failureCount > 0 ? 1 : 0);
+    }
+
+    /**
+     * To convert an input file to an output file.
+     *
+     * @param inputFile      the input file
+     * @param outputFile     the output file
+     * @param allowableError the allowable error
+     * @param format         the format of the output file
+     * @return the statistics of the conversion
+     * @throws IOException when a file can't be read or written
+     */
+    public static ConversionStatistics convertFile(
+            Path inputFile, Path outputFile, double allowableError,
+            OutputFormat format) throws IOException {
+
+        return convertFile(inputFile, outputFile,
+                TolerancePolicy.constant(allowableError), format);
+    }
+
+    /**
+     * To convert an input file to an output file with an allowable error for
+     * every curve.
+     *
+     * @param inputFile       the input file
+     * @param outputFile      the output file
+     * @param tolerancePolicy the policy of the allowable error of every curve
+     * @param format          the format of the output file
+     * @return the statistics of the conversion
+     * @throws IOException when a file can't be read or written
+     */
+    public static ConversionStatistics convertFile(
+            Path inputFile, Path outputFile, TolerancePolicy tolerancePolicy,
+            OutputFormat format) throws IOException {
+
+        if (inputFile.toAbsolutePath().normalize().equals(
+                outputFile.toAbsolutePath().normalize())) {
+            throw new IOException("The output file would overwrite the input file");
+        }
+
+        ArrayList<Path2D.Double> paths = new ArrayList<>();
+        readPaths(inputFile, paths);
+
+        Rectangle2D bounds = new Rectangle2D.Double();
+        for (int i = 0; i < paths.size(); i++) {
+            if (i == 0) {
+                bounds.setRect(paths.get(i).getBounds2D());
+            } else {
+                bounds.add(paths.get(i).getBounds2D());
+            }
+        }
+
+        if (outputFile.getParent() != null) {
+            Files.createDirectories(outputFile.getParent());
+        }
+
+        ConversionContext context = ConverterConfiguration.DEFAULT.currentThreadContext();
+        ConversionStatistics statistics = new ConversionStatistics();
+
+        try (ArcFileWriter writer = format.createWriter(outputFile, bounds)) {
+            for (Path2D.Double path : paths) {
+                writer.beginPath();
+                ShapeToArcs.convertShapeToArcs(path, null, tolerancePolicy,
+                        writer, context, statistics);
+                writer.endPath();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        return statistics;
+    }
+
+    /**
+     * To read the paths of an input file by its extension. A curve file gives
+     * one path with a subpath for every curve.
+     *
+     * @param file  the input file
+     * @param paths the paths of the file
+     * @throws IOException when the file can't be read or is malformed
+     */
+    private static void readPaths(Path file, ArrayList<Path2D.Double> paths)
+            throws IOException {
+
+        String fileName = file.getFileName().toString();
+
+        if (fileName.endsWith(".svg")) {
+            SvgPathReader.readPaths(file, paths);
+            return;
+        }
+
+        if (!paths.isEmpty()) {
+            paths.clear();
+        }
+
+        if (!isSupported(fileName)) {
+            throw new IOException(file + ": unknown extension, "
+                    + "expected .svg, .curves or .bin");
+        }
+
+        Path2D.Double path = new Path2D.Double();
+        double[] coordinates = new double[8];
+
+        if (fileName.endsWith(".curves")) {
+
+            try (BufferedReader reader = Files.newBufferedReader(file)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (CurveFileFormat.isCurveLine(line)) {
+                        try {
+                            CurveFileFormat.parseCurve(line, coordinates);
+                        } catch (RuntimeException e) {
+                            throw new IOException(file + ": malformed curve: " + line);
+                        }
+                        appendCurve(path, coordinates);
+                    }
+                }
+            }
+
+        } else {
+
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (buffer.remaining() % BYTES_PER_BINARY_CURVE != 0) {
+                throw new IOException(file + ": the size is not a multiple of "
+                        + BYTES_PER_BINARY_CURVE);
+            }
+
+            while (buffer.hasRemaining()) {
+                for (int i = 0; i < 8; i++) {
+                    coordinates[i] = buffer.getDouble();
+                }
+                appendCurve(path, coordinates);
+            }
+        }
+
+        paths.add(path);
+    }
+
+    /**
+     * To append a curve as a subpath.
+     *
+     * @param path        the path
+     * @param coordinates the coordinates of the curve
+     */
+    private static void appendCurve(Path2D.Double path, double[] coordinates) {
+
+        path.moveTo(coordinates[0], coordinates[1]);
+        path.curveTo(coordinates[2], coordinates[3], coordinates[4],
+                coordinates[5], coordinates[6], coordinates[7]);
+    }
+
+    /**
+     * To collect the supported files of an input file or directory and the
+     * paths of their output files.
+     *
+     * @param input           the input file or directory
+     * @param outputDirectory the output directory
+     * @param format          the format of the output files
+     * @param inputFiles      the input files which are added to
+     * @param outputFiles     the output files which are added to
+     * @throws IOException when a directory can't be read
+     */
+    private static void collectFiles(Path input, Path outputDirectory,
+                                     OutputFormat format, List<Path> inputFiles,
+                                     List<Path> outputFiles) throws IOException {
+
+        if (!Files.isDirectory(input)) {
+            if (!isSupported(input.getFileName().toString())) {
+                throw new IOException(input + ": unknown extension, "
+                        + "expected .svg, .curves or .bin");
+            }
+            inputFiles.add(input);
+            outputFiles.add(outputDirectory.resolve(
+                    replaceExtension(input.getFileName().toString(), format)));
+            return;
+        }
+
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(input)) {
+            files = walk.filter(Files::isRegularFile)
+                    .filter(file -> isSupported(file.getFileName().toString()))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        for (Path file : files) {
+            Path relativePath = input.relativize(file);
+            inputFiles.add(file);
+            outputFiles.add(outputDirectory.resolve(relativePath).resolveSibling(
+                    replaceExtension(relativePath.getFileName().toString(), format)));
+        }
+    }
+
+    /**
+     * To make sure that no two input files are written to the same output
+     * file, which would keep only the output of the last one.
+     *
+     * @param inputFiles  the input files
+     * @param outputFiles the output files
+     * @throws IOException when two input files have the same output file
+     */
+    private static void checkOutputFiles(List<Path> inputFiles,
+                                         List<Path> outputFiles) throws IOException {
+
+        Map<Path, Path> inputFileByOutputFile = new HashMap<>();
+
+        for (int i = 0; i < outputFiles.size(); i++) {
+
+            Path outputFile = outputFiles.get(i).toAbsolutePath().normalize();
+            Path otherInputFile = inputFileByOutputFile.putIfAbsent(
+                    outputFile, inputFiles.get(i));
+
+            if (otherInputFile != null) {
+                throw new IOException("The input files " + otherInputFile
+                        + " and " + inputFiles.get(i)
+                        + " would be written to the same output file "
+                        + outputFiles.get(i));
+            }
+        }
+    }
+
+    /**
+     * To judge if a file is an input file by its name.
+     *
+     * @param fileName the name of the file
+     * @return true for an input file
+     */
+    private static boolean isSupported(String fileName) {
+
+        return fileName.endsWith(".svg") || fileName.endsWith(".curves")
+                || fileName.endsWith(".bin");
+    }
+
+    /**
+     * To replace the extension of a file name by the extension of a format.
+     *
+     * @param fileName the name of the file
+     * @param format   the format
+     * @return the new file name
+     */
+    private static String replaceExtension(String fileName, OutputFormat format) {
+
+        int index = fileName.lastIndexOf('.');
+
+        return (index > 0 ? fileName.substring(0, index) : fileName)
+                + format.getExtension();
+    }
+}
@@ -0,0 +1,149 @@
+package batch;
+
+import component.Arc;
+import component.DoublePoint;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class contains methods to read and write the text files of batch
+ * conversions.
+ * <p>
+ * A curve file has one cubic Bezier curve per line: the 8 coordinates of the
+ * start point, the first control point, the second control point and the end
+ * point, separated by white space. Empty lines and lines which start with '#'
+ * are skipped.
+ * <p>
+ * An arc file has one line per curve, in the order of the curve file: the
+ * coordinates of the start point of the first arc, followed by 8 values for
+ * every arc: the center x and y, the radius, the start angle, the end angle,
+ * 1 for clockwise or 0 for anti-clockwise, and the end point x and y. The
+ * start point of an arc is the end point of the previous one, so the joint
+ * points stay exactly the same when the file is read. Values are written by
+ * {@code Double.toString}, so they are read back exactly.
+ */
+public class CurveFileFormat {
+
+    /* the number of values of an arc in an arc line */
+    private static final int VALUES_PER_ARC = 8;
+
+    /**
+     * To judge if a line of a curve file holds a curve.
+     *
+     * @param line the line
+     * @return true for a curve and false for an empty line or a comment
+     */
+    public static boolean isCurveLine(String line) {
+
+        String trimmedLine = line.trim();
+
+        return !trimmedLine.isEmpty() && !trimmedLine.startsWith("#");
+    }
+
+    /**
+     * To parse a line of a curve file.
+     *
+     * @param line        the line
+     * @param coordinates the array for the 8 coordinates of the curve
+     * @throws IllegalArgumentException if the line doesn't hold 8 numbers
+     */
+    public static void parseCurve(String line, double[] coordinates) {
+
+        String[] values = line.trim().split("\\s+");
+
+        if (values.length != 8) {
+            throw new IllegalArgumentException(
+                    "A curve needs 8 coordinates: \"" + line + "\"");
+        }
+
+        for (int i = 0; i < 8; i++) {
+            coordinates[i] = Double.parseDouble(values[i]);
+        }
+    }
+
+    /**
+     * To format a curve as a line of a curve file.
+     *
+     * @param coordinates the 8 coordinates of the curve
+     * @return the line without the line separator
+     */
+    public static String formatCurve(double[] coordinates) {
+
+        StringBuilder line = new StringBuilder();
+
+        for (int i = 0; i < 8; i++) {
+            if (i > 0) {
+                line.append(' ');
+            }
+            line.append(coordinates[i]);
+        }
+
+        return line.toString();
+    }
+
+    /**
+     * To format the fitted arcs of a curve as a line of an arc file.
+     *
+     * @param arcs the fitted arcs of a curve, at least one
+     * @param line the builder which the line is appended to, without the line
+     *             separator
+     */
+    public static void formatArcs(List<Arc> arcs, StringBuilder line) {
+
+        line.append(arcs.get(0).getStartX()).append(' ')
+                .append(arcs.get(0).getStartY());
+
+        for (Arc arc : arcs) {
+            line.append(' ').append(arc.getCenter().getX())
+                    .append(' ').append(arc.getCenter().getY())
+                    .append(' ').append(arc.getRadius())
+                    .append(' ').append(arc.getStartAngle())
+                    .append(' ').append(arc.getEndAngle())
+                    .append(' ').append(arc.getClockwiseFlag() ? '1' : '0')
+                    .append(' ').append(arc.getEndX())
+                    .append(' ').append(arc.getEndY());
+        }
+    }
+
+    /**
+     * To parse a line of an arc file.
+     *
+     * @param line the line
+     * @param arcs the arcs of the line
+     * @throws IllegalArgumentException if the line is malformed
+     */
+    public static void parseArcs(String line, ArrayList<Arc> arcs) {
+
+        if (!arcs.isEmpty()) {
+            arcs.clear();
+        }
+
+        String[] values = line.trim().split("\\s+");
+
+        if (values.length < 2 || (values.length - 2) % VALUES_PER_ARC != 0) {
+            throw new IllegalArgumentException("Malformed arc line: \"" + line + "\"");
+        }
+
+        DoublePoint startPoint = new DoublePoint(
+                Double.parseDouble(values[0]), Double.parseDouble(values[1]));
+
+        for (int i = 2; i < values.length; i += VALUES_PER_ARC) {
+
+            DoublePoint endPoint = new DoublePoint(
+                    Double.parseDouble(values[i + 6]),
+                    Double.parseDouble(values[i + 7]));
+
+            arcs.add(new Arc(
+                    new DoublePoint(Double.parseDouble(values[i]),
+                            Double.parseDouble(values[i + 1])),
+                    Double.parseDouble(values[i + 2]),
+                    Double.parseDouble(values[i + 3]),
+                    Double.parseDouble(values[i + 4]),
+                    values[i + 5].equals("1"),
+                    startPoint, endPoint));
+
+            startPoint = endPoint;
+        }
+    }
+}
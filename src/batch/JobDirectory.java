@@ -0,0 +1,222 @@
+package batch;
+
+import bezierCurveToArcs.ConversionStatistics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * This class is to locate the files of a sharded batch job in its directory,
+ * which may be shared by several hosts:
+ * <ul>
+ * <li>shards/shard-NNNNN.curves: the input curves of a shard;</li>
+ * <li>claims/shard-NNNNN.claim: linked atomically, with its content, by the
+ * worker which converts the shard, holding its worker id;</li>
+ * <li>status/shard-NNNNN.status: the progress and the statistics of the
+ * shard, replaced atomically by the worker;</li>
+ * <li>output/shard-NNNNN.arcs: the fitted arcs of the shard, moved in place
+ * atomically when the shard is done.</li>
+ * </ul>
+ */
+class JobDirectory {
+
+    /* the keys of a status file */
+    static final String PROCESSED_KEY = "processed";
+    static final String TOTAL_KEY = "total";
+    static final String WORKER_KEY = "worker";
+    static final String CURVE_COUNT_KEY = "curveCount";
+    static final String ARC_COUNT_KEY = "arcCount";
+    static final String NEWTON_ITERATION_COUNT_KEY = "newtonIterationCount";
+    static final String MAX_RECURSION_DEPTH_KEY = "maxRecursionDepth";
+    static final String DEPTH_LIMITED_BIARC_COUNT_KEY
+            = "depthLimitedBiarcCount";
+    static final String CACHE_HIT_COUNT_KEY = "cacheHitCount";
+
+    /* the names of the sub directories */
+    private static final String[] SUB_DIRECTORY_NAMES
+            = {"shards", "claims", "status", "output"};
+
+    /* the root directory of the job */
+    private final Path directory;
+
+    /**
+     * Constructor
+     *
+     * @param directory the root directory of the job
+     */
+    JobDirectory(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * To create the sub directories of a new job. The files of an earlier job
+     * would be taken for shards of this one, so a sub directory which isn't
+     * empty is refused.
+     *
+     * @throws IOException when the directories can't be created, or when one
+     *                     of them isn't empty
+     */
+    void createDirectories() throws IOException {
+
+        for (String name : SUB_DIRECTORY_NAMES) {
+
+            Path subDirectory = directory.resolve(name);
+            Files.createDirectories(subDirectory);
+
+            try (DirectoryStream<Path> stream
+                         = Files.newDirectoryStream(subDirectory)) {
+                if (stream.iterator().hasNext()) {
+                    throw new IOException("The job directory " + subDirectory
+                            + " isn't empty");
+                }
+            }
+        }
+    }
+
+    /**
+     * To get the name of a shard, which keeps the shards in input order when
+     * the names are sorted.
+     *
+     * @param shardIndex the index of the shard
+     * @return the name of the shard
+     */
+    static String shardName(int shardIndex) {
+        return String.format("shard-%05d", shardIndex);
+    }
+
+    /**
+     * To get the input file of a shard.
+     *
+     * @param shardName the name of the shard
+     * @return the input file of the shard
+     */
+    Path shardFile(String shardName) {
+        return directory.resolve("shards").resolve(shardName + ".curves");
+    }
+
+    /**
+     * To get the claim file of a shard.
+     *
+     * @param shardName the name of the shard
+     * @return the claim file of the shard
+     */
+    Path claimFile(String shardName) {
+        return directory.resolve("claims").resolve(shardName + ".claim");
+    }
+
+    /**
+     * To get the status file of a shard.
+     *
+     * @param shardName the name of the shard
+     * @return the status file of the shard
+     */
+    Path statusFile(String shardName) {
+        return directory.resolve("status").resolve(shardName + ".status");
+    }
+
+    /**
+     * To get the output file of a shard.
+     *
+     * @param shardName the name of the shard
+     * @return the output file of the shard
+     */
+    Path outputFile(String shardName) {
+        return directory.resolve("output").resolve(shardName + ".arcs");
+    }
+
+    /**
+     * To get the directory of the input files of the shards.
+     *
+     * @return the directory of the input files of the shards
+     */
+    Path shardDirectory() {
+        return directory.resolve("shards");
+    }
+
+    /**
+     * To replace the status file of a shard atomically, so a reader never
+     * sees a partial file.
+     *
+     * @param shardName the name of the shard
+     * @param status    the status
+     * @throws IOException when the file can't be written
+     */
+    void writeStatus(String shardName, Properties status) throws IOException {
+
+        Path statusFile = statusFile(shardName);
+        Path temporaryFile = statusFile.resolveSibling(
+                statusFile.getFileName() + "." + ProcessHandle.current().pid() + ".tmp");
+
+        try (OutputStream outputStream = Files.newOutputStream(temporaryFile)) {
+            status.store(outputStream, null);
+        }
+
+        Files.move(temporaryFile, statusFile, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * To read the status file of a shard.
+     *
+     * @param shardName the name of the shard
+     * @return the status, or null if there is no status file
+     * @throws IOException when the file can't be read
+     */
+    Properties readStatus(String shardName) throws IOException {
+
+        Path statusFile = statusFile(shardName);
+        if (!Files.exists(statusFile)) {
+            return null;
+        }
+
+        Properties status = new Properties();
+        try (InputStream inputStream = Files.newInputStream(statusFile)) {
+            status.load(inputStream);
+        }
+
+        return status;
+    }
+
+    /**
+     * To write the statistics of a shard into its status.
+     *
+     * @param statistics the statistics
+     * @param status     the status
+     */
+    static void putStatistics(ConversionStatistics statistics, Properties status) {
+
+        status.setProperty(CURVE_COUNT_KEY,
+                Long.toString(statistics.getCurveCount()));
+        status.setProperty(ARC_COUNT_KEY,
+                Long.toString(statistics.getArcCount()));
+        status.setProperty(NEWTON_ITERATION_COUNT_KEY,
+                Long.toString(statistics.getNewtonIterationCount()));
+        status.setProperty(MAX_RECURSION_DEPTH_KEY,
+                Integer.toString(statistics.getMaxRecursionDepth()));
+        status.setProperty(DEPTH_LIMITED_BIARC_COUNT_KEY,
+                Long.toString(statistics.getDepthLimitedBiarcCount()));
+    }
+
+    /**
+     * To read the statistics of a shard from its status.
+     *
+     * @param status the status
+     * @return the statistics
+     */
+    static ConversionStatistics getStatistics(Properties status) {
+
+        return new ConversionStatistics(
+                Long.parseLong(status.getProperty(CURVE_COUNT_KEY, "0")),
+                Long.parseLong(status.getProperty(ARC_COUNT_KEY, "0")),
+                Long.parseLong(status.getProperty(NEWTON_ITERATION_COUNT_KEY, "0")),
+                Integer.parseInt(status.getProperty(MAX_RECURSION_DEPTH_KEY, "0")),
+                Long.parseLong(status.getProperty(
+                        DEPTH_LIMITED_BIARC_COUNT_KEY, "0")));
+    }
+}
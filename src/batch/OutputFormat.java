@@ -0,0 +1,74 @@
+package batch;
+
+import java.awt.geom.Rectangle2D;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * The formats of the files written by {@link CommandLineConverter}. Every
+ * format holds the same path commands: move, line, arc and close.
+ */
+public enum OutputFormat {
+
+    /**
+     * An SVG document with a path element for every input path. The arcs are
+     * written as "A" commands.
+     */
+    SVG(".svg"),
+
+    /**
+     * A text file with one command per line: "M x y", "L x y", "Z", or
+     * "A" followed by the center x and y, the radius, the start angle, the
+     * end angle, 1 for clockwise or 0 for anti-clockwise, and the end point x
+     * and y. A line "P" starts every input path.
+     */
+    TEXT(".arcs"),
+
+    /**
+     * The commands of {@code TEXT} as binary records: the command letter as a
+     * byte followed by its values as big-endian doubles, with the clockwise
+     * flag as a byte.
+     */
+    BINARY(".arcbin");
+
+    /* the extension of the output files */
+    private final String extension;
+
+    /**
+     * Constructor
+     *
+     * @param extension the extension of the output files
+     */
+    OutputFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * To get this.extension.
+     *
+     * @return this.extension
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * To create a writer of an output file in this format.
+     *
+     * @param file   the output file
+     * @param bounds the bounds of the input paths
+     * @return the writer
+     * @throws IOException when the file can't be created
+     */
+    ArcFileWriter createWriter(Path file, Rectangle2D bounds) throws IOException {
+
+        switch (this) {
+            case SVG:
+                return new ArcFileWriter.SvgWriter(file, bounds);
+            case TEXT:
+                return new ArcFileWriter.TextWriter(file);
+            default:
+                return new ArcFileWriter.BinaryWriter(file);
+        }
+    }
+}
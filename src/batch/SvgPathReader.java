@@ -0,0 +1,297 @@
+package batch;
+
+import java.awt.geom.Path2D;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This class contains methods to read the outlines of the path elements of an
+ * SVG file. Only the "d" attribute is read: transforms, styles and the other
+ * shapes are ignored. Elliptical arc commands are not supported.
+ */
+public class SvgPathReader {
+
+    /* the "d" attribute of a path element */
+    private static final Pattern PATH_DATA_PATTERN = Pattern.compile(
+            "<path\\b[^>]*?\\sd\\s*=\\s*(?:\"([^\"]*)\"|'([^']*)')");
+
+    /**
+     * To read the outlines of the path elements of an SVG file.
+     *
+     * @param file  the SVG file
+     * @param paths the outlines, one for every path element in document order
+     * @throws IOException when the file can't be read or a path is malformed
+     */
+    public static void readPaths(Path file, ArrayList<Path2D.Double> paths)
+            throws IOException {
+
+        if (!paths.isEmpty()) {
+            paths.clear();
+        }
+
+        Matcher matcher = PATH_DATA_PATTERN.matcher(Files.readString(file));
+        while (matcher.find()) {
+
+            String pathData = matcher.group(1) != null
+                    ? matcher.group(1) : matcher.group(2);
+
+            try {
+                paths.add(parsePathData(pathData));
+            } catch (IllegalArgumentException e) {
+                throw new IOException(file + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * To parse the path data of the "d" attribute of a path element.
+     *
+     * @param pathData the path data
+     * @return the outline
+     * @throws IllegalArgumentException when the path data is malformed
+     */
+    public static Path2D.Double parsePathData(String pathData) {
+
+        Path2D.Double path = new Path2D.Double();
+        PathDataScanner scanner = new PathDataScanner(pathData);
+
+        /* the current point, the start point of the subpath and the last
+           control point of the last curve */
+        double x = 0.0;
+        double y = 0.0;
+        double startX = 0.0;
+        double startY = 0.0;
+        double controlX = 0.0;
+        double controlY = 0.0;
+
+        char command = 0;
+        char lastCommand = 0;
+
+        while (scanner.skipSeparators()) {
+
+            if (scanner.isAtCommand()) {
+                command = scanner.nextCommand();
+            } else if (command == 0 || command == 'Z' || command == 'z') {
+                throw new IllegalArgumentException(
+                        "A number without a command at " + scanner.position);
+            }
+
+            boolean relative = Character.isLowerCase(command);
+            double baseX = relative ? x : 0.0;
+            double baseY = relative ? y : 0.0;
+
+            switch (Character.toUpperCase(command)) {
+
+                case 'M':
+                    x = baseX + scanner.nextNumber();
+                    y = baseY + scanner.nextNumber();
+                    path.moveTo(x, y);
+                    startX = x;
+                    startY = y;
+                    /* the next pairs are lines */
+                    command = relative ? 'l' : 'L';
+                    break;
+
+                case 'L':
+                    x = baseX + scanner.nextNumber();
+                    y = baseY + scanner.nextNumber();
+                    path.lineTo(x, y);
+                    break;
+
+                case 'H':
+                    x = baseX + scanner.nextNumber();
+                    path.lineTo(x, y);
+                    break;
+
+                case 'V':
+                    y = baseY + scanner.nextNumber();
+                    path.lineTo(x, y);
+                    break;
+
+                case 'C': {
+                    double x1 = baseX + scanner.nextNumber();
+                    double y1 = baseY + scanner.nextNumber();
+                    controlX = baseX + scanner.nextNumber();
+                    controlY = baseY + scanner.nextNumber();
+                    x = baseX + scanner.nextNumber();
+                    y = baseY + scanner.nextNumber();
+                    path.curveTo(x1, y1, controlX, controlY, x, y);
+                    break;
+                }
+
+                case 'S': {
+                    /* the first control point is the reflection of the last
+                       one, or the current point after another command */
+                    double x1 = x;
+                    double y1 = y;
+                    if ("CcSs".indexOf(lastCommand) >= 0) {
+                        x1 = 2.0 * x - controlX;
+                        y1 = 2.0 * y - controlY;
+                    }
+                    controlX = baseX + scanner.nextNumber();
+                    controlY = baseY + scanner.nextNumber();
+                    x = baseX + scanner.nextNumber();
+                    y = baseY + scanner.nextNumber();
+                    path.curveTo(x1, y1, controlX, controlY, x, y);
+                    break;
+                }
+
+                case 'Q':
+                    controlX = baseX + scanner.nextNumber();
+                    controlY = baseY + scanner.nextNumber();
+                    x = baseX + scanner.nextNumber();
+                    y = baseY + scanner.nextNumber();
+                    path.quadTo(controlX, controlY, x, y);
+                    break;
+
+                case 'T':
+                    if ("QqTt".indexOf(lastCommand) >= 0) {
+                        controlX = 2.0 * x - controlX;
+                        controlY = 2.0 * y - controlY;
+                    } else {
+                        controlX = x;
+                        controlY = y;
+                    }
+                    x = baseX + scanner.nextNumber();
+                    y = baseY + scanner.nextNumber();
+                    path.quadTo(controlX, controlY, x, y);
+                    break;
+
+                case 'Z':
+                    path.closePath();
+                    x = startX;
+                    y = startY;
+                    break;
+
+                case 'A':
+                    throw new IllegalArgumentException(
+                            "Elliptical arc commands are not supported");
+
+                default:
+                    throw new IllegalArgumentException(
+                            "Unknown command '" + command + "'");
+            }
+
+            lastCommand = command;
+        }
+
+        return path;
+    }
+
+    /**
+     * This class is to read the commands and the numbers of path data.
+     */
+    private static class PathDataScanner {
+
+        /* the path data */
+        private final String pathData;
+
+        /* the index of the next character */
+        private int position = 0;
+
+        /**
+         * Constructor
+         *
+         * @param pathData the path data
+         */
+        private PathDataScanner(String pathData) {
+            this.pathData = pathData;
+        }
+
+        /**
+         * To skip white space and commas.
+         *
+         * @return true if there are characters left
+         */
+        private boolean skipSeparators() {
+
+            while (position < pathData.length()
+                    && (Character.isWhitespace(pathData.charAt(position))
+                    || pathData.charAt(position) == ',')) {
+                position++;
+            }
+
+            return position < pathData.length();
+        }
+
+        /**
+         * To judge if the next character is a command letter.
+         *
+         * @return true for a command letter
+         */
+        private boolean isAtCommand() {
+
+            char c = pathData.charAt(position);
+
+            return Character.isLetter(c) && c != 'e' && c != 'E';
+        }
+
+        /**
+         * To read a command letter.
+         *
+         * @return the command letter
+         */
+        private char nextCommand() {
+            return pathData.charAt(position++);
+        }
+
+        /**
+         * To read a number, which may follow the last one without a
+         * separator, like "1-2" or "1.5.5".
+         *
+         * @return the number
+         * @throws IllegalArgumentException when there is no number
+         */
+        private double nextNumber() {
+
+            skipSeparators();
+
+            int start = position;
+            boolean pointFlag = false;
+
+            if (position < pathData.length()
+                    && (pathData.charAt(position) == '-'
+                    || pathData.charAt(position) == '+')) {
+                position++;
+            }
+
+            while (position < pathData.length()) {
+
+                char c = pathData.charAt(position);
+
+                if (c >= '0' && c <= '9') {
+                    position++;
+                } else if (c == '.' && !pointFlag) {
+                    pointFlag = true;
+                    position++;
+                } else if ((c == 'e' || c == 'E') && position > start) {
+                    position++;
+                    if (position < pathData.length()
+                            && (pathData.charAt(position) == '-'
+                            || pathData.charAt(position) == '+')) {
+                        position++;
+                    }
+                    while (position < pathData.length()
+                            && pathData.charAt(position) >= '0'
+                            && pathData.charAt(position) <= '9') {
+                        position++;
+                    }
+                    break;
+                } else {
+                    break;
+                }
+            }
+
+            try {
+                return Double.parseDouble(pathData.substring(start, position));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(
+                        "A number is expected at " + start);
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package bezierCurveToArcs;
+
+import component.DoublePoint;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * This class is the common part of the Java Flight Recorder events emitted by
+ * {@code BezierCurveToArcs}. It records the control points, the allowable
+ * error, the number of fitted arcs and the Newton-Raphson statistics of one
+ * conversion.
+ */
+@Category({"Bezier Curve To Arcs"})
+@StackTrace(false)
+abstract class AbstractConversionEvent extends Event {
+
+    @Label("Start Point X")
+    double startX;
+
+    @Label("Start Point Y")
+    double startY;
+
+    @Label("Control Point A X")
+    double controlPointAX;
+
+    @Label("Control Point A Y")
+    double controlPointAY;
+
+    @Label("Control Point B X")
+    double controlPointBX;
+
+    @Label("Control Point B Y")
+    double controlPointBY;
+
+    @Label("End Point X")
+    double endX;
+
+    @Label("End Point Y")
+    double endY;
+
+    @Label("Allowable Error")
+    double allowableError;
+
+    @Label("Arc Count")
+    long arcCount;
+
+    @Label("Newton Iterations")
+    long newtonIterationCount;
+
+    @Label("Max Recursion Depth")
+    int maxRecursionDepth;
+
+    /**
+     * To fill the fields of the event.
+     *
+     * @param A              the start point of the Bezier curve
+     * @param controlPointA  the first control point of the Bezier curve which
+     *                       is close to {@code A}
+     * @param controlPointB  the second control point of the Bezier curve which
+     *                       is close to {@code B}
+     * @param B              the end point of the Bezier curve
+     * @param allowableError the allowable error
+     * @param statistics     the statistics of the conversion
+     */
+    void fill(DoublePoint A, DoublePoint controlPointA,
+              DoublePoint controlPointB, DoublePoint B, double allowableError,
+              ConversionStatistics statistics) {
+
+        startX = A.getX();
+        startY = A.getY();
+        controlPointAX = controlPointA.getX();
+        controlPointAY = controlPointA.getY();
+        controlPointBX = controlPointB.getX();
+        controlPointBY = controlPointB.getY();
+        endX = B.getX();
+        endY = B.getY();
+        this.allowableError = allowableError;
+        arcCount = statistics.getArcCount();
+        newtonIterationCount = statistics.getNewtonIterationCount();
+        maxRecursionDepth = statistics.getMaxRecursionDepth();
+    }
+}
@@ -0,0 +1,165 @@
+package bezierCurveToArcs;
+
+/**
+ * The built-in rules to place the joint point G of a biarc. Except for
+ * {@code INCENTER}, they choose another point of the joint circle, i.e. the
+ * circle through A0, A1 and the incenter of the triangle A0VA1, on the side of
+ * V. If the joint circle degenerates, they fall back to the incenter.
+ */
+public enum BuiltInJointPointStrategy implements JointPointStrategy {
+
+    /**
+     * The incenter of the triangle A0VA1, as in the paper of Walton and Meek.
+     */
+    INCENTER {
+        @Override
+        public void findJointPoint(double[] curve, double startT, double endT,
+                                   double a0x, double a0y, double vx, double vy,
+                                   double a1x, double a1y, double[] jointPoint) {
+
+            findIncenter(a0x, a0y, vx, vy, a1x, a1y, jointPoint);
+        }
+    },
+
+    /**
+     * The point of the joint circle at the same distance from A0 and A1, so
+     * the two arcs have equal chords. It differs from the incenter when the
+     * tangent lines are asymmetric.
+     */
+    EQUAL_CHORD {
+        @Override
+        public void findJointPoint(double[] curve, double startT, double endT,
+                                   double a0x, double a0y, double vx, double vy,
+                                   double a1x, double a1y, double[] jointPoint) {
+
+            if (!findJointCircleCenter(a0x, a0y, vx, vy, a1x, a1y, jointPoint)) {
+                return;
+            }
+
+            double centerX = jointPoint[0];
+            double centerY = jointPoint[1];
+            double radius = Math.hypot(a0x - centerX, a0y - centerY);
+
+            /* the unit normal of A0A1 to the side of V */
+            double chordLength = Math.hypot(a1x - a0x, a1y - a0y);
+            double normalX = (a0y - a1y) / chordLength;
+            double normalY = (a1x - a0x) / chordLength;
+            if ((vx - a0x) * normalX + (vy - a0y) * normalY < 0.0) {
+                normalX = -normalX;
+                normalY = -normalY;
+            }
+
+            jointPoint[0] = centerX + radius * normalX;
+            jointPoint[1] = centerY + radius * normalY;
+        }
+    },
+
+    /**
+     * The projection of the point of the Bezier curve at the middle t value
+     * of the span onto the joint circle, from the center of the circle. The
+     * joint point then lies close to the curve, which keeps the deviation of
+     * the biarc small.
+     */
+    CURVE_PROJECTION {
+        @Override
+        public void findJointPoint(double[] curve, double startT, double endT,
+                                   double a0x, double a0y, double vx, double vy,
+                                   double a1x, double a1y, double[] jointPoint) {
+
+            if (!findJointCircleCenter(a0x, a0y, vx, vy, a1x, a1y, jointPoint)) {
+                return;
+            }
+
+            double centerX = jointPoint[0];
+            double centerY = jointPoint[1];
+            double radius = Math.hypot(a0x - centerX, a0y - centerY);
+
+            double t = startT + (endT - startT) / 2.0;
+            double s = 1.0 - t;
+            double qx = s * s * s * curve[0] + 3 * (s * s * t) * curve[2]
+                    + 3 * (t * t * s) * curve[4] + t * t * t * curve[6];
+            double qy = s * s * s * curve[1] + 3 * (s * s * t) * curve[3]
+                    + 3 * (t * t * s) * curve[5] + t * t * t * curve[7];
+
+            double distance = Math.hypot(qx - centerX, qy - centerY);
+            double px = centerX + radius * (qx - centerX) / distance;
+            double py = centerY + radius * (qy - centerY) / distance;
+
+            /* The projection must be on the arc of the joint circle on the
+               side of V */
+            double sideOfV = crossProduct(a0x, a0y, a1x, a1y, vx, vy);
+            double sideOfP = crossProduct(a0x, a0y, a1x, a1y, px, py);
+            if (sideOfV * sideOfP > 0.0) {
+                jointPoint[0] = px;
+                jointPoint[1] = py;
+            } else {
+                findIncenter(a0x, a0y, vx, vy, a1x, a1y, jointPoint);
+            }
+        }
+    };
+
+    /**
+     * To find the incenter of the triangle A0VA1.
+     */
+    private static void findIncenter(double a0x, double a0y, double vx, double vy,
+                                     double a1x, double a1y, double[] jointPoint) {
+
+        double a = Math.sqrt((vx - a1x) * (vx - a1x) + (vy - a1y) * (vy - a1y));
+        double b = Math.sqrt((a0x - a1x) * (a0x - a1x) + (a0y - a1y) * (a0y - a1y));
+        double c = Math.sqrt((a0x - vx) * (a0x - vx) + (a0y - vy) * (a0y - vy));
+
+        jointPoint[0] = (a * a0x + b * vx + c * a1x) / (a + b + c);
+        jointPoint[1] = (a * a0y + b * vy + c * a1y) / (a + b + c);
+    }
+
+    /**
+     * To find the center of the joint circle, which is the circumcenter of
+     * A0, A1 and the incenter I of the triangle A0VA1.
+     *
+     * @return true if the center is found, or false if the joint circle
+     * degenerates, when {@code jointPoint} holds the incenter
+     */
+    private static boolean findJointCircleCenter(
+            double a0x, double a0y, double vx, double vy, double a1x, double a1y,
+            double[] jointPoint) {
+
+        findIncenter(a0x, a0y, vx, vy, a1x, a1y, jointPoint);
+        double ix = jointPoint[0];
+        double iy = jointPoint[1];
+
+        double chordLengthSquare = (a1x - a0x) * (a1x - a0x)
+                + (a1y - a0y) * (a1y - a0y);
+        double denominator = 2.0 * crossProduct(ix, iy, a0x, a0y, a1x, a1y);
+        if (!(Math.abs(denominator) > 1e-12 * chordLengthSquare)) {
+            return false;
+        }
+
+        /* the circumcenter relative to I */
+        double bx = a0x - ix;
+        double by = a0y - iy;
+        double cx = a1x - ix;
+        double cy = a1y - iy;
+        double b2 = bx * bx + by * by;
+        double c2 = cx * cx + cy * cy;
+
+        double centerX = ix + (cy * b2 - by * c2) / denominator;
+        double centerY = iy + (bx * c2 - cx * b2) / denominator;
+        if (!Double.isFinite(centerX) || !Double.isFinite(centerY)) {
+            return false;
+        }
+
+        jointPoint[0] = centerX;
+        jointPoint[1] = centerY;
+        return true;
+    }
+
+    /**
+     * To calculate the cross-product of vector p0p1 and vector p0p2.
+     */
+    private static double crossProduct(double p0x, double p0y,
+                                       double p1x, double p1y,
+                                       double p2x, double p2y) {
+
+        return (p1x - p0x) * (p2y - p0y) - (p2x - p0x) * (p1y - p0y);
+    }
+}
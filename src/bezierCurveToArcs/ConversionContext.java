@@ -0,0 +1,993 @@
+package bezierCurveToArcs;
+
+import component.Arc;
+import component.DoublePoint;
+import jdk.jfr.FlightRecorder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * This class is to convert cubic Bezier curves to arcs with the settings of a
+ * {@link ConverterConfiguration}, by the algorithm of Walton and Meek, see
+ * {@code BezierCurveToArcs}. For a span [startT, endT] of the curve with the
+ * end points A0 and A1:
+ * <ol>
+ * <li>V is the intersection of the tangent lines on A0 and A1;</li>
+ * <li>G is the joint point of the biarc, which is placed by the
+ * {@link JointPointStrategy} of the configuration, by default the incenter of
+ * the triangle A0VA1;</li>
+ * <li>the centers of the biarc make the arcs tangent to A0V and A1V;</li>
+ * <li>H is the unit tangent vector of the biarc on G, and t is found by
+ * Newton-Raphson method so that (Q(t) - G) · H = 0;</li>
+ * <li>if the error of the biarc meets the allowable error, the biarc is
+ * accepted, or else the span is split.</li>
+ * </ol>
+ * <p>
+ * The recursion is replaced by a stack of the pending spans, and the
+ * intermediate vectors are kept in local variables. A conversion allocates
+ * the fitted arcs with their centers and joint points, a point for every
+ * split point of the curve, and for the overloads which fill a list, the
+ * consumer which adds to it. The stack and the statistics are reused across
+ * calls. A context must be used by one thread only; it is cheap to create,
+ * and {@link ConverterConfiguration#currentThreadContext()} keeps one context
+ * for each thread.
+ * <p>
+ * A span at the max recursion depth of the configuration is not split any
+ * more, so its biarc is accepted even if it doesn't meet the allowable error.
+ * Such biarcs are counted by
+ * {@link ConversionStatistics#getDepthLimitedBiarcCount()}.
+ */
+public class ConversionContext {
+
+    /* the initial capacity of the stack of the pending spans */
+    private static final int INITIAL_STACK_CAPACITY = 16;
+
+    /* the settings of the conversion */
+    private final ConverterConfiguration configuration;
+
+    /* the end t values of the pending spans. The span at the top of the stack
+       starts at the end of the last fitted arc */
+    private double[] stackEndT = new double[INITIAL_STACK_CAPACITY];
+
+    /* the end points of the pending spans */
+    private DoublePoint[] stackEndPoints = new DoublePoint[INITIAL_STACK_CAPACITY];
+
+    /* the recursion depths of the pending spans */
+    private int[] stackDepths = new int[INITIAL_STACK_CAPACITY];
+
+    /* the spans of an anytime refinement, the worst span first */
+    private final PriorityQueue<Span> spanQueue
+            = new PriorityQueue<>((first, second)
+            -> Double.compare(second.error, first.error));
+
+    /* the statistics of the current conversion */
+    private final ConversionStatistics currentStatistics = new ConversionStatistics();
+
+    /* a flag to mark that a conversion is running */
+    private boolean busyFlag = false;
+
+    /* the coordinates of the current Bezier curve */
+    private double x0, y0, x1, y1, x2, y2, x3, y3;
+
+    /* the coordinates of the current Bezier curve for the joint point
+       strategy */
+    private final double[] curveCoordinates = new double[8];
+
+    /* the joint point of the last call of the joint point strategy */
+    private final double[] jointPoint = new double[2];
+
+    /* the results of the last call of {@code calculateUnitTangent},
+       {@code calculatePoint} and {@code calculateDerivative} */
+    private double resultX, resultY;
+
+    /* the biarc of the last call of {@code fitSpan}: the centers of the two
+       arcs, the joint point, the error and the t value to split the span */
+    private double fitCenter1X, fitCenter1Y, fitCenter2X, fitCenter2Y;
+    private double fitJointX, fitJointY, fitError, fitSplitT;
+
+    /**
+     * Constructor
+     *
+     * @param configuration the settings of the conversion
+     */
+    public ConversionContext(ConverterConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * To convert a cubic Bezier curve to a series of arcs.
+     *
+     * @param A              the start point of the Bezier curve
+     * @param controlPointA  the first control point of the Bezier curve which
+     *                       is close to {@code A}
+     * @param controlPointB  the second control point of the Bezier curve which
+     *                       is close to {@code B}
+     * @param B              the end point of the Bezier curve
+     * @param allowableError the allowable error
+     * @param arcs           the fitted arcs
+     * @param statistics     the statistics which the counters of this
+     *                       conversion are added to
+     */
+    public void convertACubicBezierCurveToArcs(
+            DoublePoint A, DoublePoint controlPointA, DoublePoint controlPointB,
+            DoublePoint B, double allowableError, ArrayList<Arc> arcs,
+            ConversionStatistics statistics) {
+
+        if (!arcs.isEmpty()) {
+            arcs.clear();
+        }
+
+        convertACubicBezierCurveToArcs(A, controlPointA, controlPointB, B,
+                allowableError, (Consumer<Arc>) arcs::add, statistics);
+    }
+
+    /**
+     * To convert a cubic Bezier curve to a series of arcs which are passed to
+     * {@code arcConsumer} one by one in order, and collect the statistics of
+     * the conversion.
+     * <p>
+     * A {@code SlowConversionEvent} is emitted to Java Flight Recorder when
+     * the conversion lasts longer than its threshold, and a
+     * {@code DeepConversionEvent} is emitted when the recursion depth reaches
+     * {@code BezierCurveToArcs.EVENT_DEPTH_THRESHOLD}.
+     *
+     * @param A              the start point of the Bezier curve
+     * @param controlPointA  the first control point of the Bezier curve which
+     *                       is close to {@code A}
+     * @param controlPointB  the second control point of the Bezier curve which
+     *                       is close to {@code B}
+     * @param B              the end point of the Bezier curve
+     * @param allowableError the allowable error
+     * @param arcConsumer    the consumer of the fitted arcs
+     * @param statistics     the statistics which the counters of this
+     *                       conversion are added to
+     */
+    public void convertACubicBezierCurveToArcs(
+            DoublePoint A, DoublePoint controlPointA, DoublePoint controlPointB,
+            DoublePoint B, double allowableError, Consumer<Arc> arcConsumer,
+            ConversionStatistics statistics) {
+
+        checkNotBusy();
+
+        setCurve(A, controlPointA, controlPointB, B);
+        convertCurrentCurve(allowableError, arcConsumer, statistics);
+    }
+
+    /**
+     * To convert a cubic Bezier curve which is given by its coordinates, e.g.
+     * from the array of a {@code PathIterator}, without creating its points.
+     *
+     * @param coordinates    the array which holds the coordinates of the start
+     *                       point, the first control point, the second
+     *                       control point and the end point in this order
+     * @param offset         the index of the x coordinate of the start point
+     * @param allowableError the allowable error
+     * @param arcConsumer    the consumer of the fitted arcs
+     * @param statistics     the statistics which the counters of this
+     *                       conversion are added to
+     */
+    public void convertACubicBezierCurveToArcs(
+            double[] coordinates, int offset, double allowableError,
+            Consumer<Arc> arcConsumer, ConversionStatistics statistics) {
+
+        checkNotBusy();
+
+        x0 = coordinates[offset];
+        y0 = coordinates[offset + 1];
+        x1 = coordinates[offset + 2];
+        y1 = coordinates[offset + 3];
+        x2 = coordinates[offset + 4];
+        y2 = coordinates[offset + 5];
+        x3 = coordinates[offset + 6];
+        y3 = coordinates[offset + 7];
+        System.arraycopy(coordinates, offset, curveCoordinates, 0, 8);
+
+        convertCurrentCurve(allowableError, arcConsumer, statistics);
+    }
+
+    /**
+     * To convert a cubic Bezier curve to a series of arcs within a budget,
+     * e.g. for a live preview. The worst span is always split first, so the
+     * result is the best one found when the refinement stops: when every span
+     * meets the allowable error, when the time budget is used up, or when
+     * another split would exceed the max number of arcs.
+     * <p>
+     * The arcs always form a continuous chain from {@code A} to {@code B}, and
+     * there are at least two of them, even if the budget is used up before
+     * the first biarc is fitted. The error of every span is measured by the
+     * error metric. The time budget covers the refinement; building the arcs
+     * afterwards takes time in proportion to their number.
+     *
+     * @param A               the start point of the Bezier curve
+     * @param controlPointA   the first control point of the Bezier curve which
+     *                        is close to {@code A}
+     * @param controlPointB   the second control point of the Bezier curve which
+     *                        is close to {@code B}
+     * @param B               the end point of the Bezier curve
+     * @param allowableError  the allowable error
+     * @param timeBudgetNanos the time budget in nanoseconds, or
+     *                        {@code Long.MAX_VALUE} for no limit
+     * @param maxArcCount     the max number of arcs
+     * @param arcs            the fitted arcs
+     * @param statistics      the statistics which the counters of this
+     *                        conversion are added to
+     * @return the reached error, the number of arcs and the stop reason
+     */
+    public RefinementResult refineACubicBezierCurveToArcs(
+            DoublePoint A, DoublePoint controlPointA, DoublePoint controlPointB,
+            DoublePoint B, double allowableError, long timeBudgetNanos,
+            int maxArcCount, ArrayList<Arc> arcs, ConversionStatistics statistics) {
+
+        long startNanos = System.nanoTime();
+
+        checkNotBusy();
+
+        if (!arcs.isEmpty()) {
+            arcs.clear();
+        }
+
+        busyFlag = true;
+        currentStatistics.reset();
+
+        try {
+            setCurve(A, controlPointA, controlPointB, B);
+
+            calculatePoint(0.0);
+            DoublePoint A0 = new DoublePoint(resultX, resultY);
+            calculatePoint(1.0);
+            DoublePoint A1 = new DoublePoint(resultX, resultY);
+
+            Span firstSpan = createSpan(0.0, 1.0, A0, A1, 0);
+            spanQueue.add(firstSpan);
+
+            int arcCount = 2;
+            double unsplittableError = 0.0;
+            RefinementResult.StopReason stopReason = null;
+
+            while (stopReason == null) {
+
+                Span worstSpan = spanQueue.peek();
+
+                if (worstSpan == null || worstSpan.error <= allowableError) {
+                    stopReason = unsplittableError <= allowableError
+                            ? RefinementResult.StopReason.TOLERANCE
+                            : RefinementResult.StopReason.DEPTH_LIMIT;
+
+                } else if (worstSpan.depth >= configuration.getMaxRecursionDepth()) {
+                    spanQueue.poll();
+                    unsplittableError = Math.max(unsplittableError, worstSpan.error);
+
+                } else if (arcCount + 2 > maxArcCount) {
+                    stopReason = RefinementResult.StopReason.ARC_BUDGET;
+
+                } else if (System.nanoTime() - startNanos >= timeBudgetNanos) {
+                    stopReason = RefinementResult.StopReason.DEADLINE;
+
+                } else {
+                    spanQueue.poll();
+                    splitSpan(worstSpan);
+                    arcCount += 2;
+                }
+            }
+
+            Span worstSpan = spanQueue.peek();
+            double reachedError = worstSpan == null ? unsplittableError
+                    : Math.max(unsplittableError, worstSpan.error);
+
+            for (Span span = firstSpan; span != null; span = span.next) {
+
+                DoublePoint G = new DoublePoint(span.jointX, span.jointY);
+
+                arcs.add(BezierCurveToArcs.generateArc(
+                        new DoublePoint(span.center1X, span.center1Y),
+                        span.startPoint, G));
+                arcs.add(BezierCurveToArcs.generateArc(
+                        new DoublePoint(span.center2X, span.center2Y),
+                        G, span.endPoint));
+            }
+
+            currentStatistics.increaseArcCount(arcCount);
+            currentStatistics.increaseCurveCount();
+            statistics.add(currentStatistics);
+
+            return new RefinementResult(reachedError, arcCount, stopReason);
+
+        } finally {
+            busyFlag = false;
+            spanQueue.clear();
+        }
+    }
+
+    /**
+     * To judge if this context is running a conversion.
+     *
+     * @return true for running and false for not
+     */
+    public boolean isBusy() {
+        return busyFlag;
+    }
+
+    /**
+     * To get this.configuration.
+     *
+     * @return this.configuration
+     */
+    public ConverterConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * To convert the Bezier curve in the fields {@code x0} ... {@code y3},
+     * and to emit the events of Java Flight Recorder.
+     *
+     * @param allowableError the allowable error
+     * @param arcConsumer    the consumer of the fitted arcs
+     * @param statistics     the statistics which the counters of this
+     *                       conversion are added to
+     */
+    private void convertCurrentCurve(double allowableError,
+                                     Consumer<Arc> arcConsumer,
+                                     ConversionStatistics statistics) {
+
+        busyFlag = true;
+        currentStatistics.reset();
+
+        /* Loading an event class sets up the event metadata of Java Flight
+           Recorder, which takes a few hundred milliseconds of a short run, so
+           the events are only created when Flight Recorder is initialized */
+        boolean recorderFlag = FlightRecorder.isInitialized();
+
+        SlowConversionEvent slowConversionEvent = null;
+        if (recorderFlag) {
+            slowConversionEvent = new SlowConversionEvent();
+            slowConversionEvent.begin();
+        }
+
+        try {
+            convert(allowableError, arcConsumer);
+        } finally {
+            busyFlag = false;
+            Arrays.fill(stackEndPoints, null);
+        }
+
+        currentStatistics.increaseCurveCount();
+        statistics.add(currentStatistics);
+
+        if (recorderFlag) {
+            emitEvents(slowConversionEvent, allowableError);
+        }
+    }
+
+    /**
+     * To emit the events of Java Flight Recorder for the current curve.
+     *
+     * @param slowConversionEvent the event which began with the conversion
+     * @param allowableError      the allowable error
+     */
+    private void emitEvents(SlowConversionEvent slowConversionEvent,
+                            double allowableError) {
+
+        slowConversionEvent.end();
+
+        if (slowConversionEvent.shouldCommit()) {
+            slowConversionEvent.fill(new DoublePoint(x0, y0),
+                    new DoublePoint(x1, y1), new DoublePoint(x2, y2),
+                    new DoublePoint(x3, y3), allowableError, currentStatistics);
+            slowConversionEvent.commit();
+        }
+
+        if (currentStatistics.getMaxRecursionDepth()
+                >= BezierCurveToArcs.EVENT_DEPTH_THRESHOLD) {
+            DeepConversionEvent deepConversionEvent = new DeepConversionEvent();
+            if (deepConversionEvent.isEnabled()) {
+                deepConversionEvent.fill(new DoublePoint(x0, y0),
+                        new DoublePoint(x1, y1), new DoublePoint(x2, y2),
+                        new DoublePoint(x3, y3), allowableError, currentStatistics);
+                deepConversionEvent.commit();
+            }
+        }
+    }
+
+    /**
+     * To fit the spans of the Bezier curve from left to right. The top of the
+     * stack is the span which starts at the end of the last fitted arc. If
+     * its biarc doesn't meet the allowable error, the span is split: the
+     * right part takes the place of the span and the left part is pushed.
+     *
+     * @param allowableError the allowable error
+     * @param arcConsumer    the consumer of the fitted arcs
+     */
+    private void convert(double allowableError, Consumer<Arc> arcConsumer) {
+
+        double startT = 0.0;
+        calculatePoint(0.0);
+        DoublePoint A0 = new DoublePoint(resultX, resultY);
+
+        calculatePoint(1.0);
+        int stackSize = 0;
+        stackEndT[0] = 1.0;
+        stackEndPoints[0] = new DoublePoint(resultX, resultY);
+        stackDepths[0] = 0;
+        stackSize++;
+
+        while (stackSize > 0) {
+
+            double endT = stackEndT[stackSize - 1];
+            DoublePoint A1 = stackEndPoints[stackSize - 1];
+            int depth = stackDepths[stackSize - 1];
+
+            fitSpan(startT, endT, A0, A1, depth, allowableError);
+
+            /* Step 8: accept the biarc or split the span */
+            if (fitError <= allowableError
+                    || depth >= configuration.getMaxRecursionDepth()) {
+
+                if (fitError > allowableError) {
+                    currentStatistics.increaseDepthLimitedBiarcCount();
+                }
+
+                DoublePoint G = new DoublePoint(fitJointX, fitJointY);
+
+                arcConsumer.accept(BezierCurveToArcs.generateArc(
+                        new DoublePoint(fitCenter1X, fitCenter1Y), A0, G));
+                arcConsumer.accept(BezierCurveToArcs.generateArc(
+                        new DoublePoint(fitCenter2X, fitCenter2Y), G, A1));
+                currentStatistics.increaseArcCount(2);
+
+                stackEndPoints[stackSize - 1] = null;
+                stackSize--;
+                startT = endT;
+                A0 = A1;
+
+            } else {
+
+                calculatePoint(fitSplitT);
+
+                stackDepths[stackSize - 1] = depth + 1;
+                ensureStackCapacity(stackSize + 1);
+                stackEndT[stackSize] = fitSplitT;
+                stackEndPoints[stackSize] = new DoublePoint(resultX, resultY);
+                stackDepths[stackSize] = depth + 1;
+                stackSize++;
+            }
+        }
+    }
+
+    /**
+     * To make sure that this context isn't running a conversion, whose curve
+     * would be overwritten.
+     */
+    private void checkNotBusy() {
+
+        if (busyFlag) {
+            throw new IllegalStateException(
+                    "The conversion context is already converting a curve");
+        }
+    }
+
+    /**
+     * To keep the coordinates of the Bezier curve in the fields.
+     *
+     * @param A             the start point of the Bezier curve
+     * @param controlPointA the first control point of the Bezier curve
+     * @param controlPointB the second control point of the Bezier curve
+     * @param B             the end point of the Bezier curve
+     */
+    private void setCurve(DoublePoint A, DoublePoint controlPointA,
+                          DoublePoint controlPointB, DoublePoint B) {
+
+        x0 = A.getX();
+        y0 = A.getY();
+        x1 = controlPointA.getX();
+        y1 = controlPointA.getY();
+        x2 = controlPointB.getX();
+        y2 = controlPointB.getY();
+        x3 = B.getX();
+        y3 = B.getY();
+
+        curveCoordinates[0] = x0;
+        curveCoordinates[1] = y0;
+        curveCoordinates[2] = x1;
+        curveCoordinates[3] = y1;
+        curveCoordinates[4] = x2;
+        curveCoordinates[5] = y2;
+        curveCoordinates[6] = x3;
+        curveCoordinates[7] = y3;
+    }
+
+    /**
+     * To fit a biarc to a span of the current Bezier curve (steps 2 to 7).
+     * The results are kept in the fields {@code fitCenter1X} ...
+     * {@code fitSplitT}.
+     *
+     * @param startT         the start t value of the span
+     * @param endT           the end t value of the span
+     * @param A0             the point on the Bezier curve at {@code startT}
+     * @param A1             the point on the Bezier curve at {@code endT}
+     * @param depth          the recursion depth of the span
+     * @param allowableError the allowable error, below which the error is
+     *                       measured by the error metric
+     */
+    private void fitSpan(double startT, double endT,
+                         DoublePoint A0, DoublePoint A1,
+                         int depth, double allowableError) {
+
+        double epsilon = configuration.getEpsilon();
+
+        currentStatistics.recordRecursionDepth(depth);
+
+        double a0x = A0.getX();
+        double a0y = A0.getY();
+        double a1x = A1.getX();
+        double a1y = A1.getY();
+
+        /* Step 2: the intersection V of the two tangent lines */
+        calculateUnitTangent(startT, epsilon);
+        double adjacentA0x = a0x + resultX;
+        double adjacentA0y = a0y + resultY;
+        calculateUnitTangent(endT, epsilon);
+        double adjacentA1x = a1x + resultX;
+        double adjacentA1y = a1y + resultY;
+
+        double cross1 = crossProduct(a0x, a0y, adjacentA0x, adjacentA0y,
+                adjacentA1x, adjacentA1y);
+        double cross2 = crossProduct(a0x, a0y, adjacentA0x, adjacentA0y,
+                a1x, a1y);
+        double cross3 = crossProduct(a0x, a0y, adjacentA1x, adjacentA1y,
+                a1x, a1y);
+        double lambda = cross3 / (cross2 - cross1);
+
+        double vx = a0x + lambda * (adjacentA0x - a0x);
+        double vy = a0y + lambda * (adjacentA0y - a0y);
+
+        /* Step 3: the joint point G */
+        configuration.getJointPointStrategy().findJointPoint(curveCoordinates,
+                startT, endT, a0x, a0y, vx, vy, a1x, a1y, jointPoint);
+        double gx = jointPoint[0];
+        double gy = jointPoint[1];
+
+        /* Step 4: the two centers of the biarc */
+        double center1x = calculateCenterX(a0x, a0y, vx, vy, gx, gy);
+        double center1y = calculateCenterY(a0x, a0y, vx, vy, gx, gy);
+        double center2x = calculateCenterX(a1x, a1y, vx, vy, gx, gy);
+        double center2y = calculateCenterY(a1x, a1y, vx, vy, gx, gy);
+
+        /* Step 5: the unit tangent vector H of the circle on G */
+        double hx;
+        double hy;
+        if (Math.abs(center1x - gx) <= epsilon) {
+            hx = center1y < gy ? 1.0 : -1.0;
+            hy = 0.0;
+        } else {
+            double radius = distance(center1x, center1y, gx, gy);
+            hx = (gy - center1y) / radius;
+            hy = 0.0 - (gx - center1x) / radius;
+        }
+
+        /* Step 6: t so that (Q(t) - G) · H = 0 */
+        double t = findT(hx, hy, gx, gy, startT, endT);
+
+        /* Step 7: the error of the biarc */
+        calculatePoint(t);
+        double maxError = distance(resultX, resultY, gx, gy);
+
+        if (configuration.getErrorMetric() == ErrorMetric.SAMPLED_POINTS
+                && maxError <= allowableError) {
+            maxError = calculateSampledError(startT, endT, t, maxError,
+                    allowableError, a0x, a0y, a1x, a1y, gx, gy,
+                    center1x, center1y, center2x, center2y);
+        }
+
+        fitCenter1X = center1x;
+        fitCenter1Y = center1y;
+        fitCenter2X = center2x;
+        fitCenter2Y = center2y;
+        fitJointX = gx;
+        fitJointY = gy;
+        fitError = maxError;
+
+        /* Newton's method may leave the span for a degenerate span, then the
+           middle is used */
+        fitSplitT = t;
+        if (configuration.getSplitStrategy() == SplitStrategy.AT_MIDDLE_PARAMETER
+                || !(t > startT && t < endT)) {
+            fitSplitT = startT + (endT - startT) / 2.0;
+        }
+    }
+
+    /**
+     * To create a span of the current Bezier curve and fit its biarc. All
+     * errors are measured by the error metric.
+     *
+     * @param startT     the start t value of the span
+     * @param endT       the end t value of the span
+     * @param startPoint the point on the Bezier curve at {@code startT}
+     * @param endPoint   the point on the Bezier curve at {@code endT}
+     * @param depth      the recursion depth of the span
+     * @return the span
+     */
+    private Span createSpan(double startT, double endT, DoublePoint startPoint,
+                            DoublePoint endPoint, int depth) {
+
+        Span span = new Span();
+        fitSpanInto(span, startT, endT, startPoint, endPoint, depth);
+
+        return span;
+    }
+
+    /**
+     * To fit the biarc of a span into the span object.
+     *
+     * @param span       the span object
+     * @param startT     the start t value of the span
+     * @param endT       the end t value of the span
+     * @param startPoint the point on the Bezier curve at {@code startT}
+     * @param endPoint   the point on the Bezier curve at {@code endT}
+     * @param depth      the recursion depth of the span
+     */
+    private void fitSpanInto(Span span, double startT, double endT,
+                             DoublePoint startPoint, DoublePoint endPoint,
+                             int depth) {
+
+        fitSpan(startT, endT, startPoint, endPoint, depth,
+                Double.POSITIVE_INFINITY);
+
+        span.startT = startT;
+        span.endT = endT;
+        span.startPoint = startPoint;
+        span.endPoint = endPoint;
+        span.depth = depth;
+        span.center1X = fitCenter1X;
+        span.center1Y = fitCenter1Y;
+        span.center2X = fitCenter2X;
+        span.center2Y = fitCenter2Y;
+        span.jointX = fitJointX;
+        span.jointY = fitJointY;
+        span.error = fitError;
+        span.splitT = fitSplitT;
+    }
+
+    /**
+     * To split a span into two spans which take its place in the chain, and
+     * to add them to the queue. The span object is reused as the left part.
+     *
+     * @param span the span which is not in the queue
+     */
+    private void splitSpan(Span span) {
+
+        calculatePoint(span.splitT);
+        DoublePoint splitPoint = new DoublePoint(resultX, resultY);
+
+        Span rightSpan = createSpan(span.splitT, span.endT, splitPoint,
+                span.endPoint, span.depth + 1);
+        rightSpan.next = span.next;
+
+        fitSpanInto(span, span.startT, span.splitT, span.startPoint, splitPoint,
+                span.depth + 1);
+        span.next = rightSpan;
+
+        spanQueue.add(span);
+        spanQueue.add(rightSpan);
+    }
+
+    /**
+     * To find the t value so that f(t) = (Q(t) - G) · H = 0 with
+     * Newton-Raphson method, where tn+1 = tn - f(tn)/f'(tn). f(t) is monotone
+     * in the span, and the iterations start from the middle of it. They stop
+     * at the Newton tolerance or at the max number of iterations.
+     *
+     * @param hx     the x coordinate of the unit tangent vector H on G
+     * @param hy     the y coordinate of the unit tangent vector H on G
+     * @param gx     the x coordinate of the joint point G
+     * @param gy     the y coordinate of the joint point G
+     * @param startT the start t value of the span
+     * @param endT   the end t value of the span
+     * @return the t value which makes f(t) is near to zero
+     */
+    private double findT(double hx, double hy, double gx, double gy,
+                         double startT, double endT) {
+
+        double newtonTolerance = configuration.getNewtonTolerance();
+        int maxNewtonIterations = configuration.getMaxNewtonIterations();
+
+        double gh = gx * hx + gy * hy;
+
+        double tn = startT + (endT - startT) / 2.0;
+
+        calculatePoint(tn);
+        double fn = (resultX * hx + resultY * hy) - gh;
+
+        int iterations = 0;
+        while (Math.abs(fn) > newtonTolerance && iterations < maxNewtonIterations) {
+
+            currentStatistics.increaseNewtonIterationCount();
+            iterations++;
+
+            calculateDerivative(tn);
+            double d_fn = resultX * hx + resultY * hy;
+
+            tn = tn - fn / d_fn;
+
+            calculatePoint(tn);
+            fn = (resultX * hx + resultY * hy) - gh;
+        }
+
+        return tn;
+    }
+
+    /**
+     * To calculate the max distance from the points of the span at
+     * {@code errorSamples} - 1 evenly spaced t values to the biarc.
+     * <p>
+     * A point before the joint t value is measured to the first arc first,
+     * and the other arc is only needed if the distance may raise the max.
+     * The sampling stops as soon as the max exceeds {@code limit}.
+     *
+     * @param startT       the start t value of the span
+     * @param endT         the end t value of the span
+     * @param jointT       the t value of the point which matches the joint
+     *                     point
+     * @param initialError the error which is known before sampling
+     * @param limit        the error above which the exact max is not needed
+     * @param a0x          the x coordinate of the start point of the span
+     * @param a0y          the y coordinate of the start point of the span
+     * @param a1x          the x coordinate of the end point of the span
+     * @param a1y          the y coordinate of the end point of the span
+     * @param gx           the x coordinate of the joint point
+     * @param gy           the y coordinate of the joint point
+     * @param center1x     the x coordinate of the center of the first arc
+     * @param center1y     the y coordinate of the center of the first arc
+     * @param center2x     the x coordinate of the center of the second arc
+     * @param center2y     the y coordinate of the center of the second arc
+     * @return the max distance, or a value above {@code limit}
+     */
+    private double calculateSampledError(
+            double startT, double endT, double jointT,
+            double initialError, double limit,
+            double a0x, double a0y, double a1x, double a1y, double gx, double gy,
+            double center1x, double center1y, double center2x, double center2y) {
+
+        int errorSamples = configuration.getErrorSamples();
+
+        double radius1 = distance(center1x, center1y, gx, gy);
+        double radius2 = distance(center2x, center2y, a1x, a1y);
+
+        double maxError = initialError;
+
+        for (int i = 1; i < errorSamples && maxError <= limit; i++) {
+
+            double t = startT + (endT - startT) * i / errorSamples;
+            calculatePoint(t);
+
+            double error;
+            double otherError;
+
+            if (t <= jointT) {
+                error = distanceToArc(resultX, resultY, center1x, center1y,
+                        radius1, a0x, a0y, gx, gy);
+                if (error <= maxError) {
+                    continue;
+                }
+                otherError = distanceToArc(resultX, resultY, center2x, center2y,
+                        radius2, gx, gy, a1x, a1y);
+            } else {
+                error = distanceToArc(resultX, resultY, center2x, center2y,
+                        radius2, gx, gy, a1x, a1y);
+                if (error <= maxError) {
+                    continue;
+                }
+                otherError = distanceToArc(resultX, resultY, center1x, center1y,
+                        radius1, a0x, a0y, gx, gy);
+            }
+
+            maxError = Math.max(maxError, Math.min(error, otherError));
+        }
+
+        return maxError;
+    }
+
+    /**
+     * To calculate the distance from a point to an arc whose sweep is not
+     * greater than pi, like {@code MathTools.distanceFromPointToArc}.
+     *
+     * @param x       the x coordinate of the point
+     * @param y       the y coordinate of the point
+     * @param centerX the x coordinate of the center of the arc
+     * @param centerY the y coordinate of the center of the arc
+     * @param radius  the radius of the arc
+     * @param startX  the x coordinate of the start point of the arc
+     * @param startY  the y coordinate of the start point of the arc
+     * @param endX    the x coordinate of the end point of the arc
+     * @param endY    the y coordinate of the end point of the arc
+     * @return the distance from the point to the arc
+     */
+    private static double distanceToArc(double x, double y,
+                                        double centerX, double centerY,
+                                        double radius,
+                                        double startX, double startY,
+                                        double endX, double endY) {
+
+        double startDeltaX = startX - centerX;
+        double startDeltaY = startY - centerY;
+        double endDeltaX = endX - centerX;
+        double endDeltaY = endY - centerY;
+        double deltaX = x - centerX;
+        double deltaY = y - centerY;
+
+        /* the point lies in the sector if it is on the same side of both
+           radii as the arc */
+        double sweep = startDeltaX * endDeltaY - startDeltaY * endDeltaX;
+        double fromStart = startDeltaX * deltaY - startDeltaY * deltaX;
+        double toEnd = deltaX * endDeltaY - deltaY * endDeltaX;
+
+        if (sweep >= 0.0 ? fromStart >= 0.0 && toEnd >= 0.0
+                : fromStart <= 0.0 && toEnd <= 0.0) {
+            return Math.abs(Math.sqrt(deltaX * deltaX + deltaY * deltaY) - radius);
+        }
+
+        return Math.min(distance(x, y, startX, startY), distance(x, y, endX, endY));
+    }
+
+    /**
+     * To calculate the unit tangent vector of the Bezier curve at t into
+     * {@code resultX} and {@code resultY}, like
+     * {@code CubicBezierTools.calculateUnitTangentVectorOfBezierCurve}.
+     *
+     * @param t       the t value
+     * @param epsilon the quite small number to detect a vertical tangent
+     */
+    private void calculateUnitTangent(double t, double epsilon) {
+
+        calculateDerivative(t);
+
+        double dx_dt = resultX;
+        double dy_dt = resultY;
+
+        if (Math.abs(dx_dt) <= epsilon) {
+            resultX = 0.0;
+            resultY = dy_dt >= 0.0 ? 1.0 : -1.0;
+            return;
+        }
+
+        double hypotenuse = Math.sqrt(dx_dt * dx_dt + dy_dt * dy_dt);
+
+        resultX = dx_dt / hypotenuse;
+        resultY = dy_dt / hypotenuse;
+    }
+
+    /**
+     * To calculate the point Q(t) on the Bezier curve into {@code resultX} and
+     * {@code resultY}, like {@code CubicBezierTools.pointOnBezierCurve}.
+     *
+     * @param t the t value
+     */
+    private void calculatePoint(double t) {
+
+        double s = 1 - t;
+
+        resultX = s * s * s * x0 + 3 * (s * s * t) * x1
+                + 3 * (t * t * s) * x2 + t * t * t * x3;
+        resultY = s * s * s * y0 + 3 * (s * s * t) * y1
+                + 3 * (t * t * s) * y2 + t * t * t * y3;
+    }
+
+    /**
+     * To calculate Q'(t) of the Bezier curve into {@code resultX} and
+     * {@code resultY}, like
+     * {@code CubicBezierTools.calculateDerivativeOnBezierCurve}.
+     *
+     * @param t the t value
+     */
+    private void calculateDerivative(double t) {
+
+        double s = 1.0 - t;
+
+        resultY = -3 * y0 * s * s + 3 * y1 * (s * s - 2 * t * s)
+                + 3 * y2 * (2 * t * s - t * t) + 3 * y3 * t * t;
+        resultX = -3 * x0 * s * s + 3 * x1 * (s * s - 2 * t * s)
+                + 3 * x2 * (2 * t * s - t * t) + 3 * x3 * t * t;
+    }
+
+    /**
+     * To calculate the x coordinate of the center O of the circle through A
+     * and G on which OA is vertical to AV, by Cramer's rule for
+     * <p>
+     * (V - A) · O = (V - A) · A
+     * (G - A) · O = (G - A) · (G + A) / 2.
+     */
+    private static double calculateCenterX(double ax, double ay,
+                                           double vx, double vy,
+                                           double gx, double gy) {
+
+        double a11 = vx - ax;
+        double a12 = vy - ay;
+        double b1 = ax * a11 + ay * a12;
+        double a21 = gx - ax;
+        double a22 = gy - ay;
+        double b2 = (gx + ax) / 2.0 * a21 + (gy + ay) / 2.0 * a22;
+
+        return (b1 * a22 - a12 * b2) / (a11 * a22 - a12 * a21);
+    }
+
+    /**
+     * To calculate the y coordinate of the center O of the circle through A
+     * and G on which OA is vertical to AV.
+     */
+    private static double calculateCenterY(double ax, double ay,
+                                           double vx, double vy,
+                                           double gx, double gy) {
+
+        double a11 = vx - ax;
+        double a12 = vy - ay;
+        double b1 = ax * a11 + ay * a12;
+        double a21 = gx - ax;
+        double a22 = gy - ay;
+        double b2 = (gx + ax) / 2.0 * a21 + (gy + ay) / 2.0 * a22;
+
+        return (a11 * b2 - b1 * a21) / (a11 * a22 - a12 * a21);
+    }
+
+    /**
+     * To calculate the cross-product of vector p0p1 and vector p0p2.
+     */
+    private static double crossProduct(double p0x, double p0y,
+                                       double p1x, double p1y,
+                                       double p2x, double p2y) {
+
+        double deltaX1 = p1x - p0x;
+        double deltaY1 = p1y - p0y;
+        double deltaX2 = p2x - p0x;
+        double deltaY2 = p2y - p0y;
+
+        return deltaX1 * deltaY2 - deltaX2 * deltaY1;
+    }
+
+    /**
+     * To calculate the Euclidean distance between two points.
+     */
+    private static double distance(double ax, double ay, double bx, double by) {
+
+        return Math.sqrt((ax - bx) * (ax - bx) + (ay - by) * (ay - by));
+    }
+
+    /**
+     * To make sure that the stack holds at least {@code capacity} spans.
+     *
+     * @param capacity the required capacity
+     */
+    private void ensureStackCapacity(int capacity) {
+
+        if (capacity <= stackEndT.length) {
+            return;
+        }
+
+        int newCapacity = Math.max(capacity, stackEndT.length * 2);
+        stackEndT = Arrays.copyOf(stackEndT, newCapacity);
+        stackEndPoints = Arrays.copyOf(stackEndPoints, newCapacity);
+        stackDepths = Arrays.copyOf(stackDepths, newCapacity);
+    }
+
+    /**
+     * This class is to store a span of an anytime refinement with its biarc.
+     * The spans are linked in the order of t.
+     */
+    private static class Span {
+
+        /* the range of t and the end points of the span */
+        private double startT, endT;
+        private DoublePoint startPoint, endPoint;
+
+        /* the recursion depth of the span */
+        private int depth;
+
+        /* the biarc, see the fields {@code fitCenter1X} ... {@code fitSplitT} */
+        private double center1X, center1Y, center2X, center2Y;
+        private double jointX, jointY, error, splitT;
+
+        /* the next span in the order of t */
+        private Span next;
+    }
+}
@@ -0,0 +1,192 @@
+package bezierCurveToArcs;
+
+/**
+ * This class is to collect statistics of conversions from cubic Bezier
+ * curves to arcs, such as the number of fitted arcs, the total number of
+ * Newton-Raphson iterations, the max recursion depth and the number of
+ * biarcs which are accepted at the max recursion depth although they don't
+ * meet the allowable error.
+ * <p>
+ * An object of this class is not thread-safe. Use one object per thread.
+ */
+public class ConversionStatistics {
+
+    /* the number of converted curves */
+    private long curveCount;
+
+    /* the number of fitted arcs */
+    private long arcCount;
+
+    /* the total number of Newton-Raphson iterations to find t */
+    private long newtonIterationCount;
+
+    /* the max recursion depth of the subdivision */
+    private int maxRecursionDepth;
+
+    /* the number of biarcs which are accepted at the max recursion depth of
+       the configuration although their error exceeds the allowable error */
+    private long depthLimitedBiarcCount;
+
+    /**
+     * Constructor. All the counters are zero.
+     */
+    public ConversionStatistics() {
+    }
+
+    /**
+     * Constructor, e.g. to restore the counters which are reported by another
+     * process.
+     *
+     * @param curveCount           the number of converted curves
+     * @param arcCount             the number of fitted arcs
+     * @param newtonIterationCount the total number of Newton-Raphson
+     *                             iterations
+     * @param maxRecursionDepth    the max recursion depth
+     */
+    public ConversionStatistics(long curveCount, long arcCount,
+                                long newtonIterationCount, int maxRecursionDepth) {
+
+        this(curveCount, arcCount, newtonIterationCount, maxRecursionDepth, 0);
+    }
+
+    /**
+     * Constructor, e.g. to restore the counters which are reported by another
+     * process.
+     *
+     * @param curveCount             the number of converted curves
+     * @param arcCount               the number of fitted arcs
+     * @param newtonIterationCount   the total number of Newton-Raphson
+     *                               iterations
+     * @param maxRecursionDepth      the max recursion depth
+     * @param depthLimitedBiarcCount the number of biarcs which are accepted
+     *                               at the max recursion depth although they
+     *                               don't meet the allowable error
+     */
+    public ConversionStatistics(long curveCount, long arcCount,
+                                long newtonIterationCount,
+                                int maxRecursionDepth,
+                                long depthLimitedBiarcCount) {
+
+        this.curveCount = curveCount;
+        this.arcCount = arcCount;
+        this.newtonIterationCount = newtonIterationCount;
+        this.maxRecursionDepth = maxRecursionDepth;
+        this.depthLimitedBiarcCount = depthLimitedBiarcCount;
+    }
+
+    /**
+     * To reset all the counters to zero.
+     */
+    public void reset() {
+
+        curveCount = 0;
+        arcCount = 0;
+        newtonIterationCount = 0;
+        maxRecursionDepth = 0;
+        depthLimitedBiarcCount = 0;
+    }
+
+    /**
+     * To add all the counters of another {@code ConversionStatistics} object
+     * to this object.
+     *
+     * @param other another {@code ConversionStatistics} object
+     */
+    public void add(ConversionStatistics other) {
+
+        curveCount += other.curveCount;
+        arcCount += other.arcCount;
+        newtonIterationCount += other.newtonIterationCount;
+        maxRecursionDepth = Math.max(maxRecursionDepth, other.maxRecursionDepth);
+        depthLimitedBiarcCount += other.depthLimitedBiarcCount;
+    }
+
+    /**
+     * To increase the number of converted curves by one.
+     */
+    void increaseCurveCount() {
+        curveCount++;
+    }
+
+    /**
+     * To increase the number of fitted arcs.
+     *
+     * @param count the number of new fitted arcs
+     */
+    void increaseArcCount(int count) {
+        arcCount += count;
+    }
+
+    /**
+     * To increase the number of Newton-Raphson iterations by one.
+     */
+    void increaseNewtonIterationCount() {
+        newtonIterationCount++;
+    }
+
+    /**
+     * To record a recursion depth.
+     *
+     * @param depth the current recursion depth
+     */
+    void recordRecursionDepth(int depth) {
+
+        if (depth > maxRecursionDepth) {
+            maxRecursionDepth = depth;
+        }
+    }
+
+    /**
+     * To increase the number of biarcs which are accepted at the max recursion
+     * depth although they don't meet the allowable error by one.
+     */
+    void increaseDepthLimitedBiarcCount() {
+        depthLimitedBiarcCount++;
+    }
+
+    /**
+     * To get this.curveCount.
+     *
+     * @return this.curveCount
+     */
+    public long getCurveCount() {
+        return curveCount;
+    }
+
+    /**
+     * To get this.arcCount.
+     *
+     * @return this.arcCount
+     */
+    public long getArcCount() {
+        return arcCount;
+    }
+
+    /**
+     * To get this.newtonIterationCount.
+     *
+     * @return this.newtonIterationCount
+     */
+    public long getNewtonIterationCount() {
+        return newtonIterationCount;
+    }
+
+    /**
+     * To get this.maxRecursionDepth.
+     *
+     * @return this.maxRecursionDepth
+     */
+    public int getMaxRecursionDepth() {
+        return maxRecursionDepth;
+    }
+
+    /**
+     * To get this.depthLimitedBiarcCount. The fitted arcs of a conversion
+     * only meet the allowable error if this count doesn't increase.
+     *
+     * @return this.depthLimitedBiarcCount
+     */
+    public long getDepthLimitedBiarcCount() {
+        return depthLimitedBiarcCount;
+    }
+}
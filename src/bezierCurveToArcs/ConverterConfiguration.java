@@ -0,0 +1,339 @@
+package bezierCurveToArcs;
+
+/**
+ * This class is to store the settings of the conversion from cubic Bezier
+ * curves to arcs: the tolerances, the limits, the error metric, the split
+ * strategy and the joint point strategy. An object of this class is
+ * immutable, so it can be shared by all threads, and it is created by
+ * {@link Builder}.
+ * <p>
+ * Every thread converts with its own {@link ConversionContext}, which keeps
+ * the working buffers between calls. {@link #currentThreadContext()} gives the
+ * context of the current thread.
+ */
+public class ConverterConfiguration {
+
+    /* the default max error of f(t) = (Q(t) - G) · H in Newton's method */
+    public static final double DEFAULT_NEWTON_TOLERANCE = 0.001;
+
+    /* the default quite small number to detect degenerate directions */
+    public static final double DEFAULT_EPSILON = 1e-9;
+
+    /* the default max recursion depth, from which a biarc is accepted even if
+       it doesn't meet the allowable error */
+    public static final int DEFAULT_MAX_RECURSION_DEPTH = 48;
+
+    /* the default max number of iterations of Newton's method */
+    public static final int DEFAULT_MAX_NEWTON_ITERATIONS = 64;
+
+    /* the default number of the intervals of a span for
+       {@code ErrorMetric.SAMPLED_POINTS} */
+    public static final int DEFAULT_ERROR_SAMPLES = 8;
+
+    /* the configuration with all default settings, which is used by
+       {@code BezierCurveToArcs} */
+    public static final ConverterConfiguration DEFAULT = new Builder().build();
+
+    /* the max error of f(t) = (Q(t) - G) · H in Newton's method */
+    private final double newtonTolerance;
+
+    /* a quite small number to detect degenerate directions */
+    private final double epsilon;
+
+    /* the max recursion depth */
+    private final int maxRecursionDepth;
+
+    /* the max number of iterations of Newton's method */
+    private final int maxNewtonIterations;
+
+    /* the way to measure the error of a biarc */
+    private final ErrorMetric errorMetric;
+
+    /* the number of the intervals of a span for
+       {@code ErrorMetric.SAMPLED_POINTS} */
+    private final int errorSamples;
+
+    /* the way to choose the t value to split a span */
+    private final SplitStrategy splitStrategy;
+
+    /* the rule to place the joint point of a biarc */
+    private final JointPointStrategy jointPointStrategy;
+
+    /* the contexts of the threads which convert with this configuration */
+    private final ThreadLocal<ConversionContext> contexts
+            = ThreadLocal.withInitial(() -> new ConversionContext(this));
+
+    /**
+     * Constructor
+     *
+     * @param builder the builder which holds the settings
+     */
+    private ConverterConfiguration(Builder builder) {
+
+        this.newtonTolerance = builder.newtonTolerance;
+        this.epsilon = builder.epsilon;
+        this.maxRecursionDepth = builder.maxRecursionDepth;
+        this.maxNewtonIterations = builder.maxNewtonIterations;
+        this.errorMetric = builder.errorMetric;
+        this.errorSamples = builder.errorSamples;
+        this.splitStrategy = builder.splitStrategy;
+        this.jointPointStrategy = builder.jointPointStrategy;
+    }
+
+    /**
+     * To get the conversion context of the current thread. The context is
+     * created on the first call of a thread and reused afterwards. If it is
+     * busy, e.g. when an arc consumer converts another curve, a new context is
+     * returned.
+     *
+     * @return the conversion context of the current thread
+     */
+    public ConversionContext currentThreadContext() {
+
+        ConversionContext context = contexts.get();
+
+        return context.isBusy() ? new ConversionContext(this) : context;
+    }
+
+    /**
+     * To get this.newtonTolerance.
+     *
+     * @return this.newtonTolerance
+     */
+    public double getNewtonTolerance() {
+        return newtonTolerance;
+    }
+
+    /**
+     * To get this.epsilon.
+     *
+     * @return this.epsilon
+     */
+    public double getEpsilon() {
+        return epsilon;
+    }
+
+    /**
+     * To get this.maxRecursionDepth.
+     *
+     * @return this.maxRecursionDepth
+     */
+    public int getMaxRecursionDepth() {
+        return maxRecursionDepth;
+    }
+
+    /**
+     * To get this.maxNewtonIterations.
+     *
+     * @return this.maxNewtonIterations
+     */
+    public int getMaxNewtonIterations() {
+        return maxNewtonIterations;
+    }
+
+    /**
+     * To get this.errorMetric.
+     *
+     * @return this.errorMetric
+     */
+    public ErrorMetric getErrorMetric() {
+        return errorMetric;
+    }
+
+    /**
+     * To get this.errorSamples.
+     *
+     * @return this.errorSamples
+     */
+    public int getErrorSamples() {
+        return errorSamples;
+    }
+
+    /**
+     * To get this.splitStrategy.
+     *
+     * @return this.splitStrategy
+     */
+    public SplitStrategy getSplitStrategy() {
+        return splitStrategy;
+    }
+
+    /**
+     * To get this.jointPointStrategy.
+     *
+     * @return this.jointPointStrategy
+     */
+    public JointPointStrategy getJointPointStrategy() {
+        return jointPointStrategy;
+    }
+
+    /**
+     * This class is to collect the settings of a
+     * {@code ConverterConfiguration}. The settings which are not set keep
+     * their default values.
+     */
+    public static class Builder {
+
+        /* the settings, see the fields of {@code ConverterConfiguration} */
+        private double newtonTolerance = DEFAULT_NEWTON_TOLERANCE;
+        private double epsilon = DEFAULT_EPSILON;
+        private int maxRecursionDepth = DEFAULT_MAX_RECURSION_DEPTH;
+        private int maxNewtonIterations = DEFAULT_MAX_NEWTON_ITERATIONS;
+        private ErrorMetric errorMetric = ErrorMetric.JOINT_POINT;
+        private int errorSamples = DEFAULT_ERROR_SAMPLES;
+        private SplitStrategy splitStrategy = SplitStrategy.AT_JOINT_PARAMETER;
+        private JointPointStrategy jointPointStrategy
+                = BuiltInJointPointStrategy.INCENTER;
+
+        /**
+         * To set this.newtonTolerance.
+         *
+         * @param newtonTolerance the new value
+         * @return this builder
+         */
+        public Builder setNewtonTolerance(double newtonTolerance) {
+
+            if (!(newtonTolerance > 0.0)) {
+                throw new IllegalArgumentException(
+                        "The Newton tolerance must be positive: " + newtonTolerance);
+            }
+
+            this.newtonTolerance = newtonTolerance;
+            return this;
+        }
+
+        /**
+         * To set this.epsilon.
+         *
+         * @param epsilon the new value
+         * @return this builder
+         */
+        public Builder setEpsilon(double epsilon) {
+
+            if (!(epsilon >= 0.0)) {
+                throw new IllegalArgumentException(
+                        "The epsilon must not be negative: " + epsilon);
+            }
+
+            this.epsilon = epsilon;
+            return this;
+        }
+
+        /**
+         * To set this.maxRecursionDepth. A span at this depth is not split
+         * any more, so its biarc is accepted even if it doesn't meet the
+         * allowable error. The conversion doesn't fail then; such biarcs are
+         * counted by {@link ConversionStatistics#getDepthLimitedBiarcCount()},
+         * and an anytime refinement stops with
+         * {@code RefinementResult.StopReason.DEPTH_LIMIT}.
+         *
+         * @param maxRecursionDepth the new value
+         * @return this builder
+         */
+        public Builder setMaxRecursionDepth(int maxRecursionDepth) {
+
+            if (maxRecursionDepth < 0) {
+                throw new IllegalArgumentException(
+                        "The max recursion depth must not be negative: "
+                                + maxRecursionDepth);
+            }
+
+            this.maxRecursionDepth = maxRecursionDepth;
+            return this;
+        }
+
+        /**
+         * To set this.maxNewtonIterations.
+         *
+         * @param maxNewtonIterations the new value
+         * @return this builder
+         */
+        public Builder setMaxNewtonIterations(int maxNewtonIterations) {
+
+            if (maxNewtonIterations < 0) {
+                throw new IllegalArgumentException(
+                        "The max number of Newton iterations must not be negative: "
+                                + maxNewtonIterations);
+            }
+
+            this.maxNewtonIterations = maxNewtonIterations;
+            return this;
+        }
+
+        /**
+         * To set this.errorMetric.
+         *
+         * @param errorMetric the new value
+         * @return this builder
+         */
+        public Builder setErrorMetric(ErrorMetric errorMetric) {
+
+            if (errorMetric == null) {
+                throw new IllegalArgumentException("The error metric is null");
+            }
+
+            this.errorMetric = errorMetric;
+            return this;
+        }
+
+        /**
+         * To set this.errorSamples.
+         *
+         * @param errorSamples the new value
+         * @return this builder
+         */
+        public Builder setErrorSamples(int errorSamples) {
+
+            if (errorSamples < 1) {
+                throw new IllegalArgumentException(
+                        "The number of error samples must be positive: "
+                                + errorSamples);
+            }
+
+            this.errorSamples = errorSamples;
+            return this;
+        }
+
+        /**
+         * To set this.splitStrategy.
+         *
+         * @param splitStrategy the new value
+         * @return this builder
+         */
+        public Builder setSplitStrategy(SplitStrategy splitStrategy) {
+
+            if (splitStrategy == null) {
+                throw new IllegalArgumentException("The split strategy is null");
+            }
+
+            this.splitStrategy = splitStrategy;
+            return this;
+        }
+
+        /**
+         * To set this.jointPointStrategy.
+         *
+         * @param jointPointStrategy the new value
+         * @return this builder
+         */
+        public Builder setJointPointStrategy(JointPointStrategy jointPointStrategy) {
+
+            if (jointPointStrategy == null) {
+                throw new IllegalArgumentException(
+                        "The joint point strategy is null");
+            }
+
+            this.jointPointStrategy = jointPointStrategy;
+            return this;
+        }
+
+        /**
+         * To create the configuration with the current settings.
+         *
+         * @return the configuration
+         */
+        public ConverterConfiguration build() {
+            return new ConverterConfiguration(this);
+        }
+    }
+}
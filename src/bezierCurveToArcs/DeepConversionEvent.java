@@ -0,0 +1,18 @@
+package bezierCurveToArcs;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * This event is emitted when the recursion depth of a conversion from a
+ * cubic Bezier curve to arcs reaches
+ * {@code BezierCurveToArcs.EVENT_DEPTH_THRESHOLD}, no matter how long the
+ * conversion lasts.
+ */
+@Name("bezierCurveToArcs.DeepConversion")
+@Label("Deep Bezier Curve Conversion")
+@Description("A conversion from a cubic Bezier curve to arcs of which the "
+        + "recursion depth reaches the threshold")
+class DeepConversionEvent extends AbstractConversionEvent {
+}
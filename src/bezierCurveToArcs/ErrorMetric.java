@@ -0,0 +1,22 @@
+package bezierCurveToArcs;
+
+/**
+ * The way to measure the error between a span of the Bezier curve and its
+ * fitted biarc.
+ */
+public enum ErrorMetric {
+
+    /**
+     * The distance between the joint point G of the biarc and the point on
+     * the Bezier curve which lies on the normal of the biarc through G. It
+     * needs no extra evaluation, but it may underestimate the error.
+     */
+    JOINT_POINT,
+
+    /**
+     * The max distance from the biarc to the joint point and to
+     * {@code errorSamples} - 1 evenly spaced points of the span. It is closer
+     * to the true max error and costs more.
+     */
+    SAMPLED_POINTS
+}
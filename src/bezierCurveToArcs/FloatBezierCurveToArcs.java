@@ -0,0 +1,158 @@
+package bezierCurveToArcs;
+
+import component.DoublePoint;
+import component.FloatArc;
+import component.FloatPoint;
+
+import java.util.ArrayList;
+
+/**
+ * This class contains methods to convert a cubic Bezier curve in single
+ * precision to a series of arcs which are stored in single precision. It is
+ * for screen-space and font work where single precision is enough and the
+ * fitted arcs take about half the memory. Only the storage is in single
+ * precision: the conversion itself runs in double precision by
+ * {@code BezierCurveToArcs} in one pass, and every fitted arc is rounded to a
+ * {@code FloatArc} as soon as it is fitted, without a list of arcs in double
+ * precision in between.
+ * <p>
+ * A float has a 24-bit significand, so rounding a value v moves it by at most
+ * |v| * 2^-24 (about 6e-8 * |v|). For an arc with the center C and the radius
+ * r, the rounded arc moves by at most
+ * 2^-24 * (1.5 * max(|Cx|, |Cy|) + (1 + 2 * pi) * r), see
+ * {@code calculateRoundingErrorBound}. The joint points are rounded from the
+ * same values in both arcs, so adjacent rounded arcs still meet exactly.
+ * <p>
+ * The curve is fitted with the allowable error less {@code ROUNDING_RESERVE}
+ * of it, which is reserved for the rounding, so the arcs differ from those in
+ * double precision. The rounded arcs lie within the allowable error as long
+ * as the bound of every arc is within the reserve, which holds when the
+ * allowable error is at least about 1e-6 times the magnitude of the
+ * coordinates and the radii. Nearly straight spans of a curve may produce
+ * arcs with very large radii, so check the bound when the curves have long
+ * straight parts.
+ */
+public class FloatBezierCurveToArcs {
+
+    /* the part of the allowable error which is reserved for rounding the
+       fitted arcs to single precision */
+    public static final double ROUNDING_RESERVE = 0.25;
+
+    /* the unit roundoff of single precision, i.e. 2^-24 */
+    private static final double FLOAT_UNIT_ROUNDOFF = Math.ulp(1.0f) / 2.0;
+
+    /**
+     * To convert a cubic Bezier curve to a series of arcs.
+     *
+     * @param A              the start point of the Bezier curve
+     * @param controlPointA  the first control point of the Bezier curve which
+     *                       is close to {@code A}
+     * @param controlPointB  the second control point of the Bezier curve which
+     *                       is close to {@code B}
+     * @param B              the end point of the Bezier curve
+     * @param allowableError the allowable error, which must be greater than
+     *                       the rounding error of the coordinates
+     * @param arcs           the fitted arcs
+     */
+    public static void convertACubicBezierCurveToArcs(
+            FloatPoint A, FloatPoint controlPointA, FloatPoint controlPointB,
+            FloatPoint B, float allowableError, ArrayList<FloatArc> arcs) {
+
+        convertACubicBezierCurveToArcs(A, controlPointA, controlPointB, B,
+                allowableError, arcs, new ConversionStatistics());
+    }
+
+    /**
+     * To convert a cubic Bezier curve to a series of arcs and collect the
+     * statistics of the conversion.
+     *
+     * @param A              the start point of the Bezier curve
+     * @param controlPointA  the first control point of the Bezier curve which
+     *                       is close to {@code A}
+     * @param controlPointB  the second control point of the Bezier curve which
+     *                       is close to {@code B}
+     * @param B              the end point of the Bezier curve
+     * @param allowableError the allowable error, which must be greater than
+     *                       the rounding error of the coordinates
+     * @param arcs           the fitted arcs
+     * @param statistics     the statistics which the counters of this
+     *                       conversion are added to
+     */
+    public static void convertACubicBezierCurveToArcs(
+            FloatPoint A, FloatPoint controlPointA, FloatPoint controlPointB,
+            FloatPoint B, float allowableError, ArrayList<FloatArc> arcs,
+            ConversionStatistics statistics) {
+
+        float magnitude = Math.max(
+                Math.max(maxAbsoluteCoordinate(A), maxAbsoluteCoordinate(B)),
+                Math.max(maxAbsoluteCoordinate(controlPointA),
+                        maxAbsoluteCoordinate(controlPointB)));
+
+        if (1.5 * magnitude * FLOAT_UNIT_ROUNDOFF
+                >= ROUNDING_RESERVE * allowableError) {
+            throw new IllegalArgumentException("The allowable error "
+                    + allowableError + " is below the single precision of "
+                    + "coordinates of magnitude " + magnitude);
+        }
+
+        if (!arcs.isEmpty()) {
+            arcs.clear();
+        }
+
+        BezierCurveToArcs.convertACubicBezierCurveToArcs(toDoublePoint(A),
+                toDoublePoint(controlPointA), toDoublePoint(controlPointB),
+                toDoublePoint(B), (1.0 - ROUNDING_RESERVE) * allowableError,
+                arc -> arcs.add(new FloatArc(arc)), statistics);
+    }
+
+    /**
+     * To calculate the upper bound of the distance which an arc moves when
+     * its center, radius, angles and end points are rounded to single
+     * precision.
+     *
+     * @param arc the arc in single precision
+     * @return the upper bound of the rounding error
+     */
+    public static double calculateRoundingErrorBound(FloatArc arc) {
+
+        return calculateRoundingErrorBound(Math.max(
+                Math.abs(arc.getCenterX()), Math.abs(arc.getCenterY())),
+                arc.getRadius());
+    }
+
+    /**
+     * To calculate the upper bound of the rounding error of an arc from the
+     * magnitude of its center and its radius.
+     *
+     * @param centerMagnitude the max absolute value of the coordinates of the
+     *                        center
+     * @param radius          the radius
+     * @return the upper bound of the rounding error
+     */
+    private static double calculateRoundingErrorBound(double centerMagnitude,
+                                                      double radius) {
+
+        return FLOAT_UNIT_ROUNDOFF * (1.5 * centerMagnitude
+                + (1.0 + 2.0 * Math.PI) * radius);
+    }
+
+    /**
+     * To get the max absolute value of the coordinates of a point.
+     *
+     * @param point the point
+     * @return the max absolute value of the coordinates
+     */
+    private static float maxAbsoluteCoordinate(FloatPoint point) {
+        return Math.max(Math.abs(point.getX()), Math.abs(point.getY()));
+    }
+
+    /**
+     * To convert a point in single precision to double precision.
+     *
+     * @param point the point in single precision
+     * @return the point in double precision
+     */
+    private static DoublePoint toDoublePoint(FloatPoint point) {
+        return new DoublePoint(point.getX(), point.getY());
+    }
+}
@@ -0,0 +1,39 @@
+package bezierCurveToArcs;
+
+/**
+ * The rule to place the joint point G of the biarc of a span of the Bezier
+ * curve. The built-in rules are in {@link BuiltInJointPointStrategy}, and
+ * {@link ConverterConfiguration.Builder#setJointPointStrategy} selects one.
+ * <p>
+ * The two arcs are tangent to A0V on A0 and to A1V on A1 wherever G is, but
+ * they are only tangent to each other on G if G lies on the joint circle,
+ * which passes through A0, A1 and the incenter of the triangle A0VA1.
+ * <p>
+ * A strategy is called by every fit of every conversion, so it should be
+ * stateless and allocate nothing.
+ */
+public interface JointPointStrategy {
+
+    /**
+     * To find the joint point of the biarc of a span.
+     *
+     * @param curve      the coordinates of the start point, the first control
+     *                   point, the second control point and the end point of
+     *                   the Bezier curve
+     * @param startT     the start t value of the span
+     * @param endT       the end t value of the span
+     * @param a0x        the x coordinate of the start point A0 of the span
+     * @param a0y        the y coordinate of the start point A0 of the span
+     * @param vx         the x coordinate of the intersection V of the tangent
+     *                   lines on A0 and A1
+     * @param vy         the y coordinate of the intersection V of the tangent
+     *                   lines on A0 and A1
+     * @param a1x        the x coordinate of the end point A1 of the span
+     * @param a1y        the y coordinate of the end point A1 of the span
+     * @param jointPoint the array which the x and y coordinates of the joint
+     *                   point are written to
+     */
+    void findJointPoint(double[] curve, double startT, double endT,
+                        double a0x, double a0y, double vx, double vy,
+                        double a1x, double a1y, double[] jointPoint);
+}
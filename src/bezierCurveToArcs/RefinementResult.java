@@ -0,0 +1,79 @@
+package bezierCurveToArcs;
+
+/**
+ * This class is to store the outcome of an anytime refinement, see
+ * {@link ConversionContext#refineACubicBezierCurveToArcs}.
+ */
+public class RefinementResult {
+
+    /**
+     * The reason why a refinement stops.
+     */
+    public enum StopReason {
+
+        /* every span meets the allowable error */
+        TOLERANCE,
+
+        /* the time budget is used up */
+        DEADLINE,
+
+        /* another split would exceed the max number of arcs */
+        ARC_BUDGET,
+
+        /* the spans which don't meet the allowable error reach the max
+           recursion depth */
+        DEPTH_LIMIT
+    }
+
+    /* the max error of the spans of the result, by the error metric */
+    private final double reachedError;
+
+    /* the number of the fitted arcs */
+    private final int arcCount;
+
+    /* the reason why the refinement stopped */
+    private final StopReason stopReason;
+
+    /**
+     * Constructor
+     *
+     * @param reachedError the max error of the spans of the result
+     * @param arcCount     the number of the fitted arcs
+     * @param stopReason   the reason why the refinement stopped
+     */
+    public RefinementResult(double reachedError, int arcCount,
+                            StopReason stopReason) {
+
+        this.reachedError = reachedError;
+        this.arcCount = arcCount;
+        this.stopReason = stopReason;
+    }
+
+    /**
+     * To get this.reachedError.
+     *
+     * @return this.reachedError
+     */
+    public double getReachedError() {
+        return reachedError;
+    }
+
+    /**
+     * To get this.arcCount.
+     *
+     * @return this.arcCount
+     */
+    public int getArcCount() {
+        return arcCount;
+    }
+
+    /**
+     * To get this.stopReason.
+     *
+     * @return this.stopReason
+     */
+    public StopReason getStopReason() {
+        return stopReason;
+    }
+
+}
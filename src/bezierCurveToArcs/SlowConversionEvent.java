@@ -0,0 +1,20 @@
+package bezierCurveToArcs;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * This event is emitted when a conversion from a cubic Bezier curve to arcs
+ * lasts longer than the threshold. The default threshold is 10 ms, and it can
+ * be changed in the recording settings like other Java Flight Recorder
+ * events, e.g. "bezierCurveToArcs.SlowConversion#threshold=1 ms".
+ */
+@Name("bezierCurveToArcs.SlowConversion")
+@Label("Slow Bezier Curve Conversion")
+@Description("A conversion from a cubic Bezier curve to arcs which lasts "
+        + "longer than the threshold")
+@Threshold("10 ms")
+class SlowConversionEvent extends AbstractConversionEvent {
+}
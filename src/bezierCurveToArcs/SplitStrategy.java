@@ -0,0 +1,19 @@
+package bezierCurveToArcs;
+
+/**
+ * The way to choose the t value at which a span of the Bezier curve is split
+ * when its biarc doesn't meet the allowable error.
+ */
+public enum SplitStrategy {
+
+    /**
+     * Split at the t value of the point on the Bezier curve which matches the
+     * joint point of the biarc.
+     */
+    AT_JOINT_PARAMETER,
+
+    /**
+     * Split at the middle of the t range of the span.
+     */
+    AT_MIDDLE_PARAMETER
+}
@@ -0,0 +1,32 @@
+package bezierCurveToArcs;
+
+/**
+ * The rule to choose the allowable error of every curve of a batch, instead of
+ * one absolute allowable error for all of them. A policy is called once per
+ * curve, so it should be stateless and allocate nothing.
+ *
+ * @see transform.DeviceTolerancePolicy
+ */
+public interface TolerancePolicy {
+
+    /**
+     * To calculate the allowable error of a curve.
+     *
+     * @param coordinates the array which holds the coordinates of the start
+     *                    point, the first control point, the second control
+     *                    point and the end point in this order
+     * @param offset      the index of the x coordinate of the start point
+     * @return the allowable error of the curve, which is positive
+     */
+    double calculateAllowableError(double[] coordinates, int offset);
+
+    /**
+     * To create a policy which gives the same allowable error to every curve.
+     *
+     * @param allowableError the allowable error
+     * @return the policy
+     */
+    static TolerancePolicy constant(double allowableError) {
+        return (coordinates, offset) -> allowableError;
+    }
+}
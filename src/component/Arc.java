@@ -4,30 +4,51 @@ package component;
  * This class is to store an arc object. There are 5 properties to determine an
  * arc: center, radius, start angle, end angle and direction.
  * <p>
+ * The coordinates of the start point and the end point are also kept, so
+ * consumers of the arc don't need to recompute them with trigonometric
+ * functions. When the end points are given by the caller, as
+ * {@code BezierCurveToArcs} does, adjacent arcs have exactly the same joint
+ * coordinates. The signed sweep angle and the bounding box are calculated
+ * when they are asked for, which keeps the object small. An object of this
+ * class is immutable.
+ * <p>
  * Note that the start angle lies in the range [-pi, pi], and the end angle
  * lies in the range [start angle - pi, start angle + pi].
  */
 public class Arc {
 
     /* the center of the circle which the arc is on */
-    private DoublePoint center;
+    private final DoublePoint center;
 
     /* the radius of the circle which the arc is on */
-    private double radius;
+    private final double radius;
 
     /* the start angle of the arc which lies in the range [-pi, pi] */
-    private double startAngle;
+    private final double startAngle;
 
     /* the end angle of the arc which lies in the range
        [{@code startAngle} - pi, {@code startAngle} + pi] */
-    private double endAngle;
+    private final double endAngle;
 
     /* a variable to determine the direction of the arc.
        True for clockwise and false for anti-clockwise */
-    private boolean clockwiseFlag;
+    private final boolean clockwiseFlag;
+
+    /* the x coordinate of the start point of the arc */
+    private final double startX;
+
+    /* the y coordinate of the start point of the arc */
+    private final double startY;
+
+    /* the x coordinate of the end point of the arc */
+    private final double endX;
+
+    /* the y coordinate of the end point of the arc */
+    private final double endY;
 
     /**
-     * Constructor
+     * Constructor. The start point and the end point are calculated from the
+     * center, the radius and the angles.
      *
      * @param center        the center of the circle which the arc is on
      * @param radius        the radius of the circle which the arc is on
@@ -41,11 +62,87 @@ public class Arc {
     public Arc(DoublePoint center, double radius,
                double startAngle, double endAngle, boolean clockwiseFlag) {
 
+        this(center, radius, startAngle, endAngle, clockwiseFlag,
+                center.getX() + radius * Math.cos(startAngle),
+                center.getY() + radius * Math.sin(startAngle),
+                center.getX() + radius * Math.cos(endAngle),
+                center.getY() + radius * Math.sin(endAngle));
+    }
+
+    /**
+     * Constructor
+     *
+     * @param center        the center of the circle which the arc is on
+     * @param radius        the radius of the circle which the arc is on
+     * @param startAngle    the start angle of the arc which lies in the range
+     *                      [-pi, pi]
+     * @param endAngle      the end angle of the arc which lies in the range
+     *                      [{@code startAngle} - pi, {@code startAngle} + pi]
+     * @param clockwiseFlag the direction of the arc.
+     *                      True for clockwise and false for anti-clockwise
+     * @param startPoint    the start point of the arc
+     * @param endPoint      the end point of the arc
+     */
+    public Arc(DoublePoint center, double radius,
+               double startAngle, double endAngle, boolean clockwiseFlag,
+               DoublePoint startPoint, DoublePoint endPoint) {
+
+        this(center, radius, startAngle, endAngle, clockwiseFlag,
+                startPoint.getX(), startPoint.getY(),
+                endPoint.getX(), endPoint.getY());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param center        the center of the circle which the arc is on
+     * @param radius        the radius of the circle which the arc is on
+     * @param startAngle    the start angle of the arc which lies in the range
+     *                      [-pi, pi]
+     * @param endAngle      the end angle of the arc which lies in the range
+     *                      [{@code startAngle} - pi, {@code startAngle} + pi]
+     * @param clockwiseFlag the direction of the arc.
+     *                      True for clockwise and false for anti-clockwise
+     * @param startX        the x coordinate of the start point of the arc
+     * @param startY        the y coordinate of the start point of the arc
+     * @param endX          the x coordinate of the end point of the arc
+     * @param endY          the y coordinate of the end point of the arc
+     */
+    public Arc(DoublePoint center, double radius,
+               double startAngle, double endAngle, boolean clockwiseFlag,
+               double startX, double startY, double endX, double endY) {
+
         this.center = center;
         this.radius = radius;
         this.startAngle = startAngle;
         this.endAngle = endAngle;
         this.clockwiseFlag = clockwiseFlag;
+        this.startX = startX;
+        this.startY = startY;
+        this.endX = endX;
+        this.endY = endY;
+    }
+
+    /**
+     * To judge if the sweep of the arc contains {@code angle} or
+     * {@code angle} plus a multiple of 2 * pi.
+     *
+     * @param angle the angle
+     * @return true for contained and false for not
+     */
+    private boolean containsAngle(double angle) {
+
+        double lowerAngle = Math.min(startAngle, endAngle);
+        double upperAngle = Math.max(startAngle, endAngle);
+
+        while (angle < lowerAngle) {
+            angle += 2.0 * Math.PI;
+        }
+        while (angle - 2.0 * Math.PI >= lowerAngle) {
+            angle -= 2.0 * Math.PI;
+        }
+
+        return angle <= upperAngle;
     }
 
     /**
@@ -92,4 +189,123 @@ public class Arc {
     public boolean getClockwiseFlag() {
         return clockwiseFlag;
     }
+
+    /**
+     * To get the start point. A new {@code DoublePoint} object is created for
+     * every call, so use {@code getStartX} and {@code getStartY} in loops.
+     *
+     * @return the start point
+     */
+    public DoublePoint getStartPoint() {
+        return new DoublePoint(startX, startY);
+    }
+
+    /**
+     * To get the end point. A new {@code DoublePoint} object is created for
+     * every call, so use {@code getEndX} and {@code getEndY} in loops.
+     *
+     * @return the end point
+     */
+    public DoublePoint getEndPoint() {
+        return new DoublePoint(endX, endY);
+    }
+
+    /**
+     * To get this.startX.
+     *
+     * @return this.startX
+     */
+    public double getStartX() {
+        return startX;
+    }
+
+    /**
+     * To get this.startY.
+     *
+     * @return this.startY
+     */
+    public double getStartY() {
+        return startY;
+    }
+
+    /**
+     * To get this.endX.
+     *
+     * @return this.endX
+     */
+    public double getEndX() {
+        return endX;
+    }
+
+    /**
+     * To get this.endY.
+     *
+     * @return this.endY
+     */
+    public double getEndY() {
+        return endY;
+    }
+
+    /**
+     * To get the signed sweep angle, i.e. {@code endAngle} -
+     * {@code startAngle}. It is negative for clockwise arcs.
+     *
+     * @return the signed sweep angle
+     */
+    public double getSweepAngle() {
+        return endAngle - startAngle;
+    }
+
+    /**
+     * To get the length of the arc.
+     *
+     * @return the length of the arc
+     */
+    public double getLength() {
+        return radius * Math.abs(endAngle - startAngle);
+    }
+
+    /**
+     * To get the min x coordinate of the bounding box, which is that of the
+     * end points unless the sweep contains the angle pi.
+     *
+     * @return the min x coordinate of the bounding box
+     */
+    public double getMinX() {
+        return containsAngle(Math.PI)
+                ? center.getX() - radius : Math.min(startX, endX);
+    }
+
+    /**
+     * To get the min y coordinate of the bounding box, which is that of the
+     * end points unless the sweep contains the angle -pi / 2.
+     *
+     * @return the min y coordinate of the bounding box
+     */
+    public double getMinY() {
+        return containsAngle(-Math.PI / 2.0)
+                ? center.getY() - radius : Math.min(startY, endY);
+    }
+
+    /**
+     * To get the max x coordinate of the bounding box, which is that of the
+     * end points unless the sweep contains the angle 0.
+     *
+     * @return the max x coordinate of the bounding box
+     */
+    public double getMaxX() {
+        return containsAngle(0.0)
+                ? center.getX() + radius : Math.max(startX, endX);
+    }
+
+    /**
+     * To get the max y coordinate of the bounding box, which is that of the
+     * end points unless the sweep contains the angle pi / 2.
+     *
+     * @return the max y coordinate of the bounding box
+     */
+    public double getMaxY() {
+        return containsAngle(Math.PI / 2.0)
+                ? center.getY() + radius : Math.max(startY, endY);
+    }
 }
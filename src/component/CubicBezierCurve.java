@@ -0,0 +1,76 @@
+package component;
+
+/**
+ * This class is to store a cubic Bezier curve. There are 4 properties to
+ * determine a cubic Bezier curve: the start point, the first control point,
+ * the second control point and the end point.
+ */
+public class CubicBezierCurve {
+
+    /* the start point of the Bezier curve */
+    private final DoublePoint A;
+
+    /* the first control point which is close to the start point */
+    private final DoublePoint controlPointA;
+
+    /* the second control point which is close to the end point */
+    private final DoublePoint controlPointB;
+
+    /* the end point of the Bezier curve */
+    private final DoublePoint B;
+
+    /**
+     * Constructor
+     *
+     * @param A             the start point of the Bezier curve
+     * @param controlPointA the first control point which is close to the
+     *                      start point
+     * @param controlPointB the second control point which is close to the end
+     *                      point
+     * @param B             the end point of the Bezier curve
+     */
+    public CubicBezierCurve(DoublePoint A, DoublePoint controlPointA,
+                            DoublePoint controlPointB, DoublePoint B) {
+
+        this.A = A;
+        this.controlPointA = controlPointA;
+        this.controlPointB = controlPointB;
+        this.B = B;
+    }
+
+    /**
+     * To get this.A.
+     *
+     * @return this.A
+     */
+    public DoublePoint getA() {
+        return A;
+    }
+
+    /**
+     * To get this.controlPointA.
+     *
+     * @return this.controlPointA
+     */
+    public DoublePoint getControlPointA() {
+        return controlPointA;
+    }
+
+    /**
+     * To get this.controlPointB.
+     *
+     * @return this.controlPointB
+     */
+    public DoublePoint getControlPointB() {
+        return controlPointB;
+    }
+
+    /**
+     * To get this.B.
+     *
+     * @return this.B
+     */
+    public DoublePoint getB() {
+        return B;
+    }
+}
@@ -7,10 +7,10 @@ package component;
 public class DoublePoint {
 
     /* the x coordinate of the point */
-    private double x;
+    private final double x;
 
     /* the y coordinate of the point */
-    private double y;
+    private final double y;
 
     /**
      * Constructor
@@ -0,0 +1,197 @@
+package component;
+
+/**
+ * This class is to store an arc object in single precision. There are 5
+ * properties to determine an arc: center, radius, start angle, end angle and
+ * direction.
+ * <p>
+ * The coordinates of the center, the start point and the end point are
+ * stored inline, so an object of this class takes about half the memory of an
+ * {@code Arc} object. The end points are rounded from those of the arc in
+ * double precision, so adjacent arcs which share a joint point in double
+ * precision share exactly the same rounded joint point.
+ * <p>
+ * Note that the start angle lies in the range [-pi, pi], and the end angle
+ * lies in the range [start angle - pi, start angle + pi].
+ */
+public class FloatArc {
+
+    /* the x coordinate of the center of the circle which the arc is on */
+    private final float centerX;
+
+    /* the y coordinate of the center of the circle which the arc is on */
+    private final float centerY;
+
+    /* the radius of the circle which the arc is on */
+    private final float radius;
+
+    /* the start angle of the arc which lies in the range [-pi, pi] */
+    private final float startAngle;
+
+    /* the end angle of the arc which lies in the range
+       [{@code startAngle} - pi, {@code startAngle} + pi] */
+    private final float endAngle;
+
+    /* a variable to determine the direction of the arc.
+       True for clockwise and false for anti-clockwise */
+    private final boolean clockwiseFlag;
+
+    /* the x coordinate of the start point of the arc */
+    private final float startX;
+
+    /* the y coordinate of the start point of the arc */
+    private final float startY;
+
+    /* the x coordinate of the end point of the arc */
+    private final float endX;
+
+    /* the y coordinate of the end point of the arc */
+    private final float endY;
+
+    /**
+     * Constructor. The start point and the end point are calculated from the
+     * center, the radius and the angles.
+     *
+     * @param center        the center of the circle which the arc is on
+     * @param radius        the radius of the circle which the arc is on
+     * @param startAngle    the start angle of the arc which lies in the range
+     *                      [-pi, pi]
+     * @param endAngle      the end angle of the arc which lies in the range
+     *                      [{@code startAngle} - pi, {@code startAngle} + pi]
+     * @param clockwiseFlag the direction of the arc.
+     *                      True for clockwise and false for anti-clockwise
+     */
+    public FloatArc(FloatPoint center, float radius,
+                    float startAngle, float endAngle, boolean clockwiseFlag) {
+
+        this.centerX = center.getX();
+        this.centerY = center.getY();
+        this.radius = radius;
+        this.startAngle = startAngle;
+        this.endAngle = endAngle;
+        this.clockwiseFlag = clockwiseFlag;
+        this.startX = (float) (centerX + radius * Math.cos(startAngle));
+        this.startY = (float) (centerY + radius * Math.sin(startAngle));
+        this.endX = (float) (centerX + radius * Math.cos(endAngle));
+        this.endY = (float) (centerY + radius * Math.sin(endAngle));
+    }
+
+    /**
+     * Constructor which rounds an {@code Arc} object to single precision.
+     *
+     * @param arc the arc in double precision
+     */
+    public FloatArc(Arc arc) {
+
+        this.centerX = (float) arc.getCenter().getX();
+        this.centerY = (float) arc.getCenter().getY();
+        this.radius = (float) arc.getRadius();
+        this.startAngle = (float) arc.getStartAngle();
+        this.endAngle = (float) arc.getEndAngle();
+        this.clockwiseFlag = arc.getClockwiseFlag();
+        this.startX = (float) arc.getStartX();
+        this.startY = (float) arc.getStartY();
+        this.endX = (float) arc.getEndX();
+        this.endY = (float) arc.getEndY();
+    }
+
+    /**
+     * To get this.endAngle.
+     *
+     * @return this.endAngle
+     */
+    public float getEndAngle() {
+        return endAngle;
+    }
+
+    /**
+     * To get this.radius.
+     *
+     * @return this.radius
+     */
+    public float getRadius() {
+        return radius;
+    }
+
+    /**
+     * To get this.startAngle.
+     *
+     * @return this.startAngle
+     */
+    public float getStartAngle() {
+        return startAngle;
+    }
+
+    /**
+     * To get the center. A new {@code FloatPoint} object is created for every
+     * call, so use {@code getCenterX} and {@code getCenterY} in loops.
+     *
+     * @return the center
+     */
+    public FloatPoint getCenter() {
+        return new FloatPoint(centerX, centerY);
+    }
+
+    /**
+     * To get this.centerX.
+     *
+     * @return this.centerX
+     */
+    public float getCenterX() {
+        return centerX;
+    }
+
+    /**
+     * To get this.centerY.
+     *
+     * @return this.centerY
+     */
+    public float getCenterY() {
+        return centerY;
+    }
+
+    /**
+     * To get this.clockwiseFlag.
+     *
+     * @return this.clockwiseFlag
+     */
+    public boolean getClockwiseFlag() {
+        return clockwiseFlag;
+    }
+
+    /**
+     * To get this.startX.
+     *
+     * @return this.startX
+     */
+    public float getStartX() {
+        return startX;
+    }
+
+    /**
+     * To get this.startY.
+     *
+     * @return this.startY
+     */
+    public float getStartY() {
+        return startY;
+    }
+
+    /**
+     * To get this.endX.
+     *
+     * @return this.endX
+     */
+    public float getEndX() {
+        return endX;
+    }
+
+    /**
+     * To get this.endY.
+     *
+     * @return this.endY
+     */
+    public float getEndY() {
+        return endY;
+    }
+}
@@ -0,0 +1,44 @@
+package component;
+
+/**
+ * This class is to store a two-dimension point in single precision. There
+ * are two dimensions: x and y.
+ */
+public class FloatPoint {
+
+    /* the x coordinate of the point */
+    private final float x;
+
+    /* the y coordinate of the point */
+    private final float y;
+
+    /**
+     * Constructor
+     *
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     */
+    public FloatPoint(float x, float y) {
+
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * To get this.x.
+     *
+     * @return this.x
+     */
+    public float getX() {
+        return x;
+    }
+
+    /**
+     * To get this.y.
+     *
+     * @return this.y
+     */
+    public float getY() {
+        return y;
+    }
+}
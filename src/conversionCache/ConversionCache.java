@@ -0,0 +1,678 @@
+package conversionCache;
+
+import bezierCurveToArcs.ConversionStatistics;
+import bezierCurveToArcs.ConverterConfiguration;
+import component.Arc;
+import component.DoublePoint;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * This class is a persistent cache of the arcs of converted curves, kept in
+ * memory-mapped segment files in a directory, so that repeated runs skip the
+ * conversion of unchanged curves.
+ * <p>
+ * An entry is keyed by a hash of the control points, the allowable error and
+ * a fingerprint of the settings of the {@link ConverterConfiguration} and of
+ * {@code ALGORITHM_VERSION}. The full key is stored in the entry and compared
+ * on every hit, so a hash collision is a miss and not a wrong result.
+ * <p>
+ * The segments are appended to, and when a new segment would make the cache
+ * larger than its max size, the oldest segments are deleted with their
+ * entries. The index of the entries is kept in memory and rebuilt by scanning
+ * the segments when the cache is opened.
+ * <p>
+ * Many processes can read a cache directory, but only one of them writes: the
+ * first one which opens it as a writer holds the lock file, and the others
+ * become readers. An entry is written before its length, which is written
+ * last, so a reader never sees a partly written entry; it sees the entries
+ * written after it opened the cache when it calls {@link #refresh()}. A
+ * {@code ConversionCache} object can be shared by the threads of a process.
+ */
+public class ConversionCache implements Closeable {
+
+    /* the version of the conversion algorithm, which must be increased when a
+       change of the converter changes its results, so the entries of the
+       older version are not found any more */
+    public static final int ALGORITHM_VERSION = 1;
+
+    /* the default max size of the segment files of a cache */
+    public static final long DEFAULT_MAX_SIZE = 1L << 30;
+
+    /* the max size of a segment file */
+    private static final int MAX_SEGMENT_SIZE = 16 << 20;
+
+    /* the min size of a segment file */
+    private static final int MIN_SEGMENT_SIZE = 64 << 10;
+
+    /* the first int of a segment file */
+    private static final int MAGIC = 0x41524343;
+
+    /* the bytes before the first entry of a segment: the magic number and
+       the algorithm version */
+    private static final int SEGMENT_HEADER_SIZE = 8;
+
+    /* the bytes before the arcs of an entry: the length, the number of arcs,
+       the hash, the fingerprint, the 8 coordinates of the curve, the
+       allowable error and the start point of the first arc */
+    private static final int ENTRY_HEADER_SIZE = 112;
+
+    /* the bytes of an arc in an entry: the center x and y, the radius, the
+       start angle, the end angle, 1 for clockwise or 0 for anti-clockwise,
+       and the end point x and y */
+    private static final int ARC_SIZE = 64;
+
+    /* the directory of the segment files */
+    private final Path directory;
+
+    /* the settings of the conversions */
+    private final ConverterConfiguration configuration;
+
+    /* the fingerprint of the settings and the algorithm version */
+    private final long fingerprint;
+
+    /* the max size of all the segment files */
+    private final long maxSize;
+
+    /* the size of a segment file */
+    private final int segmentSize;
+
+    /* the channel and the lock of the lock file if this is the writer */
+    private FileChannel lockChannel;
+    private FileLock lock;
+
+    /* the location of the entry of each hash: the segment id in the upper 32
+       bits and the offset in the lower 32 bits */
+    private final ConcurrentHashMap<Long, Long> index = new ConcurrentHashMap<>();
+
+    /* the mapped segments by their ids */
+    private final ConcurrentHashMap<Integer, Segment> segments
+            = new ConcurrentHashMap<>();
+
+    /* the segment which is appended to, and the offset of its next entry */
+    private Segment currentSegment;
+    private int writeOffset;
+
+    /* the numbers of the lookups which found or missed an entry */
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * Constructor
+     *
+     * @param directory     the directory of the segment files, which is
+     *                      created if it doesn't exist
+     * @param configuration the settings of the conversions
+     * @param maxSize       the max size of all the segment files
+     * @param writerFlag    true to write to the cache if no other process does,
+     *                      or false to read only
+     * @throws IOException when the directory or the segments can't be read
+     */
+    public ConversionCache(Path directory, ConverterConfiguration configuration,
+                           long maxSize, boolean writerFlag) throws IOException {
+
+        this.directory = directory;
+        this.configuration = configuration;
+        this.fingerprint = calculateFingerprint(configuration);
+        this.maxSize = maxSize;
+        this.segmentSize = (int) Math.max(MIN_SEGMENT_SIZE,
+                Math.min(MAX_SEGMENT_SIZE, maxSize / 4));
+
+        Files.createDirectories(directory);
+
+        if (writerFlag) {
+            lockChannel = FileChannel.open(directory.resolve("writer.lock"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            try {
+                lock = lockChannel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                /* held by another cache of this process */
+                lock = null;
+            }
+            if (lock == null) {
+                lockChannel.close();
+                lockChannel = null;
+            }
+        }
+
+        refresh();
+
+        if (lock != null) {
+            int lastId = segments.keySet().stream()
+                    .mapToInt(Integer::intValue).max().orElse(-1);
+            if (lastId >= 0) {
+                currentSegment = segments.get(lastId);
+                writeOffset = currentSegment.scannedOffset;
+            }
+        }
+    }
+
+    /**
+     * To convert a cubic Bezier curve to a series of arcs, or to read them
+     * from the cache if the curve has been converted with the same allowable
+     * error and settings. The arcs of a conversion are stored if this is the
+     * writer.
+     *
+     * @param A              the start point of the Bezier curve
+     * @param controlPointA  the first control point of the Bezier curve which
+     *                       is close to {@code A}
+     * @param controlPointB  the second control point of the Bezier curve which
+     *                       is close to {@code B}
+     * @param B              the end point of the Bezier curve
+     * @param allowableError the allowable error
+     * @param arcs           the fitted arcs
+     * @param statistics     the statistics which the counters of a conversion
+     *                       are added to. A cached curve adds the curve and
+     *                       its arcs, without Newton iterations and depth
+     * @throws IOException when a new segment can't be created
+     */
+    public void convertACubicBezierCurveToArcs(
+            DoublePoint A, DoublePoint controlPointA, DoublePoint controlPointB,
+            DoublePoint B, double allowableError, ArrayList<Arc> arcs,
+            ConversionStatistics statistics) throws IOException {
+
+        if (lookup(A, controlPointA, controlPointB, B, allowableError, arcs)) {
+            statistics.add(new ConversionStatistics(1, arcs.size(), 0, 0));
+            return;
+        }
+
+        configuration.currentThreadContext().convertACubicBezierCurveToArcs(
+                A, controlPointA, controlPointB, B, allowableError, arcs,
+                statistics);
+
+        if (isWriter()) {
+            store(A, controlPointA, controlPointB, B, allowableError, arcs);
+        }
+    }
+
+    /**
+     * To read the arcs of a curve from the cache.
+     *
+     * @param A              the start point of the Bezier curve
+     * @param controlPointA  the first control point of the Bezier curve
+     * @param controlPointB  the second control point of the Bezier curve
+     * @param B              the end point of the Bezier curve
+     * @param allowableError the allowable error
+     * @param arcs           the cached arcs, whose joint points are exactly
+     *                       the same
+     * @return true if the curve is found, or false if not
+     */
+    public boolean lookup(DoublePoint A, DoublePoint controlPointA,
+                          DoublePoint controlPointB, DoublePoint B,
+                          double allowableError, ArrayList<Arc> arcs) {
+
+        if (!arcs.isEmpty()) {
+            arcs.clear();
+        }
+
+        long hash = calculateHash(A, controlPointA, controlPointB, B,
+                allowableError);
+
+        Long location = index.get(hash);
+        Segment segment = location == null
+                ? null : segments.get((int) (location >>> 32));
+        if (segment == null) {
+            missCount.incrementAndGet();
+            return false;
+        }
+
+        MappedByteBuffer buffer = segment.buffer;
+        int offset = (int) (long) location;
+
+        if (buffer.getLong(offset + 16) != fingerprint
+                || !matches(buffer, offset + 24, A)
+                || !matches(buffer, offset + 40, controlPointA)
+                || !matches(buffer, offset + 56, controlPointB)
+                || !matches(buffer, offset + 72, B)
+                || Double.doubleToLongBits(buffer.getDouble(offset + 88))
+                != Double.doubleToLongBits(allowableError)) {
+            missCount.incrementAndGet();
+            return false;
+        }
+
+        int arcCount = buffer.getInt(offset + 4);
+        double startX = buffer.getDouble(offset + 96);
+        double startY = buffer.getDouble(offset + 104);
+
+        int arcOffset = offset + ENTRY_HEADER_SIZE;
+        for (int i = 0; i < arcCount; i++) {
+
+            double endX = buffer.getDouble(arcOffset + 48);
+            double endY = buffer.getDouble(arcOffset + 56);
+
+            arcs.add(new Arc(
+                    new DoublePoint(buffer.getDouble(arcOffset),
+                            buffer.getDouble(arcOffset + 8)),
+                    buffer.getDouble(arcOffset + 16),
+                    buffer.getDouble(arcOffset + 24),
+                    buffer.getDouble(arcOffset + 32),
+                    buffer.getDouble(arcOffset + 40) != 0.0,
+                    startX, startY, endX, endY));
+
+            startX = endX;
+            startY = endY;
+            arcOffset += ARC_SIZE;
+        }
+
+        hitCount.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * To store the arcs of a curve. The arcs must form a chain. A series of
+     * arcs which doesn't fit in a segment is not stored.
+     *
+     * @param A              the start point of the Bezier curve
+     * @param controlPointA  the first control point of the Bezier curve
+     * @param controlPointB  the second control point of the Bezier curve
+     * @param B              the end point of the Bezier curve
+     * @param allowableError the allowable error
+     * @param arcs           the fitted arcs
+     * @throws IOException when a new segment can't be created
+     * @throws IllegalStateException when this isn't the writer
+     */
+    public synchronized void store(DoublePoint A, DoublePoint controlPointA,
+                                   DoublePoint controlPointB, DoublePoint B,
+                                   double allowableError, List<Arc> arcs)
+            throws IOException {
+
+        if (!isWriter()) {
+            throw new IllegalStateException("The cache is opened for reading only");
+        }
+
+        long entrySize = ENTRY_HEADER_SIZE + (long) ARC_SIZE * arcs.size();
+        if (arcs.isEmpty()
+                || entrySize > segmentSize - SEGMENT_HEADER_SIZE) {
+            return;
+        }
+
+        /* a reopened segment may have been created with another size */
+        if (currentSegment == null
+                || writeOffset + entrySize > currentSegment.buffer.capacity()) {
+            createSegment();
+        }
+
+        MappedByteBuffer buffer = currentSegment.buffer;
+        int offset = writeOffset;
+
+        long hash = calculateHash(A, controlPointA, controlPointB, B,
+                allowableError);
+
+        buffer.putInt(offset + 4, arcs.size());
+        buffer.putLong(offset + 8, hash);
+        buffer.putLong(offset + 16, fingerprint);
+        putPoint(buffer, offset + 24, A);
+        putPoint(buffer, offset + 40, controlPointA);
+        putPoint(buffer, offset + 56, controlPointB);
+        putPoint(buffer, offset + 72, B);
+        buffer.putDouble(offset + 88, allowableError);
+        buffer.putDouble(offset + 96, arcs.get(0).getStartX());
+        buffer.putDouble(offset + 104, arcs.get(0).getStartY());
+
+        int arcOffset = offset + ENTRY_HEADER_SIZE;
+        for (Arc arc : arcs) {
+            putPoint(buffer, arcOffset, arc.getCenter());
+            buffer.putDouble(arcOffset + 16, arc.getRadius());
+            buffer.putDouble(arcOffset + 24, arc.getStartAngle());
+            buffer.putDouble(arcOffset + 32, arc.getEndAngle());
+            buffer.putDouble(arcOffset + 40, arc.getClockwiseFlag() ? 1.0 : 0.0);
+            buffer.putDouble(arcOffset + 48, arc.getEndX());
+            buffer.putDouble(arcOffset + 56, arc.getEndY());
+            arcOffset += ARC_SIZE;
+        }
+
+        /* A writer which stopped in the middle of an entry leaves its bytes
+           behind, so the length of the next entry is cleared first. Then the
+           length publishes the entry to the readers of other processes */
+        if (offset + entrySize + 4 <= buffer.capacity()) {
+            buffer.putInt(offset + (int) entrySize, 0);
+        }
+        VarHandle.releaseFence();
+        buffer.putInt(offset, (int) entrySize);
+
+        writeOffset += (int) entrySize;
+        currentSegment.scannedOffset = writeOffset;
+        index.put(hash, ((long) currentSegment.id << 32) | offset);
+    }
+
+    /**
+     * To find the segments and the entries which other processes have written
+     * since the last refresh, and to drop the segments which have been
+     * deleted.
+     *
+     * @throws IOException when the directory or a segment can't be read
+     */
+    public synchronized void refresh() throws IOException {
+
+        TreeMap<Integer, Path> files = new TreeMap<>();
+        try (Stream<Path> list = Files.list(directory)) {
+            list.forEach(file -> {
+                String name = file.getFileName().toString();
+                if (name.startsWith("segment-") && name.endsWith(".dat")) {
+                    files.put(Integer.parseInt(name.substring(8, name.length() - 4)),
+                            file);
+                }
+            });
+        }
+
+        for (Integer id : new ArrayList<>(segments.keySet())) {
+            if (!files.containsKey(id)) {
+                dropSegment(id);
+            }
+        }
+
+        for (Map.Entry<Integer, Path> file : files.entrySet()) {
+
+            Segment segment = segments.get(file.getKey());
+            if (segment == null) {
+                segment = mapSegment(file.getKey(), file.getValue());
+                if (segment == null) {
+                    continue;
+                }
+                segments.put(segment.id, segment);
+            }
+
+            scanSegment(segment);
+        }
+    }
+
+    /**
+     * To judge if this cache writes entries.
+     *
+     * @return true for the writer and false for a reader
+     */
+    public boolean isWriter() {
+        return lock != null;
+    }
+
+    /**
+     * To get the number of the lookups which found an entry.
+     *
+     * @return the number of hits
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * To get the number of the lookups which found no entry.
+     *
+     * @return the number of misses
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * To release the lock of the writer. The mapped segments are released by
+     * the garbage collector.
+     *
+     * @throws IOException when the lock file can't be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+
+        index.clear();
+        segments.clear();
+        currentSegment = null;
+
+        if (lock != null) {
+            lock.release();
+            lockChannel.close();
+            lock = null;
+            lockChannel = null;
+        }
+    }
+
+    /**
+     * To create a new segment to append to, after deleting the oldest
+     * segments which would make the cache larger than its max size. The
+     * segment is prepared under a temporary name, so readers never map a
+     * segment which is shorter than its size.
+     *
+     * @throws IOException when the segment can't be created
+     */
+    private void createSegment() throws IOException {
+
+        TreeMap<Integer, Segment> sortedSegments = new TreeMap<>(segments);
+
+        /* the segments of earlier runs may have other sizes */
+        long totalSize = segmentSize;
+        for (Segment segment : sortedSegments.values()) {
+            totalSize += segment.buffer.capacity();
+        }
+
+        while (!sortedSegments.isEmpty() && totalSize > maxSize) {
+            Segment oldestSegment = sortedSegments.pollFirstEntry().getValue();
+            totalSize -= oldestSegment.buffer.capacity();
+            dropSegment(oldestSegment.id);
+            Files.deleteIfExists(segmentFile(oldestSegment.id));
+        }
+
+        int id = sortedSegments.isEmpty() ? 0 : sortedSegments.lastKey() + 1;
+        Path file = segmentFile(id);
+        Path temporaryFile = directory.resolve(
+                file.getFileName().toString().replace(".dat", ".tmp"));
+
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(temporaryFile,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, ALGORITHM_VERSION);
+
+        Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE);
+
+        currentSegment = new Segment(id, buffer);
+        segments.put(id, currentSegment);
+        writeOffset = SEGMENT_HEADER_SIZE;
+    }
+
+    /**
+     * To map a segment file.
+     *
+     * @param id   the id of the segment
+     * @param file the segment file
+     * @return the segment, or null if the file is gone or not a segment of
+     * this algorithm version
+     * @throws IOException when the file can't be read
+     */
+    private Segment mapSegment(int id, Path file) throws IOException {
+
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, lock != null
+                ? new StandardOpenOption[]{StandardOpenOption.READ,
+                StandardOpenOption.WRITE}
+                : new StandardOpenOption[]{StandardOpenOption.READ})) {
+            buffer = channel.map(lock != null ? FileChannel.MapMode.READ_WRITE
+                    : FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+
+        if (buffer.capacity() < SEGMENT_HEADER_SIZE
+                || buffer.getInt(0) != MAGIC
+                || buffer.getInt(4) != ALGORITHM_VERSION) {
+            return null;
+        }
+
+        return new Segment(id, buffer);
+    }
+
+    /**
+     * To add the entries of a segment after its scanned offset to the index.
+     *
+     * @param segment the segment
+     */
+    private void scanSegment(Segment segment) {
+
+        MappedByteBuffer buffer = segment.buffer;
+        int offset = segment.scannedOffset;
+
+        while (offset + ENTRY_HEADER_SIZE <= buffer.capacity()) {
+
+            int length = buffer.getInt(offset);
+            VarHandle.acquireFence();
+
+            /* the end of the written entries */
+            if (length < ENTRY_HEADER_SIZE || length > buffer.capacity() - offset) {
+                break;
+            }
+
+            index.put(buffer.getLong(offset + 8), ((long) segment.id << 32) | offset);
+            offset += length;
+        }
+
+        segment.scannedOffset = offset;
+    }
+
+    /**
+     * To drop a segment and its entries from the index.
+     *
+     * @param id the id of the segment
+     */
+    private void dropSegment(int id) {
+
+        segments.remove(id);
+        index.values().removeIf(location -> (int) (location >>> 32) == id);
+    }
+
+    /**
+     * To get the path of a segment file.
+     *
+     * @param id the id of the segment
+     * @return the path
+     */
+    private Path segmentFile(int id) {
+        return directory.resolve(String.format("segment-%08d.dat", id));
+    }
+
+    /**
+     * To calculate the hash of the key of an entry.
+     */
+    private long calculateHash(DoublePoint A, DoublePoint controlPointA,
+                               DoublePoint controlPointB, DoublePoint B,
+                               double allowableError) {
+
+        long hash = fingerprint;
+        hash = mix(hash, A.getX());
+        hash = mix(hash, A.getY());
+        hash = mix(hash, controlPointA.getX());
+        hash = mix(hash, controlPointA.getY());
+        hash = mix(hash, controlPointB.getX());
+        hash = mix(hash, controlPointB.getY());
+        hash = mix(hash, B.getX());
+        hash = mix(hash, B.getY());
+        hash = mix(hash, allowableError);
+
+        return hash;
+    }
+
+    /**
+     * To calculate the fingerprint of the settings of a configuration and the
+     * algorithm version. A joint point strategy which isn't an enum constant
+     * is identified by its class name only.
+     *
+     * @param configuration the configuration
+     * @return the fingerprint
+     */
+    private static long calculateFingerprint(ConverterConfiguration configuration) {
+
+        Object jointPointStrategy = configuration.getJointPointStrategy();
+        String strategyName = jointPointStrategy.getClass().getName()
+                + (jointPointStrategy instanceof Enum
+                ? "." + ((Enum<?>) jointPointStrategy).name() : "");
+
+        long hash = ALGORITHM_VERSION;
+        hash = mix(hash, configuration.getNewtonTolerance());
+        hash = mix(hash, configuration.getEpsilon());
+        hash = mix(hash, configuration.getMaxRecursionDepth());
+        hash = mix(hash, configuration.getMaxNewtonIterations());
+        hash = mix(hash, configuration.getErrorMetric().ordinal());
+        hash = mix(hash, configuration.getErrorSamples());
+        hash = mix(hash, configuration.getSplitStrategy().ordinal());
+        hash = mix(hash, strategyName.hashCode());
+
+        return hash;
+    }
+
+    /**
+     * To mix a value into a hash, with the finalizer of SplitMix64.
+     */
+    private static long mix(long hash, double value) {
+
+        long z = hash * 31 + Double.doubleToLongBits(value) + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * To write the coordinates of a point.
+     */
+    private static void putPoint(MappedByteBuffer buffer, int offset,
+                                 DoublePoint point) {
+
+        buffer.putDouble(offset, point.getX());
+        buffer.putDouble(offset + 8, point.getY());
+    }
+
+    /**
+     * To judge if the stored coordinates are exactly those of a point.
+     */
+    private static boolean matches(MappedByteBuffer buffer, int offset,
+                                   DoublePoint point) {
+
+        return Double.doubleToLongBits(buffer.getDouble(offset))
+                == Double.doubleToLongBits(point.getX())
+                && Double.doubleToLongBits(buffer.getDouble(offset + 8))
+                == Double.doubleToLongBits(point.getY());
+    }
+
+    /**
+     * This class is a mapped segment file.
+     */
+    private static class Segment {
+
+        /* the id of the segment in its file name */
+        private final int id;
+
+        /* the mapped file */
+        private final MappedByteBuffer buffer;
+
+        /* the offset after the last entry in the index */
+        private int scannedOffset = SEGMENT_HEADER_SIZE;
+
+        /**
+         * Constructor
+         *
+         * @param id     the id of the segment
+         * @param buffer the mapped file
+         */
+        private Segment(int id, MappedByteBuffer buffer) {
+            this.id = id;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package editablePath;
+
+import component.Arc;
+
+import java.util.List;
+
+/**
+ * This class is to store a change of the arcs of an {@code EditablePath}: the
+ * {@code oldCount} arcs starting from {@code start} in the whole arc list are
+ * replaced by {@code newArcs}.
+ */
+public class ArcRangeChange {
+
+    /* the index of the segment whose arcs are changed */
+    private final int segmentIndex;
+
+    /* the index of the first replaced arc in the whole arc list before the
+       edit */
+    private final int start;
+
+    /* the number of the replaced arcs */
+    private final int oldCount;
+
+    /* the new arcs */
+    private final List<Arc> newArcs;
+
+    /**
+     * Constructor
+     *
+     * @param segmentIndex the index of the segment whose arcs are changed
+     * @param start        the index of the first replaced arc in the whole
+     *                     arc list before the edit
+     * @param oldCount     the number of the replaced arcs
+     * @param newArcs      the new arcs
+     */
+    public ArcRangeChange(int segmentIndex, int start, int oldCount,
+                          List<Arc> newArcs) {
+
+        this.segmentIndex = segmentIndex;
+        this.start = start;
+        this.oldCount = oldCount;
+        this.newArcs = newArcs;
+    }
+
+    /**
+     * To get this.segmentIndex.
+     *
+     * @return this.segmentIndex
+     */
+    public int getSegmentIndex() {
+        return segmentIndex;
+    }
+
+    /**
+     * To get this.start.
+     *
+     * @return this.start
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * To get this.oldCount.
+     *
+     * @return this.oldCount
+     */
+    public int getOldCount() {
+        return oldCount;
+    }
+
+    /**
+     * To get this.newArcs.
+     *
+     * @return this.newArcs
+     */
+    public List<Arc> getNewArcs() {
+        return newArcs;
+    }
+}
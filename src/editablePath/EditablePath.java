@@ -0,0 +1,326 @@
+package editablePath;
+
+import bezierCurveToArcs.BezierCurveToArcs;
+import component.Arc;
+import component.DoublePoint;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class is a path of connected cubic Bezier segments which keeps the
+ * fitted arcs of every segment, for interactive editing.
+ * <p>
+ * The control points are stored as P0, C1, C2, P1, C3, C4, P2, ..., so the
+ * segment i uses the points 3i to 3i + 3. When a control point moves, only
+ * the segments which use it are converted again: moving an end point also
+ * moves its two handles and changes the two adjacent segments; moving a
+ * handle at a smooth joint also turns the opposite handle to keep G1
+ * continuity, which changes the neighbor segment. The numbers of arcs of the
+ * segments are kept in a Fenwick tree, so the position of a segment in the
+ * whole arc list is found in O(log n) and the cost of an edit doesn't grow
+ * with the size of the path.
+ */
+public class EditablePath {
+
+    /* the allowable error of the conversion */
+    private final double allowableError;
+
+    /* the control points of all the segments */
+    private final ArrayList<DoublePoint> controlPoints = new ArrayList<>();
+
+    /* the fitted arcs of every segment */
+    private final ArrayList<ArrayList<Arc>> segmentArcs = new ArrayList<>();
+
+    /* smoothJoints[i] is true if the joint at the point 3i keeps G1
+       continuity when a handle moves */
+    private final ArrayList<Boolean> smoothJoints = new ArrayList<>();
+
+    /* a Fenwick tree of the numbers of arcs of the segments */
+    private int[] arcCountTree = new int[16];
+
+    /**
+     * Constructor
+     *
+     * @param startPoint     the start point of the path
+     * @param allowableError the allowable error of the conversion
+     */
+    public EditablePath(DoublePoint startPoint, double allowableError) {
+
+        this.allowableError = allowableError;
+        controlPoints.add(startPoint);
+        smoothJoints.add(false);
+    }
+
+    /**
+     * To append a segment to the end of the path and convert it.
+     *
+     * @param controlPointA the first control point of the segment
+     * @param controlPointB the second control point of the segment
+     * @param endPoint      the end point of the segment
+     * @param smooth        true if the joint at the start of the segment
+     *                      keeps G1 continuity when a handle moves
+     * @return the change of the arcs
+     */
+    public ArcRangeChange appendSegment(DoublePoint controlPointA,
+                                        DoublePoint controlPointB,
+                                        DoublePoint endPoint, boolean smooth) {
+
+        int segmentIndex = segmentArcs.size();
+
+        controlPoints.add(controlPointA);
+        controlPoints.add(controlPointB);
+        controlPoints.add(endPoint);
+        smoothJoints.set(segmentIndex, smooth);
+        smoothJoints.add(false);
+        segmentArcs.add(new ArrayList<>());
+
+        if (segmentArcs.size() >= arcCountTree.length) {
+            growArcCountTree();
+        }
+
+        return convertSegment(segmentIndex);
+    }
+
+    /**
+     * To move a control point and convert the affected segments again.
+     *
+     * @param pointIndex the index of the control point
+     * @param newPoint   the new position of the control point
+     * @return the changes of the arcs in ascending order of the segments. The
+     * start indexes refer to the arc list before the edit, so apply the
+     * changes from the last one to the first one
+     */
+    public List<ArcRangeChange> moveControlPoint(int pointIndex,
+                                                 DoublePoint newPoint) {
+
+        if (pointIndex < 0 || pointIndex >= controlPoints.size()) {
+            throw new IndexOutOfBoundsException("pointIndex: " + pointIndex);
+        }
+
+        int firstSegment;
+        int lastSegment;
+
+        if (pointIndex % 3 == 0) {
+
+            /* An end point moves with its handles */
+            DoublePoint oldPoint = controlPoints.get(pointIndex);
+            double deltaX = newPoint.getX() - oldPoint.getX();
+            double deltaY = newPoint.getY() - oldPoint.getY();
+
+            controlPoints.set(pointIndex, newPoint);
+            translateControlPoint(pointIndex - 1, deltaX, deltaY);
+            translateControlPoint(pointIndex + 1, deltaX, deltaY);
+
+            firstSegment = pointIndex / 3 - 1;
+            lastSegment = pointIndex / 3;
+
+        } else {
+
+            controlPoints.set(pointIndex, newPoint);
+
+            int jointIndex = pointIndex % 3 == 1 ? pointIndex - 1 : pointIndex + 1;
+            int oppositeIndex = 2 * jointIndex - pointIndex;
+
+            firstSegment = pointIndex / 3;
+            lastSegment = pointIndex / 3;
+
+            if (smoothJoints.get(jointIndex / 3)
+                    && oppositeIndex > 0 && oppositeIndex < controlPoints.size() - 1) {
+                alignOppositeHandle(jointIndex, pointIndex, oppositeIndex);
+                firstSegment = Math.min(firstSegment, oppositeIndex / 3);
+                lastSegment = Math.max(lastSegment, oppositeIndex / 3);
+            }
+        }
+
+        firstSegment = Math.max(0, firstSegment);
+        lastSegment = Math.min(segmentArcs.size() - 1, lastSegment);
+
+        /* The segments are converted from the last one, so the start indexes
+        of the former segments still refer to the arc list before the edit */
+        ArrayList<ArcRangeChange> changes = new ArrayList<>();
+        for (int i = lastSegment; i >= firstSegment; i--) {
+            changes.add(convertSegment(i));
+        }
+        Collections.reverse(changes);
+
+        return changes;
+    }
+
+    /**
+     * To set if a joint keeps G1 continuity when a handle moves.
+     *
+     * @param jointIndex the index of the joint, i.e. the index of the end
+     *                   point divided by 3
+     * @param smooth     true for keeping G1 continuity
+     */
+    public void setSmoothJoint(int jointIndex, boolean smooth) {
+        smoothJoints.set(jointIndex, smooth);
+    }
+
+    /**
+     * To get the number of segments.
+     *
+     * @return the number of segments
+     */
+    public int getSegmentCount() {
+        return segmentArcs.size();
+    }
+
+    /**
+     * To get a control point.
+     *
+     * @param pointIndex the index of the control point
+     * @return the control point
+     */
+    public DoublePoint getControlPoint(int pointIndex) {
+        return controlPoints.get(pointIndex);
+    }
+
+    /**
+     * To get the fitted arcs of a segment.
+     *
+     * @param segmentIndex the index of the segment
+     * @return the fitted arcs, which can not be modified
+     */
+    public List<Arc> getSegmentArcs(int segmentIndex) {
+        return Collections.unmodifiableList(segmentArcs.get(segmentIndex));
+    }
+
+    /**
+     * To get the index of the first arc of a segment in the whole arc list.
+     *
+     * @param segmentIndex the index of the segment
+     * @return the index of the first arc of the segment
+     */
+    public int getFirstArcIndex(int segmentIndex) {
+
+        int sum = 0;
+        for (int i = segmentIndex; i > 0; i -= i & -i) {
+            sum += arcCountTree[i];
+        }
+
+        return sum;
+    }
+
+    /**
+     * To get the number of arcs of the whole path.
+     *
+     * @return the number of arcs
+     */
+    public int getArcCount() {
+        return getFirstArcIndex(segmentArcs.size());
+    }
+
+    /**
+     * To get all the arcs of the path in order.
+     *
+     * @param arcs the arcs of the path
+     */
+    public void getAllArcs(ArrayList<Arc> arcs) {
+
+        if (!arcs.isEmpty()) {
+            arcs.clear();
+        }
+
+        for (ArrayList<Arc> segment : segmentArcs) {
+            arcs.addAll(segment);
+        }
+    }
+
+    /**
+     * To convert a segment again and update the Fenwick tree.
+     *
+     * @param segmentIndex the index of the segment
+     * @return the change of the arcs
+     */
+    private ArcRangeChange convertSegment(int segmentIndex) {
+
+        int start = getFirstArcIndex(segmentIndex);
+        int oldCount = segmentArcs.get(segmentIndex).size();
+
+        ArrayList<Arc> arcs = new ArrayList<>();
+        BezierCurveToArcs.convertACubicBezierCurveToArcs(
+                controlPoints.get(3 * segmentIndex),
+                controlPoints.get(3 * segmentIndex + 1),
+                controlPoints.get(3 * segmentIndex + 2),
+                controlPoints.get(3 * segmentIndex + 3),
+                allowableError, arcs);
+        segmentArcs.set(segmentIndex, arcs);
+
+        for (int i = segmentIndex + 1; i < arcCountTree.length; i += i & -i) {
+            arcCountTree[i] += arcs.size() - oldCount;
+        }
+
+        return new ArcRangeChange(segmentIndex, start, oldCount,
+                Collections.unmodifiableList(arcs));
+    }
+
+    /**
+     * To translate a control point if it exists.
+     *
+     * @param pointIndex the index of the control point
+     * @param deltaX     the translation in x
+     * @param deltaY     the translation in y
+     */
+    private void translateControlPoint(int pointIndex, double deltaX, double deltaY) {
+
+        if (pointIndex < 0 || pointIndex >= controlPoints.size()) {
+            return;
+        }
+
+        DoublePoint point = controlPoints.get(pointIndex);
+        controlPoints.set(pointIndex,
+                new DoublePoint(point.getX() + deltaX, point.getY() + deltaY));
+    }
+
+    /**
+     * To turn the opposite handle of a smooth joint to the opposite direction
+     * of the moved handle, keeping its length.
+     *
+     * @param jointIndex    the index of the joint point
+     * @param handleIndex   the index of the moved handle
+     * @param oppositeIndex the index of the opposite handle
+     */
+    private void alignOppositeHandle(int jointIndex, int handleIndex,
+                                     int oppositeIndex) {
+
+        DoublePoint joint = controlPoints.get(jointIndex);
+        DoublePoint handle = controlPoints.get(handleIndex);
+        DoublePoint opposite = controlPoints.get(oppositeIndex);
+
+        double handleX = handle.getX() - joint.getX();
+        double handleY = handle.getY() - joint.getY();
+        double handleLength = Math.sqrt(handleX * handleX + handleY * handleY);
+        double oppositeLength = Math.sqrt(
+                (opposite.getX() - joint.getX()) * (opposite.getX() - joint.getX())
+                        + (opposite.getY() - joint.getY()) * (opposite.getY() - joint.getY()));
+
+        if (handleLength == 0.0) {
+            return;
+        }
+
+        controlPoints.set(oppositeIndex, new DoublePoint(
+                joint.getX() - handleX / handleLength * oppositeLength,
+                joint.getY() - handleY / handleLength * oppositeLength));
+    }
+
+    /**
+     * To double the size of the Fenwick tree.
+     */
+    private void growArcCountTree() {
+
+        int[] counts = new int[2 * arcCountTree.length];
+        for (int i = 0; i < segmentArcs.size(); i++) {
+            int position = i + 1;
+            counts[position] += segmentArcs.get(i).size();
+            int parent = position + (position & -position);
+            if (parent < counts.length) {
+                counts[parent] += counts[position];
+            }
+        }
+
+        arcCountTree = counts;
+    }
+}
@@ -1,5 +1,6 @@
 package mathTools;
 
+import component.Arc;
 import component.DoublePoint;
 
 /**
@@ -115,6 +116,38 @@ public class MathTools {
                 (a * y1 + b * y2 + c * y3) / (a + b + c));
     }
 
+    /**
+     * To find the circumcenter of a triangle, i.e. the center of the circle
+     * which passes through the three vertexes.
+     *
+     * @param p1 the first vertex of the triangle
+     * @param p2 the second vertex of the triangle
+     * @param p3 the third vertex of the triangle
+     * @return the circumcenter of the triangle, or null if the three vertexes
+     * are collinear
+     */
+    public static DoublePoint findCircumCenterPointOfTriangle(
+            DoublePoint p1, DoublePoint p2, DoublePoint p3) {
+
+        double a11 = p2.getX() - p1.getX();
+        double a12 = p2.getY() - p1.getY();
+        double b1 = (p2.getX() + p1.getX()) / 2.0 * a11
+                + (p2.getY() + p1.getY()) / 2.0 * a12;
+
+        double a21 = p3.getX() - p2.getX();
+        double a22 = p3.getY() - p2.getY();
+        double b2 = (p3.getX() + p2.getX()) / 2.0 * a21
+                + (p3.getY() + p2.getY()) / 2.0 * a22;
+
+        if (Math.abs(calculateSecondOrderDeterminant(a11, a12, a21, a22))
+                <= MathTools.EPSILON) {
+            return null;
+        }
+
+        return MathTools.solveLinearEquationsOfTwoUnknownVariables(
+                a11, a12, b1, a21, a22, b2);
+    }
+
     /**
      * To solve the equation:
      * <p>
@@ -225,4 +258,64 @@ public class MathTools {
 
         return Math.atan2(deltaY, deltaX);
     }
+
+    /**
+     * To judge if a point lies in the sector of an arc, i.e. the ray from the
+     * center to the point passes through the arc.
+     * <p>
+     * The sweep of an arc is not greater than pi, so the point lies in the
+     * sector if and only if it lies on the left of the vector from the center
+     * to the end point with the lower angle and on the right of the vector
+     * from the center to the end point with the upper angle.
+     *
+     * @param x   the x coordinate of the point
+     * @param y   the y coordinate of the point
+     * @param arc the arc
+     * @return true for lying in the sector and false for not
+     */
+    public static boolean isPointInSectorOfArc(double x, double y, Arc arc) {
+
+        double centerX = arc.getCenter().getX();
+        double centerY = arc.getCenter().getY();
+
+        double lowerX = arc.getClockwiseFlag() ? arc.getEndX() : arc.getStartX();
+        double lowerY = arc.getClockwiseFlag() ? arc.getEndY() : arc.getStartY();
+        double upperX = arc.getClockwiseFlag() ? arc.getStartX() : arc.getEndX();
+        double upperY = arc.getClockwiseFlag() ? arc.getStartY() : arc.getEndY();
+
+        double deltaX = x - centerX;
+        double deltaY = y - centerY;
+
+        return (lowerX - centerX) * deltaY - (lowerY - centerY) * deltaX >= 0.0
+                && deltaX * (upperY - centerY) - deltaY * (upperX - centerX) >= 0.0;
+    }
+
+    /**
+     * To calculate the distance from a point to an arc. If the point lies in
+     * the sector of the arc, the distance is the distance to the circle;
+     * otherwise it is the distance to the nearer end point of the arc.
+     *
+     * @param x   the x coordinate of the point
+     * @param y   the y coordinate of the point
+     * @param arc the arc
+     * @return the distance from the point to the arc
+     */
+    public static double distanceFromPointToArc(double x, double y, Arc arc) {
+
+        if (isPointInSectorOfArc(x, y, arc)) {
+            double deltaX = x - arc.getCenter().getX();
+            double deltaY = y - arc.getCenter().getY();
+            return Math.abs(Math.sqrt(deltaX * deltaX + deltaY * deltaY)
+                    - arc.getRadius());
+        }
+
+        double startDeltaX = arc.getStartX() - x;
+        double startDeltaY = arc.getStartY() - y;
+        double endDeltaX = arc.getEndX() - x;
+        double endDeltaY = arc.getEndY() - y;
+
+        return Math.sqrt(Math.min(
+                startDeltaX * startDeltaX + startDeltaY * startDeltaY,
+                endDeltaX * endDeltaX + endDeltaY * endDeltaY));
+    }
 }
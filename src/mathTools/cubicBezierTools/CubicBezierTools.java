@@ -8,6 +8,10 @@ import mathTools.MathTools;
  */
 public class CubicBezierTools {
 
+    /* the number of Newton-Raphson iterations to refine the nearest point on
+       the Bezier curve to a given point */
+    private static final int NEWTON_ITERATIONS_FOR_NEAREST_POINT = 4;
+
     /**
      * To calculate a point on a Bezier curve according to the parameter t.
      *
@@ -120,4 +124,113 @@ public class CubicBezierTools {
 
         return new DoublePoint(dx_dt, dy_dt);
     }
+
+    /**
+     * To calculate one coordinate of a point on a Bezier curve according to
+     * the parameter t. It is the same as {@code pointOnBezierCurve} but works
+     * on one dimension and allocates nothing.
+     *
+     * @param t  the parameter which determines the position of the point. The
+     *           range of it lies in [0.0, 1.0]
+     * @param p0 the coordinate of the start point
+     * @param p1 the coordinate of the first control point
+     * @param p2 the coordinate of the second control point
+     * @param p3 the coordinate of the end point
+     * @return the coordinate of the point on the current Bezier curve
+     */
+    public static double coordinateOnBezierCurve(
+            double t, double p0, double p1, double p2, double p3) {
+
+        double s = 1 - t;
+
+        return s * s * s * p0 + 3 * (s * s * t) * p1
+                + 3 * (t * t * s) * p2 + t * t * t * p3;
+    }
+
+    /**
+     * To calculate one coordinate of Q'(t). It is the same as
+     * {@code calculateDerivativeOnBezierCurve} but works on one dimension and
+     * allocates nothing.
+     *
+     * @param t  a parameter to determine the position on the Bezier curve
+     * @param p0 the coordinate of the start point
+     * @param p1 the coordinate of the first control point
+     * @param p2 the coordinate of the second control point
+     * @param p3 the coordinate of the end point
+     * @return one coordinate of Q'(t)
+     */
+    public static double coordinateOfDerivativeOnBezierCurve(
+            double t, double p0, double p1, double p2, double p3) {
+
+        double s = 1.0 - t;
+
+        return -3 * p0 * s * s + 3 * p1 * (s * s - 2 * t * s)
+                + 3 * p2 * (2 * t * s - t * t) + 3 * p3 * t * t;
+    }
+
+    /**
+     * To calculate one coordinate of Q''(t).
+     *
+     * @param t  a parameter to determine the position on the Bezier curve
+     * @param p0 the coordinate of the start point
+     * @param p1 the coordinate of the first control point
+     * @param p2 the coordinate of the second control point
+     * @param p3 the coordinate of the end point
+     * @return one coordinate of Q''(t)
+     */
+    public static double coordinateOfSecondDerivativeOnBezierCurve(
+            double t, double p0, double p1, double p2, double p3) {
+
+        return 6.0 * ((1.0 - t) * (p2 - 2.0 * p1 + p0) + t * (p3 - 2.0 * p2 + p1));
+    }
+
+    /**
+     * To calculate the distance from the point P = (x, y) to the Bezier
+     * curve. The nearest point is refined with Newton-Raphson method on
+     * g(t) = (Q(t) - P) · Q'(t), starting from {@code t}, so {@code t} should
+     * be close to the nearest point. The result is never less than the true
+     * distance.
+     *
+     * @param x  the x coordinate of the point
+     * @param y  the y coordinate of the point
+     * @param t  the initial t value
+     * @param x0 the x coordinate of the start point
+     * @param y0 the y coordinate of the start point
+     * @param x1 the x coordinate of the first control point
+     * @param y1 the y coordinate of the first control point
+     * @param x2 the x coordinate of the second control point
+     * @param y2 the y coordinate of the second control point
+     * @param x3 the x coordinate of the end point
+     * @param y3 the y coordinate of the end point
+     * @return the distance from the point to Q(t) of the refined t
+     */
+    public static double distanceFromPointToBezierCurve(
+            double x, double y, double t,
+            double x0, double y0, double x1, double y1,
+            double x2, double y2, double x3, double y3) {
+
+        for (int i = 0; i < NEWTON_ITERATIONS_FOR_NEAREST_POINT; i++) {
+
+            double deltaX = coordinateOnBezierCurve(t, x0, x1, x2, x3) - x;
+            double deltaY = coordinateOnBezierCurve(t, y0, y1, y2, y3) - y;
+            double dx = coordinateOfDerivativeOnBezierCurve(t, x0, x1, x2, x3);
+            double dy = coordinateOfDerivativeOnBezierCurve(t, y0, y1, y2, y3);
+            double ddx = coordinateOfSecondDerivativeOnBezierCurve(t, x0, x1, x2, x3);
+            double ddy = coordinateOfSecondDerivativeOnBezierCurve(t, y0, y1, y2, y3);
+
+            double g = deltaX * dx + deltaY * dy;
+            double dg = dx * dx + dy * dy + deltaX * ddx + deltaY * ddy;
+
+            if (dg <= MathTools.EPSILON) {
+                break;
+            }
+
+            t = Math.min(1.0, Math.max(0.0, t - g / dg));
+        }
+
+        double deltaX = coordinateOnBezierCurve(t, x0, x1, x2, x3) - x;
+        double deltaY = coordinateOnBezierCurve(t, y0, y1, y2, y3) - y;
+
+        return Math.sqrt(deltaX * deltaX + deltaY * deltaY);
+    }
 }
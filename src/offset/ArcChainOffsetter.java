@@ -0,0 +1,369 @@
+package offset;
+
+import bezierCurveToArcs.BezierCurveToArcs;
+import component.Arc;
+import component.DoublePoint;
+import mathTools.MathTools;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class contains methods to offset a chain of arcs, e.g. for tool radius
+ * compensation.
+ * <p>
+ * The offset of an arc is exact: the center is kept and the radius changes by
+ * the offset distance. The chain is offset in one pass:
+ * <ul>
+ * <li>an arc whose offset radius is not positive is dropped;</li>
+ * <li>if the offset arcs of a corner don't meet, a join arc is inserted which
+ * is centered at the corner with the radius |distance|. After dropped arcs,
+ * a join arc is inserted around each corner between them, and two join arcs
+ * meet at the intersection point of their circles;</li>
+ * <li>if the offset arcs overlap, they are trimmed at their intersection
+ * point. The intersection is searched among the last
+ * {@code LOCAL_WINDOW} output arcs, so small loops are cut off too. If an
+ * offset arc is swallowed by the overlap, the next
+ * {@code LOCAL_WINDOW} offset arcs are tried as well.</li>
+ * </ul>
+ * The windows are bounded, so the time is linear in the number of arcs. The
+ * chain is treated as open, i.e. the last arc is not joined to the first one.
+ */
+public class ArcChainOffsetter {
+
+    /* the number of the last output arcs which are checked for an
+       intersection with a new offset arc, and the number of the next arcs
+       which are tried when a new offset arc is swallowed */
+    private static final int LOCAL_WINDOW = 8;
+
+    /**
+     * To offset a chain of arcs. A positive distance offsets the chain to the
+     * left of its direction and a negative distance to the right, where the x
+     * axis points to the right and the y axis points upward as the angles of
+     * {@link Arc} do. So an anti-clockwise arc shrinks for a positive
+     * distance and a clockwise arc grows.
+     *
+     * @param arcs       the chain of arcs, in which the end point of an arc is
+     *                   the start point of the next one
+     * @param distance   the offset distance
+     * @param offsetArcs the offset chain of arcs
+     */
+    public static void offsetArcChain(List<Arc> arcs, double distance,
+                                      ArrayList<Arc> offsetArcs) {
+
+        if (!offsetArcs.isEmpty()) {
+            offsetArcs.clear();
+        }
+
+        double jointTolerance = MathTools.EPSILON * Math.max(1.0, Math.abs(distance));
+
+        /* the end point of the source arc of the last output arc, followed
+           by the end points of the dropped source arcs after it, i.e. the
+           corners which the join arcs after the last output arc are
+           centered at */
+        ArrayList<DoublePoint> corners = new ArrayList<>();
+
+        int index = 0;
+        while (index < arcs.size()) {
+
+            Arc arc = arcs.get(index);
+            Arc offsetArc = offsetArc(arc, distance);
+            index++;
+
+            if (offsetArc == null) {
+                if (!corners.isEmpty()) {
+                    corners.add(arc.getEndPoint());
+                }
+                continue;
+            }
+
+            if (offsetArcs.isEmpty()) {
+                offsetArcs.add(offsetArc);
+                setCorner(corners, arc);
+                continue;
+            }
+
+            DoublePoint lastEndPoint
+                    = offsetArcs.get(offsetArcs.size() - 1).getEndPoint();
+
+            if (MathTools.euclideanDistance(lastEndPoint, offsetArc.getStartPoint())
+                    <= jointTolerance) {
+                offsetArcs.add(createArc(
+                        offsetArc, lastEndPoint, offsetArc.getEndPoint()));
+                setCorner(corners, arc);
+                continue;
+            }
+
+            if (trimWithLastArcs(offsetArcs, offsetArc)) {
+                setCorner(corners, arc);
+                continue;
+            }
+
+            /* the offset arc may be swallowed by the overlap of a concave
+               corner, so the next offset arcs are tried too */
+            int lookAheadEnd = Math.min(arcs.size(), index + LOCAL_WINDOW);
+            boolean trimmedFlag = false;
+
+            for (int i = index; i < lookAheadEnd && !trimmedFlag; i++) {
+
+                Arc nextOffsetArc = offsetArc(arcs.get(i), distance);
+
+                if (nextOffsetArc != null
+                        && trimWithLastArcs(offsetArcs, nextOffsetArc)) {
+                    index = i + 1;
+                    setCorner(corners, arcs.get(i));
+                    trimmedFlag = true;
+                }
+            }
+            if (trimmedFlag) {
+                continue;
+            }
+
+            DoublePoint joinEndPoint = addJoinArcs(corners, distance,
+                    lastEndPoint, offsetArc.getStartPoint(), offsetArcs);
+            offsetArcs.add(createArc(offsetArc,
+                    joinEndPoint, offsetArc.getEndPoint()));
+            setCorner(corners, arc);
+        }
+    }
+
+    /**
+     * To set the end point of the source arc of the last output arc as the
+     * only corner.
+     *
+     * @param corners the corners after the last output arc
+     * @param arc     the source arc of the last output arc
+     */
+    private static void setCorner(ArrayList<DoublePoint> corners, Arc arc) {
+
+        corners.clear();
+        corners.add(arc.getEndPoint());
+    }
+
+    /**
+     * To join the last output arc to the next offset arc with one arc around
+     * each corner. The radius of the join arcs is |distance|, and two join
+     * arcs meet at the intersection point of their circles on the offset
+     * side. A dropped source arc has a radius not greater than |distance|,
+     * so the circles of its end points always intersect. A join arc around a
+     * later corner may cross the last output arcs, so it is trimmed with
+     * them like an offset arc.
+     *
+     * @param corners    the corners after the last output arc, the last of
+     *                   which is the start point of the next source arc
+     * @param distance   the offset distance
+     * @param startPoint the end point of the last output arc
+     * @param endPoint   the start point of the next offset arc
+     * @param offsetArcs the output chain of arcs
+     * @return the end point of the last join arc
+     */
+    private static DoublePoint addJoinArcs(ArrayList<DoublePoint> corners,
+                                           double distance,
+                                           DoublePoint startPoint,
+                                           DoublePoint endPoint,
+                                           ArrayList<Arc> offsetArcs) {
+
+        double radius = Math.abs(distance);
+        DoublePoint corner = corners.get(0);
+        DoublePoint joinStartPoint = startPoint;
+
+        for (int i = 1; i <= corners.size(); i++) {
+
+            DoublePoint joinEndPoint = endPoint;
+            DoublePoint nextCorner = null;
+
+            if (i < corners.size()) {
+
+                nextCorner = corners.get(i);
+                double deltaX = nextCorner.getX() - corner.getX();
+                double deltaY = nextCorner.getY() - corner.getY();
+                double cornerDistance
+                        = Math.sqrt(deltaX * deltaX + deltaY * deltaY);
+
+                if (cornerDistance <= MathTools.EPSILON) {
+                    continue;
+                }
+
+                /* the intersection point lies on the perpendicular bisector
+                   of the corners, to the left of their direction for a
+                   positive distance */
+                double halfChord = Math.signum(distance) * Math.sqrt(Math.max(
+                        0.0, radius * radius
+                                - cornerDistance * cornerDistance / 4.0));
+                joinEndPoint = new DoublePoint(
+                        corner.getX() + (deltaX - 2.0 * halfChord * deltaY
+                                / cornerDistance) / 2.0,
+                        corner.getY() + (deltaY + 2.0 * halfChord * deltaX
+                                / cornerDistance) / 2.0);
+            }
+
+            Arc joinArc = BezierCurveToArcs.generateArc(
+                    corner, joinStartPoint, joinEndPoint);
+
+            if (joinStartPoint == startPoint
+                    || !trimWithLastArcs(offsetArcs, joinArc)) {
+                offsetArcs.add(joinArc);
+            }
+
+            joinStartPoint
+                    = offsetArcs.get(offsetArcs.size() - 1).getEndPoint();
+            corner = nextCorner;
+        }
+
+        return joinStartPoint;
+    }
+
+    /**
+     * To offset an arc. The center and the angles are kept.
+     *
+     * @param arc      the arc
+     * @param distance the offset distance
+     * @return the offset arc, or null if the offset radius is not positive
+     */
+    private static Arc offsetArc(Arc arc, double distance) {
+
+        double radius = arc.getClockwiseFlag()
+                ? arc.getRadius() + distance : arc.getRadius() - distance;
+
+        if (radius <= MathTools.EPSILON) {
+            return null;
+        }
+
+        return new Arc(arc.getCenter(), radius,
+                arc.getStartAngle(), arc.getEndAngle(), arc.getClockwiseFlag());
+    }
+
+    /**
+     * To trim an offset arc with the last output arcs at their intersection
+     * point. The output arcs after the intersection are removed, so the
+     * earliest intersection cuts off the largest local loop.
+     *
+     * @param offsetArcs the output chain of arcs
+     * @param offsetArc  the offset arc
+     * @return true if the offset arc is trimmed and appended, false if it
+     * doesn't intersect the last output arcs
+     */
+    private static boolean trimWithLastArcs(ArrayList<Arc> offsetArcs,
+                                            Arc offsetArc) {
+
+        for (int i = Math.max(0, offsetArcs.size() - LOCAL_WINDOW);
+             i < offsetArcs.size(); i++) {
+
+            Arc previousArc = offsetArcs.get(i);
+
+            DoublePoint intersection
+                    = findIntersectionOfTwoArcs(previousArc, offsetArc);
+            if (intersection == null) {
+                continue;
+            }
+
+            offsetArcs.subList(i + 1, offsetArcs.size()).clear();
+            offsetArcs.set(i, createArc(previousArc,
+                    previousArc.getStartPoint(), intersection));
+            offsetArcs.add(createArc(offsetArc,
+                    intersection, offsetArc.getEndPoint()));
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * To find the intersection point of two arcs. If there are two, the one
+     * which is nearer to the start point of the second arc is returned.
+     *
+     * @param first  the first arc
+     * @param second the second arc
+     * @return the intersection point, or null if the arcs don't intersect
+     */
+    private static DoublePoint findIntersectionOfTwoArcs(Arc first, Arc second) {
+
+        double firstX = first.getCenter().getX();
+        double firstY = first.getCenter().getY();
+        double deltaX = second.getCenter().getX() - firstX;
+        double deltaY = second.getCenter().getY() - firstY;
+
+        double distance = Math.sqrt(deltaX * deltaX + deltaY * deltaY);
+        double firstRadius = first.getRadius();
+        double secondRadius = second.getRadius();
+
+        if (distance < MathTools.EPSILON
+                || distance > firstRadius + secondRadius
+                || distance < Math.abs(firstRadius - secondRadius)) {
+            return null;
+        }
+
+        /* the distance from the first center to the chord of intersection
+           along the line of centers, and the half length of the chord */
+        double along = (firstRadius * firstRadius - secondRadius * secondRadius
+                + distance * distance) / (2.0 * distance);
+        double halfChord
+                = Math.sqrt(Math.max(0.0, firstRadius * firstRadius - along * along));
+
+        double baseX = firstX + along * deltaX / distance;
+        double baseY = firstY + along * deltaY / distance;
+        double offsetX = -halfChord * deltaY / distance;
+        double offsetY = halfChord * deltaX / distance;
+
+        DoublePoint result = null;
+        double minDistance = Double.POSITIVE_INFINITY;
+
+        for (int sign = -1; sign <= 1; sign += 2) {
+
+            double x = baseX + sign * offsetX;
+            double y = baseY + sign * offsetY;
+
+            if (!MathTools.isPointInSectorOfArc(x, y, first)
+                    || !MathTools.isPointInSectorOfArc(x, y, second)) {
+                continue;
+            }
+
+            double startDeltaX = x - second.getStartPoint().getX();
+            double startDeltaY = y - second.getStartPoint().getY();
+            double startDistance
+                    = startDeltaX * startDeltaX + startDeltaY * startDeltaY;
+
+            if (startDistance < minDistance) {
+                minDistance = startDistance;
+                result = new DoublePoint(x, y);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * To create a part of an arc between two points on its circle. The
+     * direction of the arc is kept, and the sweep of the arc is not greater
+     * than pi.
+     *
+     * @param arc        the arc
+     * @param startPoint the new start point
+     * @param endPoint   the new end point
+     * @return the part of the arc
+     */
+    private static Arc createArc(Arc arc, DoublePoint startPoint,
+                                 DoublePoint endPoint) {
+
+        double startAngle = MathTools.calculateAngleRelativeToCircleCenter(
+                arc.getCenter(), startPoint);
+        double endAngle = MathTools.calculateAngleRelativeToCircleCenter(
+                arc.getCenter(), endPoint);
+
+        while (endAngle < startAngle - Math.PI) {
+            endAngle += 2.0 * Math.PI;
+        }
+        while (endAngle > startAngle + Math.PI) {
+            endAngle -= 2.0 * Math.PI;
+        }
+
+        /* a part of the arc sweeps less than the arc, so a sweep against the
+           direction only comes from the rounding error of a tiny part */
+        if (arc.getClockwiseFlag() ? endAngle > startAngle : endAngle < startAngle) {
+            endAngle = startAngle;
+        }
+
+        return new Arc(arc.getCenter(), arc.getRadius(), startAngle, endAngle,
+                arc.getClockwiseFlag(), startPoint, endPoint);
+    }
+}
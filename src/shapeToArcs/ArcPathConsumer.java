@@ -0,0 +1,38 @@
+package shapeToArcs;
+
+import component.Arc;
+
+/**
+ * This interface is to receive the outline of a shape as a path of lines and
+ * arcs, in the order of the {@code PathIterator} of the shape.
+ */
+public interface ArcPathConsumer {
+
+    /**
+     * To start a new subpath at a point.
+     *
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     */
+    void moveTo(double x, double y);
+
+    /**
+     * To add a line from the current point to a point.
+     *
+     * @param x the x coordinate of the end point of the line
+     * @param y the y coordinate of the end point of the line
+     */
+    void lineTo(double x, double y);
+
+    /**
+     * To add an arc which starts at the current point.
+     *
+     * @param arc the arc
+     */
+    void arcTo(Arc arc);
+
+    /**
+     * To close the current subpath with a line back to its start point.
+     */
+    void closePath();
+}
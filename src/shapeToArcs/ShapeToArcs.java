@@ -0,0 +1,535 @@
+package shapeToArcs;
+
+import bezierCurveToArcs.ConversionContext;
+import bezierCurveToArcs.ConversionStatistics;
+import bezierCurveToArcs.ConverterConfiguration;
+import bezierCurveToArcs.TolerancePolicy;
+import component.Arc;
+
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.PathIterator;
+import java.util.function.Consumer;
+
+/**
+ * This class contains methods to convert the outline of a
+ * {@code java.awt.Shape}, e.g. a glyph outline, a {@code Path2D} or a
+ * {@code GeneralPath}, to lines and arcs in one pass over its
+ * {@code PathIterator}.
+ * <p>
+ * Lines are passed through. Quadratic curves are elevated to cubic curves,
+ * which is exact. A cubic curve is split at its inflection points, because the
+ * biarc algorithm needs a curve which doesn't change the direction of its
+ * turning, and every piece which turns by more than pi is split where its
+ * tangent has turned by pi, because the tangent lines of the ends of the
+ * biarc must meet in front of the piece. A curve whose control points lie
+ * within the allowable error of its chord, and project onto it, is passed as
+ * a line, and one which runs beyond an end of its chord and back is passed as
+ * lines along the chord through its extreme points. The
+ * coordinates are read from the array of the iterator, so no points are
+ * created for the input.
+ * <p>
+ * The point of the conversion is a smaller output, not a faster one: a
+ * {@code FlatteningPathIterator} at the same tolerance gives 2 to 10 times
+ * more primitives, but it is faster at coarse tolerances, where a line costs
+ * much less than a biarc fit. The number of lines grows with the inverse
+ * square root of the tolerance and the number of arcs with the inverse cube
+ * root, so the conversion only catches up at tight tolerances. On the glyph
+ * run of {@code BenchmarkShapeToArcs}, the conversion with
+ * {@code ErrorMetric.JOINT_POINT} is as fast as flattening at a tolerance
+ * of 1e-3 and faster below, and with {@code ErrorMetric.SAMPLED_POINTS},
+ * which bounds the deviation like the flattening does, it is still 1.5
+ * times slower at 1e-4.
+ */
+public class ShapeToArcs {
+
+    /* the t values closer than this to the ends of a curve are not split */
+    private static final double MIN_SPLIT_T = 1e-6;
+
+    /* the max number of split points of a cubic curve: 2 inflection points
+       and a half-turn point in each of the 3 pieces between them */
+    private static final int MAX_SPLIT_COUNT = 5;
+
+    /**
+     * To convert the outline of a shape with the default settings in the
+     * context of the current thread.
+     *
+     * @param shape          the shape
+     * @param transform      the transform which is applied to the outline, or
+     *                       null for none
+     * @param allowableError the allowable error after the transform
+     * @param pathConsumer   the consumer of the lines and the arcs
+     */
+    public static void convertShapeToArcs(Shape shape, AffineTransform transform,
+                                          double allowableError,
+                                          ArcPathConsumer pathConsumer) {
+
+        convertShapeToArcs(shape, transform, allowableError, pathConsumer,
+                ConverterConfiguration.DEFAULT.currentThreadContext(),
+                new ConversionStatistics());
+    }
+
+    /**
+     * To convert the outline of a shape.
+     *
+     * @param shape          the shape
+     * @param transform      the transform which is applied to the outline, or
+     *                       null for none
+     * @param allowableError the allowable error after the transform
+     * @param pathConsumer   the consumer of the lines and the arcs
+     * @param context        the conversion context of the current thread
+     * @param statistics     the statistics which the counters of the
+     *                       conversions are added to
+     */
+    public static void convertShapeToArcs(Shape shape, AffineTransform transform,
+                                          double allowableError,
+                                          ArcPathConsumer pathConsumer,
+                                          ConversionContext context,
+                                          ConversionStatistics statistics) {
+
+        convertShapeToArcs(shape, transform, TolerancePolicy.constant(allowableError),
+                pathConsumer, context, statistics);
+    }
+
+    /**
+     * To convert the outline of a shape with an allowable error for every
+     * curve. The policy is called for every piece of a curve between its
+     * inflection points, with the coordinates after the transform.
+     *
+     * @param shape           the shape
+     * @param transform       the transform which is applied to the outline,
+     *                        or null for none
+     * @param tolerancePolicy the policy of the allowable errors after the
+     *                        transform
+     * @param pathConsumer    the consumer of the lines and the arcs
+     * @param context         the conversion context of the current thread
+     * @param statistics      the statistics which the counters of the
+     *                        conversions are added to
+     */
+    public static void convertShapeToArcs(Shape shape, AffineTransform transform,
+                                          TolerancePolicy tolerancePolicy,
+                                          ArcPathConsumer pathConsumer,
+                                          ConversionContext context,
+                                          ConversionStatistics statistics) {
+
+        PathIterator pathIterator = shape.getPathIterator(transform);
+
+        Consumer<Arc> arcConsumer = pathConsumer::arcTo;
+
+        /* the segment from the iterator, a cubic curve with room for the
+           split parts: the coordinates at 0 ... 7 are the current curve, and
+           the t values where it is split */
+        double[] segment = new double[6];
+        double[] curve = new double[14];
+        double[] splitTs = new double[MAX_SPLIT_COUNT];
+
+        double currentX = 0.0;
+        double currentY = 0.0;
+        double subpathStartX = 0.0;
+        double subpathStartY = 0.0;
+
+        while (!pathIterator.isDone()) {
+
+            switch (pathIterator.currentSegment(segment)) {
+
+                case PathIterator.SEG_MOVETO:
+                    currentX = segment[0];
+                    currentY = segment[1];
+                    subpathStartX = currentX;
+                    subpathStartY = currentY;
+                    pathConsumer.moveTo(currentX, currentY);
+                    break;
+
+                case PathIterator.SEG_LINETO:
+                    currentX = segment[0];
+                    currentY = segment[1];
+                    pathConsumer.lineTo(currentX, currentY);
+                    break;
+
+                case PathIterator.SEG_QUADTO:
+                    curve[0] = currentX;
+                    curve[1] = currentY;
+                    curve[2] = currentX + 2.0 / 3.0 * (segment[0] - currentX);
+                    curve[3] = currentY + 2.0 / 3.0 * (segment[1] - currentY);
+                    curve[4] = segment[2] + 2.0 / 3.0 * (segment[0] - segment[2]);
+                    curve[5] = segment[3] + 2.0 / 3.0 * (segment[1] - segment[3]);
+                    curve[6] = segment[2];
+                    curve[7] = segment[3];
+                    convertCubicCurve(curve, splitTs, tolerancePolicy,
+                            pathConsumer, arcConsumer, context, statistics);
+                    currentX = segment[2];
+                    currentY = segment[3];
+                    break;
+
+                case PathIterator.SEG_CUBICTO:
+                    curve[0] = currentX;
+                    curve[1] = currentY;
+                    System.arraycopy(segment, 0, curve, 2, 6);
+                    convertCubicCurve(curve, splitTs, tolerancePolicy,
+                            pathConsumer, arcConsumer, context, statistics);
+                    currentX = segment[4];
+                    currentY = segment[5];
+                    break;
+
+                case PathIterator.SEG_CLOSE:
+                    currentX = subpathStartX;
+                    currentY = subpathStartY;
+                    pathConsumer.closePath();
+                    break;
+            }
+
+            pathIterator.next();
+        }
+    }
+
+    /**
+     * To convert a cubic curve, split at its inflection points and at the
+     * half-turn points of the pieces between them.
+     *
+     * @param curve           the coordinates of the curve at 0 ... 7, with 6
+     *                        free elements after them
+     * @param splitTs         the array for the t values of the split points
+     * @param tolerancePolicy the policy of the allowable errors
+     * @param pathConsumer    the consumer of the lines and the arcs
+     * @param arcConsumer     {@code pathConsumer::arcTo}
+     * @param context         the conversion context
+     * @param statistics      the statistics of the conversions
+     */
+    private static void convertCubicCurve(double[] curve, double[] splitTs,
+                                          TolerancePolicy tolerancePolicy,
+                                          ArcPathConsumer pathConsumer,
+                                          Consumer<Arc> arcConsumer,
+                                          ConversionContext context,
+                                          ConversionStatistics statistics) {
+
+        /* with a = P1 - P0, b = P2 - 2P1 + P0 and c = P3 - 3P2 + 3P1 - P0,
+           Q'(t) / 3 = a + 2b * t + c * t^2 and Q'(t) x Q''(t) is in
+           proportion to (b x c) * t^2 + (a x c) * t + (a x b) */
+        double ax = curve[2] - curve[0];
+        double ay = curve[3] - curve[1];
+        double bx = curve[4] - 2.0 * curve[2] + curve[0];
+        double by = curve[5] - 2.0 * curve[3] + curve[1];
+        double cx = curve[6] - 3.0 * curve[4] + 3.0 * curve[2] - curve[0];
+        double cy = curve[7] - 3.0 * curve[5] + 3.0 * curve[3] - curve[1];
+
+        solveQuadratic(bx * cy - by * cx, ax * cy - ay * cx, ax * by - ay * bx,
+                splitTs);
+        double firstT = splitTs[0];
+        double secondT = splitTs[1];
+
+        /* the half-turn point of each piece, after its inflection points */
+        int splitCount = 0;
+        double pieceStartT = 0.0;
+        for (int i = 0; i < 3; i++) {
+
+            double pieceEndT = i == 0 ? firstT : i == 1 ? secondT : 1.0;
+            if (!(pieceEndT > pieceStartT)) {
+                continue;
+            }
+
+            double halfTurnT = findHalfTurnT(ax, ay, bx, by, cx, cy,
+                    pieceStartT, pieceEndT, splitTs);
+            if (halfTurnT - pieceStartT > MIN_SPLIT_T
+                    && pieceEndT - halfTurnT > MIN_SPLIT_T) {
+                splitTs[splitCount++] = halfTurnT;
+            }
+            if (pieceEndT < 1.0) {
+                splitTs[splitCount++] = pieceEndT;
+            }
+
+            pieceStartT = pieceEndT;
+        }
+
+        double lastT = 0.0;
+        for (int i = 0; i < splitCount; i++) {
+
+            double t = splitTs[i];
+            if (t - lastT <= MIN_SPLIT_T || t >= 1.0 - MIN_SPLIT_T) {
+                continue;
+            }
+
+            splitCurve(curve, (t - lastT) / (1.0 - lastT));
+            convertConvexCurve(curve, 0, tolerancePolicy, pathConsumer,
+                    arcConsumer, context, statistics);
+            System.arraycopy(curve, 6, curve, 0, 8);
+            lastT = t;
+        }
+
+        convertConvexCurve(curve, 0, tolerancePolicy, pathConsumer,
+                arcConsumer, context, statistics);
+    }
+
+    /**
+     * To find the point of a piece of a cubic curve without inflection points
+     * where its tangent has turned by pi from the tangent at the start of the
+     * piece, i.e. Q'(t) is opposite to Q'(startT). If Q'(startT) is zero, the
+     * direction of Q''(startT) is taken.
+     *
+     * @param ax     the x coordinate of a
+     * @param ay     the y coordinate of a
+     * @param bx     the x coordinate of b
+     * @param by     the y coordinate of b
+     * @param cx     the x coordinate of c
+     * @param cy     the y coordinate of c
+     * @param startT the start t value of the piece
+     * @param endT   the end t value of the piece
+     * @param roots  the array for the roots, with room for 2
+     * @return the t value of the half-turn point, or NaN if the piece turns
+     * by less than pi
+     */
+    private static double findHalfTurnT(double ax, double ay, double bx,
+                                        double by, double cx, double cy,
+                                        double startT, double endT,
+                                        double[] roots) {
+
+        double directionX = ax + 2.0 * bx * startT + cx * startT * startT;
+        double directionY = ay + 2.0 * by * startT + cy * startT * startT;
+        if (directionX == 0.0 && directionY == 0.0) {
+            directionX = bx + cx * startT;
+            directionY = by + cy * startT;
+        }
+
+        /* (Q'(t) / 3) x direction = 0 */
+        double firstRoot = roots[0];
+        double secondRoot = roots[1];
+        solveQuadratic(cx * directionY - cy * directionX,
+                2.0 * (bx * directionY - by * directionX),
+                ax * directionY - ay * directionX, roots);
+
+        double halfTurnT = Double.NaN;
+        for (int i = 0; i < 2; i++) {
+
+            double t = roots[i];
+            if (t > startT && t < endT
+                    && (ax + 2.0 * bx * t + cx * t * t) * directionX
+                    + (ay + 2.0 * by * t + cy * t * t) * directionY < 0.0) {
+                halfTurnT = t;
+            }
+        }
+
+        roots[0] = firstRoot;
+        roots[1] = secondRoot;
+
+        return halfTurnT;
+    }
+
+    /**
+     * To solve quadratic * t^2 + linear * t + constant = 0 for t in (0, 1),
+     * away from the ends.
+     *
+     * @param quadratic the coefficient of t^2
+     * @param linear    the coefficient of t
+     * @param constant  the constant term
+     * @param roots     the array which receives the smaller root in 0 and the
+     *                  larger root in 1, or NaN for the missing ones
+     */
+    private static void solveQuadratic(double quadratic, double linear,
+                                       double constant, double[] roots) {
+
+        double firstT = Double.NaN;
+        double secondT = Double.NaN;
+
+        if (quadratic != 0.0) {
+            double discriminant = linear * linear - 4.0 * quadratic * constant;
+            if (discriminant >= 0.0) {
+                /* the stable form of the roots */
+                double q = -0.5 * (linear + Math.copySign(
+                        Math.sqrt(discriminant), linear));
+                firstT = q / quadratic;
+                secondT = q != 0.0 ? constant / q : Double.NaN;
+            }
+        } else if (linear != 0.0) {
+            firstT = -constant / linear;
+        }
+
+        if (!isInnerT(firstT)) {
+            firstT = Double.NaN;
+        }
+        if (!isInnerT(secondT)) {
+            secondT = Double.NaN;
+        }
+
+        if (Double.isNaN(firstT) || secondT < firstT) {
+            double temp = firstT;
+            firstT = secondT;
+            secondT = temp;
+        }
+
+        roots[0] = firstT;
+        roots[1] = secondT;
+    }
+
+    /**
+     * To convert a cubic curve without inflection points, or to pass it as a
+     * line or lines if its control points lie within the allowable error of
+     * its chord.
+     *
+     * @param curve           the array of the coordinates
+     * @param offset          the index of the x coordinate of the start point
+     * @param tolerancePolicy the policy of the allowable errors
+     * @param pathConsumer    the consumer of the lines and the arcs
+     * @param arcConsumer     {@code pathConsumer::arcTo}
+     * @param context         the conversion context
+     * @param statistics      the statistics of the conversions
+     */
+    private static void convertConvexCurve(double[] curve, int offset,
+                                           TolerancePolicy tolerancePolicy,
+                                           ArcPathConsumer pathConsumer,
+                                           Consumer<Arc> arcConsumer,
+                                           ConversionContext context,
+                                           ConversionStatistics statistics) {
+
+        double allowableError = tolerancePolicy.calculateAllowableError(curve, offset);
+
+        double startX = curve[offset];
+        double startY = curve[offset + 1];
+        double chordX = curve[offset + 6] - startX;
+        double chordY = curve[offset + 7] - startY;
+        double chordLength = Math.sqrt(chordX * chordX + chordY * chordY);
+
+        /* a curve lies in the convex hull of its control points */
+        double maxDeviation;
+        if (chordLength == 0.0) {
+            maxDeviation = Math.max(
+                    Math.hypot(curve[offset + 2] - startX, curve[offset + 3] - startY),
+                    Math.hypot(curve[offset + 4] - startX, curve[offset + 5] - startY));
+        } else {
+            maxDeviation = Math.max(
+                    Math.abs(chordX * (curve[offset + 3] - startY)
+                            - chordY * (curve[offset + 2] - startX)),
+                    Math.abs(chordX * (curve[offset + 5] - startY)
+                            - chordY * (curve[offset + 4] - startX)))
+                    / chordLength;
+        }
+
+        if (maxDeviation <= allowableError) {
+            if (chordLength > 0.0) {
+                passAsLines(curve, offset, chordX, chordY, chordLength,
+                        allowableError, pathConsumer);
+            }
+            return;
+        }
+
+        context.convertACubicBezierCurveToArcs(curve, offset, allowableError,
+                arcConsumer, statistics);
+    }
+
+    /**
+     * To pass a cubic curve whose control points lie within the allowable
+     * error of the line of its chord as lines. If the control points project
+     * onto the chord, so does the curve, and it is passed as its chord.
+     * Otherwise the curve runs beyond an end of the chord and back, e.g.
+     * (0, 0), (10, 0), (10, 0), (1, 0), so it is passed as lines along the
+     * line of the chord through the projections of its extreme points, in
+     * which every point of the curve is within the allowable error.
+     *
+     * @param curve          the array of the coordinates
+     * @param offset         the index of the x coordinate of the start point
+     * @param chordX         the x coordinate of the chord
+     * @param chordY         the y coordinate of the chord
+     * @param chordLength    the length of the chord, which is positive
+     * @param allowableError the allowable error
+     * @param pathConsumer   the consumer of the lines and the arcs
+     */
+    private static void passAsLines(double[] curve, int offset, double chordX,
+                                    double chordY, double chordLength,
+                                    double allowableError,
+                                    ArcPathConsumer pathConsumer) {
+
+        double startX = curve[offset];
+        double startY = curve[offset + 1];
+
+        /* the projections of the control points onto the chord, as the
+           lengths along it from the start point */
+        double firstProjection = (chordX * (curve[offset + 2] - startX)
+                + chordY * (curve[offset + 3] - startY)) / chordLength;
+        double secondProjection = (chordX * (curve[offset + 4] - startX)
+                + chordY * (curve[offset + 5] - startY)) / chordLength;
+
+        if (Math.min(firstProjection, secondProjection) >= -allowableError
+                && Math.max(firstProjection, secondProjection)
+                <= chordLength + allowableError) {
+            pathConsumer.lineTo(curve[offset + 6], curve[offset + 7]);
+            return;
+        }
+
+        /* with a, b and c of the curve as in convertCubicCurve, the
+           projection of Q(t) is extreme where chord . (a + 2b * t + c * t^2)
+           is 0 */
+        double ax = curve[offset + 2] - startX;
+        double ay = curve[offset + 3] - startY;
+        double bx = curve[offset + 4] - 2.0 * curve[offset + 2] + startX;
+        double by = curve[offset + 5] - 2.0 * curve[offset + 3] + startY;
+        double cx = curve[offset + 6] - 3.0 * curve[offset + 4]
+                + 3.0 * curve[offset + 2] - startX;
+        double cy = curve[offset + 7] - 3.0 * curve[offset + 5]
+                + 3.0 * curve[offset + 3] - startY;
+
+        /* the curve only runs back along its chord here, which is rare, so
+           the roots get their own array */
+        double[] extremeTs = new double[2];
+        solveQuadratic(chordX * cx + chordY * cy,
+                2.0 * (chordX * bx + chordY * by), chordX * ax + chordY * ay,
+                extremeTs);
+
+        for (double t : extremeTs) {
+
+            if (Double.isNaN(t)) {
+                continue;
+            }
+
+            /* Q(t) - P0 = 3a * t + 3b * t^2 + c * t^3 */
+            double projection = (chordX * (3.0 * ax * t + 3.0 * bx * t * t
+                    + cx * t * t * t) + chordY * (3.0 * ay * t
+                    + 3.0 * by * t * t + cy * t * t * t))
+                    / (chordLength * chordLength);
+            pathConsumer.lineTo(startX + projection * chordX,
+                    startY + projection * chordY);
+        }
+
+        pathConsumer.lineTo(curve[offset + 6], curve[offset + 7]);
+    }
+
+    /**
+     * To split the cubic curve at 0 ... 7 of the array at t with de
+     * Casteljau's algorithm. The left part is written to 0 ... 7 and the
+     * right part to 6 ... 13, so they share the split point.
+     *
+     * @param curve the array of the coordinates
+     * @param t     the t value
+     */
+    private static void splitCurve(double[] curve, double t) {
+
+        for (int i = 0; i < 2; i++) {
+
+            double p0 = curve[i];
+            double p1 = curve[2 + i];
+            double p2 = curve[4 + i];
+            double p3 = curve[6 + i];
+
+            double p01 = p0 + (p1 - p0) * t;
+            double p12 = p1 + (p2 - p1) * t;
+            double p23 = p2 + (p3 - p2) * t;
+            double p012 = p01 + (p12 - p01) * t;
+            double p123 = p12 + (p23 - p12) * t;
+            double p0123 = p012 + (p123 - p012) * t;
+
+            curve[2 + i] = p01;
+            curve[4 + i] = p012;
+            curve[6 + i] = p0123;
+            curve[8 + i] = p123;
+            curve[10 + i] = p23;
+            curve[12 + i] = p3;
+        }
+    }
+
+    /**
+     * To judge if a t value lies inside the curve, away from its ends.
+     *
+     * @param t the t value
+     * @return true for inside and false for not or NaN
+     */
+    private static boolean isInnerT(double t) {
+        return t > MIN_SPLIT_T && t < 1.0 - MIN_SPLIT_T;
+    }
+}
@@ -0,0 +1,718 @@
+package spatialIndex;
+
+import component.Arc;
+import component.DoublePoint;
+import mathTools.MathTools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class is a static spatial index over arcs for hit-testing and snapping.
+ * It is a packed Hilbert R-tree: the arcs are sorted by the Hilbert value of
+ * the centers of their bounding boxes, and every {@code NODE_SIZE} adjacent
+ * boxes are packed into a parent node, level by level, into flat arrays.
+ * <p>
+ * Building the tree takes one sort of primitive keys, so a million arcs are
+ * indexed in a fraction of a second. The box, nearest and ray queries visit
+ * O(log n) nodes for typical data. Every query uses the exact bounding boxes
+ * of the arcs to prune, and then the exact geometry of the arcs.
+ * <p>
+ * The tree can not be changed after it is built. An object of this class can
+ * be shared by threads once it is built.
+ */
+public class ArcRTree {
+
+    /* the max number of children of a node */
+    private static final int NODE_SIZE = 16;
+
+    /* the max coordinate of the grid for Hilbert values */
+    private static final int HILBERT_MAX = (1 << 16) - 1;
+
+    /* the indexed arcs in the original order */
+    private final Arc[] arcs;
+
+    /* the index of the chain of every arc */
+    private final int[] chainIndexes;
+
+    /* min x, min y, max x and max y of every node. The first arcs.length
+       nodes are the leaves */
+    private final double[] boxes;
+
+    /* for a leaf, the index of the arc; for other nodes, the index of the
+       first child */
+    private final int[] indices;
+
+    /* the exclusive end index of the nodes of every level, from leaves to
+       the root */
+    private final int[] levelEnds;
+
+    /**
+     * To build a tree over the arcs of several arc chains.
+     *
+     * @param arcChains the arc chains, e.g. the fitted arcs of every curve
+     * @return the tree
+     */
+    public static ArcRTree buildFromArcChains(
+            List<? extends List<Arc>> arcChains) {
+
+        int count = 0;
+        for (List<Arc> arcChain : arcChains) {
+            count += arcChain.size();
+        }
+
+        Arc[] arcs = new Arc[count];
+        int[] chainIndexes = new int[count];
+
+        int index = 0;
+        for (int i = 0; i < arcChains.size(); i++) {
+            for (Arc arc : arcChains.get(i)) {
+                arcs[index] = arc;
+                chainIndexes[index] = i;
+                index++;
+            }
+        }
+
+        return new ArcRTree(arcs, chainIndexes);
+    }
+
+    /**
+     * To build a tree over arcs. All the arcs belong to the chain 0.
+     *
+     * @param arcs the arcs
+     * @return the tree
+     */
+    public static ArcRTree buildFromArcs(List<Arc> arcs) {
+
+        return new ArcRTree(arcs.toArray(new Arc[0]), new int[arcs.size()]);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param arcs         the arcs
+     * @param chainIndexes the index of the chain of every arc
+     */
+    private ArcRTree(Arc[] arcs, int[] chainIndexes) {
+
+        this.arcs = arcs;
+        this.chainIndexes = chainIndexes;
+
+        int n = arcs.length;
+
+        /* Step 1: Calculate the number of nodes of every level */
+        ArrayList<Integer> ends = new ArrayList<>();
+        int nodeCount = n;
+        int levelCount = n;
+        ends.add(nodeCount);
+        while (levelCount > 1) {
+            levelCount = (levelCount + NODE_SIZE - 1) / NODE_SIZE;
+            nodeCount += levelCount;
+            ends.add(nodeCount);
+        }
+
+        levelEnds = new int[ends.size()];
+        for (int i = 0; i < levelEnds.length; i++) {
+            levelEnds[i] = ends.get(i);
+        }
+
+        boxes = new double[4 * nodeCount];
+        indices = new int[nodeCount];
+
+        if (n == 0) {
+            return;
+        }
+
+        /* Step 2: Sort the arcs by the Hilbert values of the centers of
+        their bounding boxes, which are calculated once */
+        double[] arcBoxes = new double[4 * n];
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            Arc arc = arcs[i];
+            arcBoxes[4 * i] = arc.getMinX();
+            arcBoxes[4 * i + 1] = arc.getMinY();
+            arcBoxes[4 * i + 2] = arc.getMaxX();
+            arcBoxes[4 * i + 3] = arc.getMaxY();
+            minX = Math.min(minX, arcBoxes[4 * i]);
+            minY = Math.min(minY, arcBoxes[4 * i + 1]);
+            maxX = Math.max(maxX, arcBoxes[4 * i + 2]);
+            maxY = Math.max(maxY, arcBoxes[4 * i + 3]);
+        }
+
+        double scaleX = maxX > minX ? HILBERT_MAX / (maxX - minX) : 0.0;
+        double scaleY = maxY > minY ? HILBERT_MAX / (maxY - minY) : 0.0;
+
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            int x = (int) ((0.5 * (arcBoxes[4 * i] + arcBoxes[4 * i + 2]) - minX)
+                    * scaleX);
+            int y = (int) ((0.5 * (arcBoxes[4 * i + 1] + arcBoxes[4 * i + 3]) - minY)
+                    * scaleY);
+            keys[i] = ((calculateHilbertValue(x, y) & 0xFFFFFFFFL) << 32) | i;
+        }
+        Arrays.sort(keys);
+
+        for (int i = 0; i < n; i++) {
+            int arcIndex = (int) keys[i];
+            indices[i] = arcIndex;
+            System.arraycopy(arcBoxes, 4 * arcIndex, boxes, 4 * i, 4);
+        }
+
+        /* Step 3: Pack every NODE_SIZE nodes of a level into a parent node */
+        int parent = n;
+        for (int level = 0; level + 1 < levelEnds.length; level++) {
+
+            int start = level == 0 ? 0 : levelEnds[level - 1];
+
+            for (int child = start; child < levelEnds[level]; child += NODE_SIZE) {
+
+                int end = Math.min(child + NODE_SIZE, levelEnds[level]);
+
+                double nodeMinX = Double.POSITIVE_INFINITY;
+                double nodeMinY = Double.POSITIVE_INFINITY;
+                double nodeMaxX = Double.NEGATIVE_INFINITY;
+                double nodeMaxY = Double.NEGATIVE_INFINITY;
+                for (int k = child; k < end; k++) {
+                    nodeMinX = Math.min(nodeMinX, boxes[4 * k]);
+                    nodeMinY = Math.min(nodeMinY, boxes[4 * k + 1]);
+                    nodeMaxX = Math.max(nodeMaxX, boxes[4 * k + 2]);
+                    nodeMaxY = Math.max(nodeMaxY, boxes[4 * k + 3]);
+                }
+
+                indices[parent] = child;
+                boxes[4 * parent] = nodeMinX;
+                boxes[4 * parent + 1] = nodeMinY;
+                boxes[4 * parent + 2] = nodeMaxX;
+                boxes[4 * parent + 3] = nodeMaxY;
+                parent++;
+            }
+        }
+    }
+
+    /**
+     * To get the number of the indexed arcs.
+     *
+     * @return the number of the indexed arcs
+     */
+    public int size() {
+        return arcs.length;
+    }
+
+    /**
+     * To get the index of the chain which an indexed arc belongs to.
+     *
+     * @param arcIndex the index of the arc in the order of building
+     * @return the index of the chain
+     */
+    public int getChainIndex(int arcIndex) {
+        return chainIndexes[arcIndex];
+    }
+
+    /**
+     * To find all the arcs which intersect a rectangle.
+     *
+     * @param minX   the min x coordinate of the rectangle
+     * @param minY   the min y coordinate of the rectangle
+     * @param maxX   the max x coordinate of the rectangle
+     * @param maxY   the max y coordinate of the rectangle
+     * @param result the arcs which intersect the rectangle
+     */
+    public void searchBox(double minX, double minY, double maxX, double maxY,
+                          ArrayList<Arc> result) {
+
+        if (!result.isEmpty()) {
+            result.clear();
+        }
+
+        if (arcs.length == 0) {
+            return;
+        }
+
+        int[] stack = new int[NODE_SIZE * levelEnds.length];
+        int stackSize = 0;
+        stack[stackSize++] = boxes.length / 4 - 1;
+
+        while (stackSize > 0) {
+
+            int node = stack[--stackSize];
+
+            if (node < arcs.length) {
+                Arc arc = arcs[indices[node]];
+                if (intersectArcAndBox(arc, minX, minY, maxX, maxY)) {
+                    result.add(arc);
+                }
+                continue;
+            }
+
+            int end = findEndOfChildren(indices[node]);
+            for (int child = indices[node]; child < end; child++) {
+                if (boxes[4 * child] <= maxX && boxes[4 * child + 1] <= maxY
+                        && boxes[4 * child + 2] >= minX
+                        && boxes[4 * child + 3] >= minY) {
+                    stack[stackSize++] = child;
+                }
+            }
+        }
+    }
+
+    /**
+     * To find the arc which is the nearest to a point.
+     *
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     * @return the nearest arc, or null if the tree is empty
+     */
+    public Arc findNearestArc(double x, double y) {
+        return findNearestArc(x, y, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * To find the arc which is the nearest to a point within a max distance,
+     * e.g. the snapping radius.
+     *
+     * @param x           the x coordinate of the point
+     * @param y           the y coordinate of the point
+     * @param maxDistance the max distance
+     * @return the nearest arc, or null if no arc lies within
+     * {@code maxDistance}
+     */
+    public Arc findNearestArc(double x, double y, double maxDistance) {
+
+        if (arcs.length == 0) {
+            return null;
+        }
+
+        NodeQueue queue = new NodeQueue();
+        int node = boxes.length / 4 - 1;
+
+        while (true) {
+
+            int end = findEndOfChildren(indices[node]);
+            for (int child = indices[node]; child < end; child++) {
+
+                double distance = child < arcs.length
+                        ? MathTools.distanceFromPointToArc(x, y, arcs[indices[child]])
+                        : distanceFromPointToBox(x, y, child);
+
+                if (distance <= maxDistance) {
+                    queue.push(distance, child);
+                }
+            }
+
+            /* The first leaf popped is nearer than every unvisited node */
+            if (!queue.isEmpty() && queue.peekNode() < arcs.length) {
+                return arcs[indices[queue.pop()]];
+            }
+
+            if (queue.isEmpty()) {
+                return null;
+            }
+
+            node = queue.pop();
+        }
+    }
+
+    /**
+     * To find the first arc which a ray hits.
+     *
+     * @param originX     the x coordinate of the origin of the ray
+     * @param originY     the y coordinate of the origin of the ray
+     * @param directionX  the x coordinate of the direction of the ray
+     * @param directionY  the y coordinate of the direction of the ray
+     * @param maxDistance the max distance along the ray
+     * @return the first hit, or null if the ray hits no arc within
+     * {@code maxDistance}
+     */
+    public RayHit castRay(double originX, double originY,
+                          double directionX, double directionY,
+                          double maxDistance) {
+
+        double length = Math.sqrt(directionX * directionX + directionY * directionY);
+        if (arcs.length == 0 || length <= MathTools.EPSILON) {
+            return null;
+        }
+
+        double unitX = directionX / length;
+        double unitY = directionY / length;
+
+        NodeQueue queue = new NodeQueue();
+        int node = boxes.length / 4 - 1;
+
+        if (Double.isNaN(intersectRayAndBox(originX, originY, unitX, unitY,
+                maxDistance, node))) {
+            return null;
+        }
+
+        while (true) {
+
+            int end = findEndOfChildren(indices[node]);
+            for (int child = indices[node]; child < end; child++) {
+
+                double distance = child < arcs.length
+                        ? intersectRayAndArc(originX, originY, unitX, unitY,
+                        maxDistance, arcs[indices[child]])
+                        : intersectRayAndBox(originX, originY, unitX, unitY,
+                        maxDistance, child);
+
+                if (!Double.isNaN(distance)) {
+                    queue.push(distance, child);
+                }
+            }
+
+            /* The first leaf popped is hit before every unvisited node */
+            if (!queue.isEmpty() && queue.peekNode() < arcs.length) {
+                double distance = queue.peekDistance();
+                Arc arc = arcs[indices[queue.pop()]];
+                return new RayHit(arc, distance, new DoublePoint(
+                        originX + distance * unitX, originY + distance * unitY));
+            }
+
+            if (queue.isEmpty()) {
+                return null;
+            }
+
+            node = queue.pop();
+        }
+    }
+
+    /**
+     * To find the exclusive end index of the children of a node.
+     *
+     * @param firstChild the index of the first child
+     * @return the exclusive end index of the children
+     */
+    private int findEndOfChildren(int firstChild) {
+
+        int level = 0;
+        while (levelEnds[level] <= firstChild) {
+            level++;
+        }
+
+        return Math.min(firstChild + NODE_SIZE, levelEnds[level]);
+    }
+
+    /**
+     * To calculate the distance from a point to the box of a node.
+     *
+     * @param x    the x coordinate of the point
+     * @param y    the y coordinate of the point
+     * @param node the index of the node
+     * @return the distance, which is zero if the point lies in the box
+     */
+    private double distanceFromPointToBox(double x, double y, int node) {
+
+        double deltaX = Math.max(0.0,
+                Math.max(boxes[4 * node] - x, x - boxes[4 * node + 2]));
+        double deltaY = Math.max(0.0,
+                Math.max(boxes[4 * node + 1] - y, y - boxes[4 * node + 3]));
+
+        return Math.sqrt(deltaX * deltaX + deltaY * deltaY);
+    }
+
+    /**
+     * To calculate the distance along a ray to the box of a node with the slab
+     * method.
+     *
+     * @param originX     the x coordinate of the origin of the ray
+     * @param originY     the y coordinate of the origin of the ray
+     * @param unitX       the x coordinate of the unit direction of the ray
+     * @param unitY       the y coordinate of the unit direction of the ray
+     * @param maxDistance the max distance along the ray
+     * @param node        the index of the node
+     * @return the distance where the ray enters the box, or NaN if the ray
+     * misses the box
+     */
+    private double intersectRayAndBox(double originX, double originY,
+                                      double unitX, double unitY,
+                                      double maxDistance, int node) {
+
+        double near = 0.0;
+        double far = maxDistance;
+
+        if (unitX != 0.0) {
+            double t1 = (boxes[4 * node] - originX) / unitX;
+            double t2 = (boxes[4 * node + 2] - originX) / unitX;
+            near = Math.max(near, Math.min(t1, t2));
+            far = Math.min(far, Math.max(t1, t2));
+        } else if (originX < boxes[4 * node] || originX > boxes[4 * node + 2]) {
+            return Double.NaN;
+        }
+
+        if (unitY != 0.0) {
+            double t1 = (boxes[4 * node + 1] - originY) / unitY;
+            double t2 = (boxes[4 * node + 3] - originY) / unitY;
+            near = Math.max(near, Math.min(t1, t2));
+            far = Math.min(far, Math.max(t1, t2));
+        } else if (originY < boxes[4 * node + 1] || originY > boxes[4 * node + 3]) {
+            return Double.NaN;
+        }
+
+        return near <= far ? near : Double.NaN;
+    }
+
+    /**
+     * To calculate the distance along a ray to an arc. The ray meets the
+     * circle where |O + s * D - C|^2 = r^2, and the nearer root whose point
+     * lies in the sector of the arc is the hit.
+     *
+     * @param originX     the x coordinate of the origin of the ray
+     * @param originY     the y coordinate of the origin of the ray
+     * @param unitX       the x coordinate of the unit direction of the ray
+     * @param unitY       the y coordinate of the unit direction of the ray
+     * @param maxDistance the max distance along the ray
+     * @param arc         the arc
+     * @return the distance to the hit, or NaN if the ray misses the arc
+     */
+    private static double intersectRayAndArc(double originX, double originY,
+                                             double unitX, double unitY,
+                                             double maxDistance, Arc arc) {
+
+        double deltaX = originX - arc.getCenter().getX();
+        double deltaY = originY - arc.getCenter().getY();
+        double b = unitX * deltaX + unitY * deltaY;
+        double c = deltaX * deltaX + deltaY * deltaY
+                - arc.getRadius() * arc.getRadius();
+        double discriminant = b * b - c;
+
+        if (discriminant < 0.0) {
+            return Double.NaN;
+        }
+
+        double root = Math.sqrt(discriminant);
+        double[] distances = {-b - root, -b + root};
+
+        for (double distance : distances) {
+            if (distance >= 0.0 && distance <= maxDistance
+                    && MathTools.isPointInSectorOfArc(originX + distance * unitX,
+                    originY + distance * unitY, arc)) {
+                return distance;
+            }
+        }
+
+        return Double.NaN;
+    }
+
+    /**
+     * To judge if an arc intersects a rectangle, i.e. an end point lies in
+     * the rectangle or the arc crosses an edge of the rectangle.
+     *
+     * @param arc  the arc
+     * @param minX the min x coordinate of the rectangle
+     * @param minY the min y coordinate of the rectangle
+     * @param maxX the max x coordinate of the rectangle
+     * @param maxY the max y coordinate of the rectangle
+     * @return true for intersected and false for not
+     */
+    private static boolean intersectArcAndBox(
+            Arc arc, double minX, double minY, double maxX, double maxY) {
+
+        if (arc.getStartX() >= minX && arc.getStartX() <= maxX
+                && arc.getStartY() >= minY && arc.getStartY() <= maxY) {
+            return true;
+        }
+
+        return intersectArcAndSegment(arc, minX, minY, maxX - minX, 0.0)
+                || intersectArcAndSegment(arc, minX, maxY, maxX - minX, 0.0)
+                || intersectArcAndSegment(arc, minX, minY, 0.0, maxY - minY)
+                || intersectArcAndSegment(arc, maxX, minY, 0.0, maxY - minY);
+    }
+
+    /**
+     * To judge if an arc crosses the segment from P to P + D.
+     *
+     * @param arc    the arc
+     * @param x      the x coordinate of P
+     * @param y      the y coordinate of P
+     * @param deltaX the x coordinate of D
+     * @param deltaY the y coordinate of D
+     * @return true for crossed and false for not
+     */
+    private static boolean intersectArcAndSegment(
+            Arc arc, double x, double y, double deltaX, double deltaY) {
+
+        double length = Math.sqrt(deltaX * deltaX + deltaY * deltaY);
+        if (length == 0.0) {
+            return false;
+        }
+
+        return !Double.isNaN(intersectRayAndArc(x, y, deltaX / length,
+                deltaY / length, length, arc));
+    }
+
+    /**
+     * To calculate the Hilbert value of a point on a 2^16 * 2^16 grid.
+     *
+     * @param x the x coordinate in [0, 2^16)
+     * @param y the y coordinate in [0, 2^16)
+     * @return the Hilbert value as an unsigned 32-bit integer
+     */
+    private static int calculateHilbertValue(int x, int y) {
+
+        int a = x ^ y;
+        int b = 0xFFFF ^ a;
+        int c = 0xFFFF ^ (x | y);
+        int d = x & (y ^ 0xFFFF);
+
+        int A = a | (b >>> 1);
+        int B = (a >>> 1) ^ a;
+        int C = ((c >>> 1) ^ (b & (d >>> 1))) ^ c;
+        int D = ((a & (c >>> 1)) ^ (d >>> 1)) ^ d;
+
+        a = A;
+        b = B;
+        c = C;
+        d = D;
+        A = (a & (a >>> 2)) ^ (b & (b >>> 2));
+        B = (a & (b >>> 2)) ^ (b & ((a ^ b) >>> 2));
+        C ^= (a & (c >>> 2)) ^ (b & (d >>> 2));
+        D ^= (b & (c >>> 2)) ^ ((a ^ b) & (d >>> 2));
+
+        a = A;
+        b = B;
+        c = C;
+        d = D;
+        A = (a & (a >>> 4)) ^ (b & (b >>> 4));
+        B = (a & (b >>> 4)) ^ (b & ((a ^ b) >>> 4));
+        C ^= (a & (c >>> 4)) ^ (b & (d >>> 4));
+        D ^= (b & (c >>> 4)) ^ ((a ^ b) & (d >>> 4));
+
+        a = A;
+        b = B;
+        c = C;
+        d = D;
+        C ^= (a & (c >>> 8)) ^ (b & (d >>> 8));
+        D ^= (b & (c >>> 8)) ^ ((a ^ b) & (d >>> 8));
+
+        a = C ^ (C >>> 1);
+        b = D ^ (D >>> 1);
+
+        int i0 = x ^ y;
+        int i1 = b | (0xFFFF ^ (i0 | a));
+
+        return (interleaveBits(i1) << 1) | interleaveBits(i0);
+    }
+
+    /**
+     * To spread the lower 16 bits of a value to the even bits.
+     *
+     * @param value the value
+     * @return the spread value
+     */
+    private static int interleaveBits(int value) {
+
+        value = (value | (value << 8)) & 0x00FF00FF;
+        value = (value | (value << 4)) & 0x0F0F0F0F;
+        value = (value | (value << 2)) & 0x33333333;
+        value = (value | (value << 1)) & 0x55555555;
+
+        return value;
+    }
+
+    /**
+     * This class is a binary min-heap of nodes keyed by distance, stored in
+     * primitive arrays.
+     */
+    private static class NodeQueue {
+
+        /* the distances of the nodes */
+        private double[] distances = new double[64];
+
+        /* the indices of the nodes */
+        private int[] nodes = new int[64];
+
+        /* the number of nodes in the heap */
+        private int size;
+
+        /**
+         * To judge if the heap is empty.
+         *
+         * @return true for empty and false for not
+         */
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * To get the node with the min distance without removing it.
+         *
+         * @return the node with the min distance
+         */
+        int peekNode() {
+            return nodes[0];
+        }
+
+        /**
+         * To get the min distance.
+         *
+         * @return the min distance
+         */
+        double peekDistance() {
+            return distances[0];
+        }
+
+        /**
+         * To add a node.
+         *
+         * @param distance the distance of the node
+         * @param node     the index of the node
+         */
+        void push(double distance, int node) {
+
+            if (size == nodes.length) {
+                distances = Arrays.copyOf(distances, 2 * size);
+                nodes = Arrays.copyOf(nodes, 2 * size);
+            }
+
+            int position = size++;
+            while (position > 0) {
+                int parent = (position - 1) / 2;
+                if (distances[parent] <= distance) {
+                    break;
+                }
+                distances[position] = distances[parent];
+                nodes[position] = nodes[parent];
+                position = parent;
+            }
+
+            distances[position] = distance;
+            nodes[position] = node;
+        }
+
+        /**
+         * To remove the node with the min distance.
+         *
+         * @return the node with the min distance
+         */
+        int pop() {
+
+            int top = nodes[0];
+            size--;
+
+            double distance = distances[size];
+            int node = nodes[size];
+            int position = 0;
+
+            while (2 * position + 1 < size) {
+                int child = 2 * position + 1;
+                if (child + 1 < size && distances[child + 1] < distances[child]) {
+                    child++;
+                }
+                if (distances[child] >= distance) {
+                    break;
+                }
+                distances[position] = distances[child];
+                nodes[position] = nodes[child];
+                position = child;
+            }
+
+            distances[position] = distance;
+            nodes[position] = node;
+
+            return top;
+        }
+    }
+}
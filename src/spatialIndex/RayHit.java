@@ -0,0 +1,62 @@
+package spatialIndex;
+
+import component.Arc;
+import component.DoublePoint;
+
+/**
+ * This class is to store the first intersection of a ray with the arcs of an
+ * {@code ArcRTree}.
+ */
+public class RayHit {
+
+    /* the arc which the ray hits */
+    private final Arc arc;
+
+    /* the distance from the origin of the ray to the intersection point */
+    private final double distance;
+
+    /* the intersection point */
+    private final DoublePoint point;
+
+    /**
+     * Constructor
+     *
+     * @param arc      the arc which the ray hits
+     * @param distance the distance from the origin of the ray to the
+     *                 intersection point
+     * @param point    the intersection point
+     */
+    public RayHit(Arc arc, double distance, DoublePoint point) {
+
+        this.arc = arc;
+        this.distance = distance;
+        this.point = point;
+    }
+
+    /**
+     * To get this.arc.
+     *
+     * @return this.arc
+     */
+    public Arc getArc() {
+        return arc;
+    }
+
+    /**
+     * To get this.distance.
+     *
+     * @return this.distance
+     */
+    public double getDistance() {
+        return distance;
+    }
+
+    /**
+     * To get this.point.
+     *
+     * @return this.point
+     */
+    public DoublePoint getPoint() {
+        return point;
+    }
+}
@@ -0,0 +1,207 @@
+package test;
+
+import bezierCurveToArcs.BezierCurveToArcs;
+import bezierCurveToArcs.FloatBezierCurveToArcs;
+import component.Arc;
+import component.DoublePoint;
+import component.FloatArc;
+import component.FloatPoint;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * This class is to compare the memory and the throughput of
+ * {@code BezierCurveToArcs} and {@code FloatBezierCurveToArcs}. It converts
+ * the same random curves with both classes, keeps all the fitted arcs and
+ * prints the time and the retained heap of each, and the number of joints
+ * where adjacent rounded arcs don't meet.
+ */
+public class BenchmarkFloatBezierCurveToArcs {
+
+    /* the number of random curves */
+    private static final int CURVE_COUNT = 200000;
+
+    /* the allowable error */
+    private static final float ALLOWABLE_ERROR = 0.05f;
+
+    public static void main(String[] args) {
+
+        float[] coordinates = generateRandomCurves(new Random(42));
+
+        /* Warm up */
+        convertInDoublePrecision(coordinates, CURVE_COUNT / 10);
+        convertInSinglePrecision(coordinates, CURVE_COUNT / 10);
+
+        measureDoublePrecision(coordinates);
+        measureSinglePrecision(coordinates);
+    }
+
+    /**
+     * To measure the time and the retained heap of {@code BezierCurveToArcs}.
+     * The arcs are reachable until the heap is measured, and the baseline is
+     * taken after the same garbage collection.
+     *
+     * @param coordinates the coordinates of the curves
+     */
+    private static void measureDoublePrecision(float[] coordinates) {
+
+        long baseline = measureUsedMemory();
+        long startTime = System.nanoTime();
+        ArrayList<ArrayList<Arc>> result
+                = convertInDoublePrecision(coordinates, CURVE_COUNT);
+        long time = System.nanoTime() - startTime;
+        long retained = measureUsedMemory() - baseline;
+
+        long arcCount = 0;
+        for (ArrayList<Arc> arcs : result) {
+            arcCount += arcs.size();
+        }
+        Reference.reachabilityFence(result);
+
+        System.out.printf("double: %d arcs, %.1f ms, %.1f bytes per arc%n",
+                arcCount, time / 1e6, (double) retained / arcCount);
+    }
+
+    /**
+     * To measure the time and the retained heap of
+     * {@code FloatBezierCurveToArcs}, and to count the joints where adjacent
+     * rounded arcs don't meet exactly.
+     *
+     * @param coordinates the coordinates of the curves
+     */
+    private static void measureSinglePrecision(float[] coordinates) {
+
+        long baseline = measureUsedMemory();
+        long startTime = System.nanoTime();
+        ArrayList<ArrayList<FloatArc>> result
+                = convertInSinglePrecision(coordinates, CURVE_COUNT);
+        long time = System.nanoTime() - startTime;
+        long retained = measureUsedMemory() - baseline;
+
+        long arcCount = 0;
+        long gapCount = 0;
+        for (ArrayList<FloatArc> arcs : result) {
+            arcCount += arcs.size();
+            for (int i = 1; i < arcs.size(); i++) {
+                if (arcs.get(i - 1).getEndX() != arcs.get(i).getStartX()
+                        || arcs.get(i - 1).getEndY() != arcs.get(i).getStartY()) {
+                    gapCount++;
+                }
+            }
+        }
+        Reference.reachabilityFence(result);
+
+        System.out.printf("float:  %d arcs, %.1f ms, %.1f bytes per arc, "
+                        + "%d gaps%n",
+                arcCount, time / 1e6, (double) retained / arcCount, gapCount);
+    }
+
+    /**
+     * To generate the coordinates of random curves in screen space.
+     *
+     * @param random the random generator
+     * @return 8 coordinates for every curve
+     */
+    private static float[] generateRandomCurves(Random random) {
+
+        float[] coordinates = new float[8 * CURVE_COUNT];
+
+        for (int i = 0; i < CURVE_COUNT; i++) {
+            float x = random.nextFloat() * 1920.0f;
+            float y = random.nextFloat() * 1080.0f;
+            float size = 20.0f + random.nextFloat() * 200.0f;
+            coordinates[8 * i] = x;
+            coordinates[8 * i + 1] = y;
+            coordinates[8 * i + 2] = x + size * 0.3f;
+            coordinates[8 * i + 3] = y + size * (0.8f + 0.4f * random.nextFloat());
+            coordinates[8 * i + 4] = x + size * 0.7f;
+            coordinates[8 * i + 5] = y + size;
+            coordinates[8 * i + 6] = x + size;
+            coordinates[8 * i + 7] = y;
+        }
+
+        return coordinates;
+    }
+
+    /**
+     * To convert the curves with {@code BezierCurveToArcs}.
+     *
+     * @param coordinates the coordinates of the curves
+     * @param count       the number of curves to convert
+     * @return the fitted arcs of every curve
+     */
+    private static ArrayList<ArrayList<Arc>> convertInDoublePrecision(
+            float[] coordinates, int count) {
+
+        ArrayList<ArrayList<Arc>> result = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            ArrayList<Arc> arcs = new ArrayList<>();
+            BezierCurveToArcs.convertACubicBezierCurveToArcs(
+                    new DoublePoint(coordinates[8 * i], coordinates[8 * i + 1]),
+                    new DoublePoint(coordinates[8 * i + 2], coordinates[8 * i + 3]),
+                    new DoublePoint(coordinates[8 * i + 4], coordinates[8 * i + 5]),
+                    new DoublePoint(coordinates[8 * i + 6], coordinates[8 * i + 7]),
+                    ALLOWABLE_ERROR, arcs);
+            arcs.trimToSize();
+            result.add(arcs);
+        }
+
+        return result;
+    }
+
+    /**
+     * To convert the curves with {@code FloatBezierCurveToArcs}.
+     *
+     * @param coordinates the coordinates of the curves
+     * @param count       the number of curves to convert
+     * @return the fitted arcs of every curve
+     */
+    private static ArrayList<ArrayList<FloatArc>> convertInSinglePrecision(
+            float[] coordinates, int count) {
+
+        ArrayList<ArrayList<FloatArc>> result = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            ArrayList<FloatArc> arcs = new ArrayList<>();
+            FloatBezierCurveToArcs.convertACubicBezierCurveToArcs(
+                    new FloatPoint(coordinates[8 * i], coordinates[8 * i + 1]),
+                    new FloatPoint(coordinates[8 * i + 2], coordinates[8 * i + 3]),
+                    new FloatPoint(coordinates[8 * i + 4], coordinates[8 * i + 5]),
+                    new FloatPoint(coordinates[8 * i + 6], coordinates[8 * i + 7]),
+                    ALLOWABLE_ERROR, arcs);
+            arcs.trimToSize();
+            result.add(arcs);
+        }
+
+        return result;
+    }
+
+    /**
+     * To measure the used heap memory after garbage collection. The
+     * collection is repeated until the used heap stops shrinking, as a single
+     * {@code System.gc()} may leave garbage behind.
+     *
+     * @return the used heap memory in bytes
+     */
+    private static long measureUsedMemory() {
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            long newUsed = memory.getHeapMemoryUsage().getUsed();
+            if (newUsed >= used) {
+                break;
+            }
+            used = newUsed;
+        }
+
+        return used;
+    }
+}
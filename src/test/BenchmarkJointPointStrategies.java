@@ -0,0 +1,185 @@
+package test;
+
+import bezierCurveToArcs.BuiltInJointPointStrategy;
+import bezierCurveToArcs.ConversionContext;
+import bezierCurveToArcs.ConversionStatistics;
+import bezierCurveToArcs.ConverterConfiguration;
+import bezierCurveToArcs.ErrorMetric;
+import component.Arc;
+import shapeToArcs.ArcPathConsumer;
+import shapeToArcs.ShapeToArcs;
+
+import java.awt.Font;
+import java.awt.Shape;
+import java.awt.font.FontRenderContext;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * This class is to compare the built-in joint point strategies. It converts
+ * the outline of a run of glyphs and a set of random curves with every
+ * strategy, and prints the number of arcs per curve and the time of each.
+ * <p>
+ * The arcs are measured by {@code ErrorMetric.SAMPLED_POINTS}, because the
+ * error of {@code ErrorMetric.JOINT_POINT} depends on where the joint point
+ * is and wouldn't be comparable.
+ */
+public class BenchmarkJointPointStrategies {
+
+    /* the text of the glyph run */
+    private static final String TEXT
+            = "The quick brown fox jumps over the lazy dog 0123456789 &@%$";
+
+    /* the number of random curves */
+    private static final int CURVE_COUNT = 20000;
+
+    /* the allowable errors */
+    private static final double[] ALLOWABLE_ERRORS = {0.1, 0.01, 0.001};
+
+    /* the number of repetitions of each measurement of the glyphs */
+    private static final int REPETITIONS = 100;
+
+    public static void main(String[] args) {
+
+        System.setProperty("java.awt.headless", "true");
+
+        Font font = new Font(Font.SERIF, Font.PLAIN, 72);
+        Shape outline = font.createGlyphVector(
+                new FontRenderContext(null, true, true), TEXT).getOutline();
+
+        double[] coordinates = generateRandomCurves(new Random(42));
+
+        for (double allowableError : ALLOWABLE_ERRORS) {
+
+            System.out.printf("allowable error %g%n", allowableError);
+
+            for (BuiltInJointPointStrategy strategy
+                    : BuiltInJointPointStrategy.values()) {
+
+                ConversionContext context = new ConverterConfiguration.Builder()
+                        .setErrorMetric(ErrorMetric.SAMPLED_POINTS)
+                        .setJointPointStrategy(strategy)
+                        .build()
+                        .currentThreadContext();
+
+                /* Warm up */
+                convertOutline(outline, allowableError, context);
+                convertCurves(coordinates, allowableError, context);
+
+                long startTime = System.nanoTime();
+                ConversionStatistics outlineStatistics = null;
+                for (int i = 0; i < REPETITIONS; i++) {
+                    outlineStatistics
+                            = convertOutline(outline, allowableError, context);
+                }
+                long outlineTime = (System.nanoTime() - startTime) / REPETITIONS;
+
+                startTime = System.nanoTime();
+                ConversionStatistics curveStatistics
+                        = convertCurves(coordinates, allowableError, context);
+                long curveTime = System.nanoTime() - startTime;
+
+                System.out.printf("  %-16s glyphs: %5.2f arcs per curve, %.3f ms;"
+                                + " random curves: %5.2f arcs per curve, %.1f ms%n",
+                        strategy,
+                        (double) outlineStatistics.getArcCount()
+                                / outlineStatistics.getCurveCount(),
+                        outlineTime / 1e6,
+                        (double) curveStatistics.getArcCount()
+                                / curveStatistics.getCurveCount(),
+                        curveTime / 1e6);
+            }
+        }
+    }
+
+    /**
+     * To generate the coordinates of random curves with a convex control
+     * polygon, so they neither inflect nor turn by more than 180 degrees.
+     *
+     * @param random the random generator
+     * @return 8 coordinates for every curve
+     */
+    private static double[] generateRandomCurves(Random random) {
+
+        double[] coordinates = new double[8 * CURVE_COUNT];
+
+        for (int i = 0; i < CURVE_COUNT; i++) {
+            double x = random.nextDouble() * 1920.0;
+            double y = random.nextDouble() * 1080.0;
+            double size = 20.0 + random.nextDouble() * 200.0;
+            coordinates[8 * i] = x;
+            coordinates[8 * i + 1] = y;
+            coordinates[8 * i + 2] = x + size * 0.45 * random.nextDouble();
+            coordinates[8 * i + 3] = y + size * (0.2 + 0.8 * random.nextDouble());
+            coordinates[8 * i + 4] = x + size * (0.55 + 0.45 * random.nextDouble());
+            coordinates[8 * i + 5] = y + size * (0.2 + 0.8 * random.nextDouble());
+            coordinates[8 * i + 6] = x + size;
+            coordinates[8 * i + 7] = y;
+        }
+
+        return coordinates;
+    }
+
+    /**
+     * To convert the outline of the glyphs.
+     *
+     * @param outline        the outline
+     * @param allowableError the allowable error
+     * @param context        the conversion context
+     * @return the statistics of the conversion
+     */
+    private static ConversionStatistics convertOutline(
+            Shape outline, double allowableError, ConversionContext context) {
+
+        ConversionStatistics statistics = new ConversionStatistics();
+        ShapeToArcs.convertShapeToArcs(outline, null, allowableError,
+                new IgnoringPathConsumer(), context, statistics);
+
+        return statistics;
+    }
+
+    /**
+     * To convert the random curves.
+     *
+     * @param coordinates    the coordinates of the curves
+     * @param allowableError the allowable error
+     * @param context        the conversion context
+     * @return the statistics of the conversion
+     */
+    private static ConversionStatistics convertCurves(
+            double[] coordinates, double allowableError, ConversionContext context) {
+
+        ConversionStatistics statistics = new ConversionStatistics();
+        Consumer<Arc> arcConsumer = arc -> {
+        };
+
+        for (int i = 0; i < CURVE_COUNT; i++) {
+            context.convertACubicBezierCurveToArcs(coordinates, 8 * i,
+                    allowableError, arcConsumer, statistics);
+        }
+
+        return statistics;
+    }
+
+    /**
+     * This class is to drop the output of {@code ShapeToArcs}.
+     */
+    private static class IgnoringPathConsumer implements ArcPathConsumer {
+
+        @Override
+        public void moveTo(double x, double y) {
+        }
+
+        @Override
+        public void lineTo(double x, double y) {
+        }
+
+        @Override
+        public void arcTo(Arc arc) {
+        }
+
+        @Override
+        public void closePath() {
+        }
+    }
+}
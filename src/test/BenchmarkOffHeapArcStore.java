@@ -0,0 +1,134 @@
+package test;
+
+import arcStore.OffHeapArcStore;
+import arcStore.StoredArc;
+import bezierCurveToArcs.ConversionContext;
+import bezierCurveToArcs.ConversionStatistics;
+import bezierCurveToArcs.ConverterConfiguration;
+import component.Arc;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * This class is to compare keeping the arcs of a large job on the heap with
+ * keeping them in an {@code OffHeapArcStore}. It converts random curves,
+ * keeps every arc, sums the arc lengths, and prints the used heap, the time
+ * spent in the garbage collector and the total time.
+ * <p>
+ * Each mode should be run in its own JVM with the same heap settings, e.g.
+ * "java -Xmx2g test.BenchmarkOffHeapArcStore heap 1000000" and
+ * "java -Xmx2g test.BenchmarkOffHeapArcStore offheap 1000000".
+ */
+public class BenchmarkOffHeapArcStore {
+
+    /* the allowable error */
+    private static final double ALLOWABLE_ERROR = 0.001;
+
+    public static void main(String[] args) {
+
+        boolean offHeapFlag = args.length > 0 && args[0].equals("offheap");
+        int curveCount = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+
+        ConversionContext context = ConverterConfiguration.DEFAULT.currentThreadContext();
+        ConversionStatistics statistics = new ConversionStatistics();
+        Random random = new Random(42);
+        double[] coordinates = new double[8];
+        double length = 0.0;
+        long arcCount;
+        long usedHeap;
+
+        long startTime = System.nanoTime();
+
+        if (offHeapFlag) {
+
+            try (OffHeapArcStore store = new OffHeapArcStore()) {
+
+                for (int i = 0; i < curveCount; i++) {
+                    generateRandomCurve(random, coordinates);
+                    store.convertACubicBezierCurveToArcs(coordinates, 0,
+                            ALLOWABLE_ERROR, context, statistics);
+                }
+
+                StoredArc arc = store.createView();
+                while (arc.next()) {
+                    length += arc.getRadius()
+                            * Math.abs(arc.getEndAngle() - arc.getStartAngle());
+                }
+
+                arcCount = store.getArcCount();
+                usedHeap = measureUsedHeap();
+                System.out.printf("off-heap bytes: %.1f MB%n",
+                        store.getReservedBytes() / 1e6);
+            }
+
+        } else {
+
+            ArrayList<Arc> arcs = new ArrayList<>();
+            for (int i = 0; i < curveCount; i++) {
+                generateRandomCurve(random, coordinates);
+                context.convertACubicBezierCurveToArcs(coordinates, 0,
+                        ALLOWABLE_ERROR, arcs::add, statistics);
+            }
+
+            for (Arc arc : arcs) {
+                length += arc.getRadius()
+                        * Math.abs(arc.getEndAngle() - arc.getStartAngle());
+            }
+
+            arcCount = arcs.size();
+            usedHeap = measureUsedHeap();
+        }
+
+        long time = System.nanoTime() - startTime;
+
+        long collectionCount = 0;
+        long collectionTime = 0;
+        for (GarbageCollectorMXBean bean
+                : ManagementFactory.getGarbageCollectorMXBeans()) {
+            collectionCount += bean.getCollectionCount();
+            collectionTime += bean.getCollectionTime();
+        }
+
+        System.out.printf("%s: %d curves, %d arcs, length %.6e%n",
+                offHeapFlag ? "off-heap" : "heap", curveCount, arcCount, length);
+        System.out.printf("used heap: %.1f MB, GC: %d collections, %d ms, "
+                        + "total: %.0f ms%n",
+                usedHeap / 1e6, collectionCount, collectionTime, time / 1e6);
+    }
+
+    /**
+     * To generate a random curve with a convex control polygon.
+     *
+     * @param random      the random generator
+     * @param coordinates the array which receives the 8 coordinates
+     */
+    private static void generateRandomCurve(Random random, double[] coordinates) {
+
+        double x = random.nextDouble() * 1920.0;
+        double y = random.nextDouble() * 1080.0;
+        double size = 20.0 + random.nextDouble() * 200.0;
+        coordinates[0] = x;
+        coordinates[1] = y;
+        coordinates[2] = x + size * 0.45 * random.nextDouble();
+        coordinates[3] = y + size * (0.2 + 0.8 * random.nextDouble());
+        coordinates[4] = x + size * (0.55 + 0.45 * random.nextDouble());
+        coordinates[5] = y + size * (0.2 + 0.8 * random.nextDouble());
+        coordinates[6] = x + size;
+        coordinates[7] = y;
+    }
+
+    /**
+     * To measure the used heap after a full collection.
+     *
+     * @return the used heap in bytes
+     */
+    private static long measureUsedHeap() {
+
+        System.gc();
+
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,169 @@
+package test;
+
+import bezierCurveToArcs.ConversionContext;
+import bezierCurveToArcs.ConversionStatistics;
+import bezierCurveToArcs.ConverterConfiguration;
+import bezierCurveToArcs.ErrorMetric;
+import component.Arc;
+import shapeToArcs.ArcPathConsumer;
+import shapeToArcs.ShapeToArcs;
+
+import java.awt.Font;
+import java.awt.Shape;
+import java.awt.font.FontRenderContext;
+import java.awt.geom.FlatteningPathIterator;
+import java.awt.geom.PathIterator;
+
+/**
+ * This class is to compare {@code ShapeToArcs} with
+ * {@code FlatteningPathIterator} at the same tolerances. It converts the
+ * outline of a run of glyphs with both, and prints the time and the number of
+ * output primitives of each.
+ * <p>
+ * The arcs are measured by {@code ErrorMetric.SAMPLED_POINTS}, because the
+ * flattened lines are guaranteed to lie within the tolerance too, and by the
+ * cheaper {@code ErrorMetric.JOINT_POINT}. The number of lines grows with the
+ * inverse square root of the tolerance and the number of arcs with the
+ * inverse cube root, so the arcs catch up in time at tight tolerances. The
+ * ratio of the times shows where they do; {@code ShapeToArcs} isn't meant to
+ * be faster than flattening at coarse tolerances.
+ */
+public class BenchmarkShapeToArcs {
+
+    /* the text of the glyph run */
+    private static final String TEXT
+            = "The quick brown fox jumps over the lazy dog 0123456789 &@%$";
+
+    /* the allowable errors, i.e. the flatness of the lines */
+    private static final double[] ALLOWABLE_ERRORS = {0.1, 0.01, 0.001, 0.0001};
+
+    /* the number of repetitions of each measurement */
+    private static final int REPETITIONS = 200;
+
+    public static void main(String[] args) {
+
+        System.setProperty("java.awt.headless", "true");
+
+        Font font = new Font(Font.SERIF, Font.PLAIN, 72);
+        Shape outline = font.createGlyphVector(
+                new FontRenderContext(null, true, true), TEXT).getOutline();
+
+        ConversionContext sampledContext = new ConverterConfiguration.Builder()
+                .setErrorMetric(ErrorMetric.SAMPLED_POINTS)
+                .build()
+                .currentThreadContext();
+        ConversionContext jointContext = new ConverterConfiguration.Builder()
+                .setErrorMetric(ErrorMetric.JOINT_POINT)
+                .build()
+                .currentThreadContext();
+        CountingPathConsumer pathConsumer = new CountingPathConsumer();
+
+        for (double allowableError : ALLOWABLE_ERRORS) {
+
+            /* Warm up */
+            for (int i = 0; i < REPETITIONS; i++) {
+                flatten(outline, allowableError);
+                ShapeToArcs.convertShapeToArcs(outline, null, allowableError,
+                        pathConsumer, sampledContext, new ConversionStatistics());
+                ShapeToArcs.convertShapeToArcs(outline, null, allowableError,
+                        pathConsumer, jointContext, new ConversionStatistics());
+            }
+
+            long startTime = System.nanoTime();
+            long lineCount = 0;
+            for (int i = 0; i < REPETITIONS; i++) {
+                lineCount = flatten(outline, allowableError);
+            }
+            long flatteningTime = System.nanoTime() - startTime;
+
+            System.out.printf("allowable error %g%n", allowableError);
+            System.out.printf("  FlatteningPathIterator:      %6d lines, %.3f ms per run%n",
+                    lineCount, flatteningTime / 1e6 / REPETITIONS);
+
+            measure("ShapeToArcs, SAMPLED_POINTS:", outline, allowableError,
+                    pathConsumer, sampledContext, flatteningTime);
+            measure("ShapeToArcs, JOINT_POINT:   ", outline, allowableError,
+                    pathConsumer, jointContext, flatteningTime);
+        }
+    }
+
+    /**
+     * To time the conversion of a shape and print it beside the flattening.
+     *
+     * @param label          the label of the line
+     * @param shape          the shape
+     * @param allowableError the allowable error
+     * @param pathConsumer   the consumer which counts the output
+     * @param context        the conversion context
+     * @param flatteningTime the time of the flattening in nanoseconds
+     */
+    private static void measure(String label, Shape shape, double allowableError,
+                                CountingPathConsumer pathConsumer,
+                                ConversionContext context, long flatteningTime) {
+
+        long startTime = System.nanoTime();
+        for (int i = 0; i < REPETITIONS; i++) {
+            pathConsumer.primitiveCount = 0;
+            ShapeToArcs.convertShapeToArcs(shape, null, allowableError,
+                    pathConsumer, context, new ConversionStatistics());
+        }
+        long arcTime = System.nanoTime() - startTime;
+
+        System.out.printf("  %s %6d lines and arcs, %.3f ms per run, "
+                        + "%.2f times the flattening%n", label,
+                pathConsumer.primitiveCount, arcTime / 1e6 / REPETITIONS,
+                (double) arcTime / flatteningTime);
+    }
+
+    /**
+     * To flatten a shape and count the lines.
+     *
+     * @param shape    the shape
+     * @param flatness the max distance between the lines and the curves
+     * @return the number of lines
+     */
+    private static long flatten(Shape shape, double flatness) {
+
+        PathIterator pathIterator = new FlatteningPathIterator(
+                shape.getPathIterator(null), flatness, 16);
+        double[] coordinates = new double[6];
+
+        long lineCount = 0;
+        while (!pathIterator.isDone()) {
+            if (pathIterator.currentSegment(coordinates) != PathIterator.SEG_MOVETO) {
+                lineCount++;
+            }
+            pathIterator.next();
+        }
+
+        return lineCount;
+    }
+
+    /**
+     * This class is to count the lines and the arcs of a path.
+     */
+    private static class CountingPathConsumer implements ArcPathConsumer {
+
+        /* the number of lines and arcs */
+        private long primitiveCount;
+
+        @Override
+        public void moveTo(double x, double y) {
+        }
+
+        @Override
+        public void lineTo(double x, double y) {
+            primitiveCount++;
+        }
+
+        @Override
+        public void arcTo(Arc arc) {
+            primitiveCount++;
+        }
+
+        @Override
+        public void closePath() {
+            primitiveCount++;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package test;
+
+import component.Arc;
+import component.DoublePoint;
+import mathTools.MathTools;
+import offset.ArcChainOffsetter;
+
+import java.util.ArrayList;
+
+/**
+ * This class is to test the {@code ArcChainOffsetter} class at sharp corners
+ * which are made of small arcs, so the arcs of the corner are dropped for one
+ * offset side. Every output arc must start and end on its circle, the output
+ * chain must be connected, and no end point of an output arc may be nearer
+ * to the chain than the offset distance.
+ */
+public class TestArcChainOffsetter {
+
+    public static void main(String[] args) {
+
+        double distance = 1.0;
+        int failureCount = 0;
+
+        for (int side = -1; side <= 1; side += 2) {
+            for (int arcCount = 1; arcCount <= 4; arcCount++) {
+
+                ArrayList<Arc> arcs = createCorner(side > 0, arcCount);
+
+                for (int sign = -1; sign <= 1; sign += 2) {
+
+                    ArrayList<Arc> offsetArcs = new ArrayList<>();
+                    ArcChainOffsetter.offsetArcChain(
+                            arcs, sign * distance, offsetArcs);
+
+                    double error = checkOffsetArcs(offsetArcs);
+                    double minDistance = Double.POSITIVE_INFINITY;
+                    for (Arc arc : offsetArcs) {
+                        minDistance = Math.min(minDistance, distanceToChain(
+                                arcs, arc.getStartX(), arc.getStartY()));
+                        minDistance = Math.min(minDistance, distanceToChain(
+                                arcs, arc.getEndX(), arc.getEndY()));
+                    }
+
+                    boolean passedFlag = !offsetArcs.isEmpty() && error <= 1e-9
+                            && minDistance >= distance - 1e-9;
+                    if (!passedFlag) {
+                        failureCount++;
+                    }
+
+                    System.out.printf("corner arcs: %d, %s corner, distance: "
+                                    + "%+.1f, output arcs: %d, error: %.3e, "
+                                    + "distance to chain: %.6f %s%n",
+                            arcCount, side > 0 ? "left" : "right",
+                            sign * distance, offsetArcs.size(), error,
+                            minDistance, passedFlag ? "passed" : "FAILED");
+                }
+            }
+        }
+
+        if (failureCount > 0) {
+            throw new AssertionError(failureCount + " offset chains failed");
+        }
+    }
+
+    /**
+     * To create a chain of a long arc, small arcs which turn sharply with a
+     * radius smaller than the offset distance, and another long arc. Every
+     * arc starts along the x axis, so the joints are sharp corners, and the
+     * small arcs are dropped for the offset to the side they turn to.
+     *
+     * @param leftFlag       true if the small arcs turn left, false if they
+     *                       turn right
+     * @param cornerArcCount the number of the small arcs
+     * @return the chain of arcs
+     */
+    private static ArrayList<Arc> createCorner(boolean leftFlag,
+                                               int cornerArcCount) {
+
+        ArrayList<Arc> arcs = new ArrayList<>();
+        double[] state = {0.0, 0.0, 0.0};
+
+        addArc(arcs, state, 100.0, 0.1, leftFlag);
+        for (int i = 0; i < cornerArcCount; i++) {
+            state[2] = 0.0;
+            addArc(arcs, state, 0.5 - 0.1 * i, 1.0, !leftFlag);
+        }
+        state[2] = 0.0;
+        addArc(arcs, state, 50.0, 0.5, leftFlag);
+
+        return arcs;
+    }
+
+    /**
+     * To append an arc which starts at the end of the chain along its
+     * tangent. The state is the end point and the tangent angle of the
+     * chain, and it is updated to the end of the new arc.
+     *
+     * @param arcs          the chain of arcs
+     * @param state         the x and y coordinates of the end point and the
+     *                      tangent angle
+     * @param radius        the radius of the arc
+     * @param sweep         the sweep of the arc, not greater than pi
+     * @param clockwiseFlag the direction of the arc
+     */
+    private static void addArc(ArrayList<Arc> arcs, double[] state,
+                               double radius, double sweep,
+                               boolean clockwiseFlag) {
+
+        double direction = clockwiseFlag ? -1.0 : 1.0;
+        double startAngle = state[2] - direction * Math.PI / 2.0;
+        double endAngle = startAngle + direction * sweep;
+        DoublePoint center = new DoublePoint(
+                state[0] - radius * Math.cos(startAngle),
+                state[1] - radius * Math.sin(startAngle));
+
+        double normalizedStartAngle
+                = Math.atan2(Math.sin(startAngle), Math.cos(startAngle));
+        Arc arc = new Arc(center, radius, normalizedStartAngle,
+                normalizedStartAngle + direction * sweep, clockwiseFlag,
+                state[0], state[1],
+                center.getX() + radius * Math.cos(endAngle),
+                center.getY() + radius * Math.sin(endAngle));
+        arcs.add(arc);
+
+        state[0] = arc.getEndX();
+        state[1] = arc.getEndY();
+        state[2] += direction * sweep;
+    }
+
+    /**
+     * To find the largest distance of an end point of an arc from its circle
+     * and of the start point of an arc from the end point of the previous
+     * one.
+     *
+     * @param offsetArcs the offset chain of arcs
+     * @return the largest distance
+     */
+    private static double checkOffsetArcs(ArrayList<Arc> offsetArcs) {
+
+        double error = 0.0;
+
+        for (int i = 0; i < offsetArcs.size(); i++) {
+
+            Arc arc = offsetArcs.get(i);
+            double centerX = arc.getCenter().getX();
+            double centerY = arc.getCenter().getY();
+
+            error = Math.max(error, Math.abs(Math.hypot(
+                    arc.getStartX() - centerX, arc.getStartY() - centerY)
+                    - arc.getRadius()));
+            error = Math.max(error, Math.abs(Math.hypot(
+                    arc.getEndX() - centerX, arc.getEndY() - centerY)
+                    - arc.getRadius()));
+
+            if (i > 0) {
+                Arc previousArc = offsetArcs.get(i - 1);
+                error = Math.max(error, Math.hypot(
+                        arc.getStartX() - previousArc.getEndX(),
+                        arc.getStartY() - previousArc.getEndY()));
+            }
+        }
+
+        return error;
+    }
+
+    /**
+     * To find the distance from a point to a chain of arcs.
+     *
+     * @param arcs the chain of arcs
+     * @param x    the x coordinate of the point
+     * @param y    the y coordinate of the point
+     * @return the distance
+     */
+    private static double distanceToChain(ArrayList<Arc> arcs,
+                                          double x, double y) {
+
+        double minDistance = Double.POSITIVE_INFINITY;
+
+        for (Arc arc : arcs) {
+
+            double distance = Math.min(
+                    Math.hypot(x - arc.getStartX(), y - arc.getStartY()),
+                    Math.hypot(x - arc.getEndX(), y - arc.getEndY()));
+            if (MathTools.isPointInSectorOfArc(x, y, arc)) {
+                distance = Math.abs(Math.hypot(x - arc.getCenter().getX(),
+                        y - arc.getCenter().getY()) - arc.getRadius());
+            }
+
+            minDistance = Math.min(minDistance, distance);
+        }
+
+        return minDistance;
+    }
+}
@@ -33,7 +33,11 @@ public class TestBezierCurveToArcs {
                     new DoublePoint(arc.getCenter().getX() * enlargedCoefficient,
                             arc.getCenter().getY() * enlargedCoefficient),
                     arc.getRadius() * enlargedCoefficient,
-                    arc.getStartAngle(), arc.getEndAngle(), arc.getClockwiseFlag());
+                    arc.getStartAngle(), arc.getEndAngle(), arc.getClockwiseFlag(),
+                    new DoublePoint(arc.getStartPoint().getX() * enlargedCoefficient,
+                            arc.getStartPoint().getY() * enlargedCoefficient),
+                    new DoublePoint(arc.getEndPoint().getX() * enlargedCoefficient,
+                            arc.getEndPoint().getY() * enlargedCoefficient));
             enlargedArcs.add(enlargedArc);
         }
 
@@ -0,0 +1,347 @@
+package test;
+
+import arcPostProcessing.ArcChain;
+import arcPostProcessing.ArcChainLinker;
+import bezierCurveToArcs.BezierCurveToArcs;
+import bezierCurveToArcs.ConversionContext;
+import bezierCurveToArcs.ConversionStatistics;
+import bezierCurveToArcs.ConverterConfiguration;
+import bezierCurveToArcs.FloatBezierCurveToArcs;
+import component.Arc;
+import component.DoublePoint;
+import component.FloatArc;
+import component.FloatPoint;
+import conversionCache.ConversionCache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * This class is to check the invariants which the options of the conversion
+ * must keep, and it throws an {@code IllegalStateException} at the first one
+ * which is broken:
+ * <ul>
+ * <li>the default conversion gives the same arcs, bit for bit, as the
+ * original {@code BezierCurveToArcs}, whose hash of a fixed chain of curves
+ * is recorded in {@code EXPECTED_HASH};</li>
+ * <li>the arcs of a chain of curves link into one chain without gaps, in
+ * double precision and in single precision;</li>
+ * <li>a {@code ConversionCache} which is closed and opened again returns the
+ * same arcs, bit for bit.</li>
+ * </ul>
+ */
+public class TestConversionInvariants {
+
+    /* the number of curves of the chain, and the seed of their shapes */
+    private static final int CURVE_COUNT = 500;
+    private static final long SEED = 20261019L;
+
+    /* the allowable error of the conversions */
+    private static final double ALLOWABLE_ERROR = 0.01;
+
+    /* the number of arcs and their hash from the original BezierCurveToArcs */
+    private static final int EXPECTED_ARC_COUNT = 3100;
+    private static final long EXPECTED_HASH = 0xc5d2c841aa857cb9L;
+
+    /* the max size of the cache of the test */
+    private static final long CACHE_SIZE = 1L << 20;
+
+    public static void main(String[] args) throws IOException {
+
+        double[][] curves = createCurves();
+
+        checkDefaultConversion(curves);
+        checkLinking(curves);
+        checkCacheReopening(curves);
+
+        System.out.println("All invariants hold");
+    }
+
+    /**
+     * To check that the default conversion gives the arcs of the original
+     * {@code BezierCurveToArcs}, through the static methods and through the
+     * context of the default configuration.
+     *
+     * @param curves the coordinates of the curves
+     */
+    private static void checkDefaultConversion(double[][] curves) {
+
+        ConversionContext context
+                = ConverterConfiguration.DEFAULT.currentThreadContext();
+        ArrayList<Arc> arcs = new ArrayList<>();
+        ArrayList<Arc> contextArcs = new ArrayList<>();
+
+        long hash = 17;
+        long contextHash = 17;
+        int arcCount = 0;
+
+        for (double[] curve : curves) {
+
+            BezierCurveToArcs.convertACubicBezierCurveToArcs(
+                    point(curve, 0), point(curve, 2), point(curve, 4),
+                    point(curve, 6), ALLOWABLE_ERROR, arcs);
+            context.convertACubicBezierCurveToArcs(
+                    point(curve, 0), point(curve, 2), point(curve, 4),
+                    point(curve, 6), ALLOWABLE_ERROR, contextArcs,
+                    new ConversionStatistics());
+
+            hash = hashArcs(arcs, hash);
+            contextHash = hashArcs(contextArcs, contextHash);
+            arcCount += arcs.size();
+        }
+
+        check(arcCount == EXPECTED_ARC_COUNT, "The default conversion gives "
+                + arcCount + " arcs instead of " + EXPECTED_ARC_COUNT);
+        check(hash == EXPECTED_HASH, "The default conversion gives other arcs: "
+                + "hash 0x" + Long.toHexString(hash));
+        check(contextHash == EXPECTED_HASH, "The default context gives other "
+                + "arcs: hash 0x" + Long.toHexString(contextHash));
+
+        System.out.println("Default conversion: " + arcCount
+                + " arcs, bit-identical");
+    }
+
+    /**
+     * To check that the arcs of the chain of curves link into one chain in
+     * which every arc starts exactly at the end of the arc before it, and that
+     * the arcs in single precision meet exactly too.
+     *
+     * @param curves the coordinates of the curves
+     */
+    private static void checkLinking(double[][] curves) {
+
+        List<ArrayList<Arc>> chains = new ArrayList<>();
+        for (double[] curve : curves) {
+            ArrayList<Arc> arcs = new ArrayList<>();
+            BezierCurveToArcs.convertACubicBezierCurveToArcs(
+                    point(curve, 0), point(curve, 2), point(curve, 4),
+                    point(curve, 6), ALLOWABLE_ERROR, arcs);
+            chains.add(arcs);
+        }
+
+        ArrayList<ArcChain> linkedChains = new ArrayList<>();
+        ArcChainLinker.linkChains(chains, ALLOWABLE_ERROR / 1000.0, false,
+                linkedChains);
+        check(linkedChains.size() == 1, "The curves are linked into "
+                + linkedChains.size() + " chains instead of 1");
+
+        ArrayList<Arc> linkedArcs = linkedChains.get(0).getArcs();
+        for (int i = 1; i < linkedArcs.size(); i++) {
+            Arc previousArc = linkedArcs.get(i - 1);
+            Arc arc = linkedArcs.get(i);
+            check(previousArc.getEndX() == arc.getStartX()
+                            && previousArc.getEndY() == arc.getStartY(),
+                    "There is a gap before the linked arc " + i);
+        }
+
+        /* the curves in single precision, each starting at the rounded end
+           of the curve before it */
+        ArrayList<FloatArc> floatArcs = new ArrayList<>();
+        FloatArc previousArc = null;
+        int floatArcCount = 0;
+
+        for (double[] curve : curves) {
+
+            FloatBezierCurveToArcs.convertACubicBezierCurveToArcs(
+                    floatPoint(curve, 0), floatPoint(curve, 2),
+                    floatPoint(curve, 4), floatPoint(curve, 6),
+                    (float) ALLOWABLE_ERROR, floatArcs);
+
+            for (FloatArc arc : floatArcs) {
+                check(previousArc == null
+                                || previousArc.getEndX() == arc.getStartX()
+                                && previousArc.getEndY() == arc.getStartY(),
+                        "There is a gap before the float arc " + floatArcCount);
+                previousArc = arc;
+                floatArcCount++;
+            }
+        }
+
+        System.out.println("Linking: " + linkedArcs.size() + " arcs and "
+                + floatArcCount + " float arcs, no gaps");
+    }
+
+    /**
+     * To check that a cache returns the arcs of its conversions after it is
+     * closed and opened again.
+     *
+     * @param curves the coordinates of the curves
+     * @throws IOException when the cache can't be written or read
+     */
+    private static void checkCacheReopening(double[][] curves)
+            throws IOException {
+
+        Path directory = Files.createTempDirectory("conversion-cache");
+
+        try {
+            ArrayList<Arc> arcs = new ArrayList<>();
+            long hash = 17;
+
+            ConversionCache cache = new ConversionCache(directory,
+                    ConverterConfiguration.DEFAULT, CACHE_SIZE, true);
+            try {
+                for (double[] curve : curves) {
+                    cache.convertACubicBezierCurveToArcs(
+                            point(curve, 0), point(curve, 2), point(curve, 4),
+                            point(curve, 6), ALLOWABLE_ERROR, arcs,
+                            new ConversionStatistics());
+                    hash = hashArcs(arcs, hash);
+                }
+            } finally {
+                cache.close();
+            }
+
+            long cachedHash = 17;
+
+            cache = new ConversionCache(directory,
+                    ConverterConfiguration.DEFAULT, CACHE_SIZE, false);
+            try {
+                for (int i = 0; i < curves.length; i++) {
+                    double[] curve = curves[i];
+                    check(cache.lookup(point(curve, 0), point(curve, 2),
+                                    point(curve, 4), point(curve, 6),
+                                    ALLOWABLE_ERROR, arcs),
+                            "The reopened cache misses the curve " + i);
+                    cachedHash = hashArcs(arcs, cachedHash);
+                }
+            } finally {
+                cache.close();
+            }
+
+            check(cachedHash == hash, "The reopened cache gives other arcs");
+
+        } finally {
+            List<Path> paths;
+            try (Stream<Path> walk = Files.walk(directory)) {
+                paths = walk.sorted(Comparator.reverseOrder())
+                        .collect(Collectors.toList());
+            }
+            for (Path path : paths) {
+                Files.delete(path);
+            }
+        }
+
+        System.out.println("Cache: " + curves.length
+                + " curves found after reopening, bit-identical");
+    }
+
+    /**
+     * To create a chain of convex curves, each of which starts at the end of
+     * the curve before it and turns by 0.2 to 1.2 radians to the left or to
+     * the right.
+     *
+     * @return the coordinates of the curves
+     */
+    private static double[][] createCurves() {
+
+        Random random = new Random(SEED);
+        double[][] curves = new double[CURVE_COUNT][];
+
+        double x = 0.0;
+        double y = 0.0;
+        double heading = 0.0;
+
+        for (int i = 0; i < CURVE_COUNT; i++) {
+
+            double turn = (0.2 + random.nextDouble())
+                    * (random.nextBoolean() ? 1.0 : -1.0);
+            double radius = 10.0 + random.nextDouble() * 90.0;
+
+            /* the control distances of a circular arc, stretched or
+               shortened at random */
+            double k = 4.0 / 3.0 * Math.tan(turn / 4.0) * radius;
+            double startLength
+                    = Math.abs(k * (0.7 + 0.6 * random.nextDouble()));
+            double endLength
+                    = Math.abs(k * (0.7 + 0.6 * random.nextDouble()));
+
+            double centerX = x - radius * Math.sin(heading) * Math.signum(turn);
+            double centerY = y + radius * Math.cos(heading) * Math.signum(turn);
+            double endX = centerX + (x - centerX) * Math.cos(turn)
+                    - (y - centerY) * Math.sin(turn);
+            double endY = centerY + (x - centerX) * Math.sin(turn)
+                    + (y - centerY) * Math.cos(turn);
+            double endHeading = heading + turn;
+
+            curves[i] = new double[]{
+                    x, y,
+                    x + startLength * Math.cos(heading),
+                    y + startLength * Math.sin(heading),
+                    endX - endLength * Math.cos(endHeading),
+                    endY - endLength * Math.sin(endHeading),
+                    endX, endY};
+
+            x = endX;
+            y = endY;
+            heading = endHeading;
+        }
+
+        return curves;
+    }
+
+    /**
+     * To add the center, the radius, the angles and the direction of arcs to
+     * a hash, which the original {@code Arc} has as well.
+     *
+     * @param arcs the arcs
+     * @param hash the hash before the arcs
+     * @return the hash after the arcs
+     */
+    private static long hashArcs(List<Arc> arcs, long hash) {
+
+        for (Arc arc : arcs) {
+
+            double[] values = {arc.getCenter().getX(), arc.getCenter().getY(),
+                    arc.getRadius(), arc.getStartAngle(), arc.getEndAngle()};
+
+            for (double value : values) {
+                hash = 31 * hash + Double.doubleToLongBits(value);
+            }
+            hash = 31 * hash + (arc.getClockwiseFlag() ? 1 : 0);
+        }
+
+        return hash;
+    }
+
+    /**
+     * To get a point of a curve.
+     *
+     * @param curve  the coordinates of the curve
+     * @param offset the index of the x coordinate of the point
+     * @return the point
+     */
+    private static DoublePoint point(double[] curve, int offset) {
+        return new DoublePoint(curve[offset], curve[offset + 1]);
+    }
+
+    /**
+     * To get a point of a curve in single precision.
+     *
+     * @param curve  the coordinates of the curve
+     * @param offset the index of the x coordinate of the point
+     * @return the point
+     */
+    private static FloatPoint floatPoint(double[] curve, int offset) {
+        return new FloatPoint((float) curve[offset], (float) curve[offset + 1]);
+    }
+
+    /**
+     * To throw an exception when an invariant is broken.
+     *
+     * @param condition the invariant
+     * @param message   the message of the exception
+     */
+    private static void check(boolean condition, String message) {
+
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package transform;
+
+import bezierCurveToArcs.TolerancePolicy;
+
+import java.awt.geom.AffineTransform;
+
+/**
+ * This class is a tolerance policy driven by the resolution of the target
+ * device, e.g. the pixels of a printer or a screen, or the steps of a
+ * machine. The allowable error is given in device units, as a fraction of a
+ * pixel or a step, and every curve gets the largest allowable error in user
+ * units whose deviation is never larger than that on the device. A tiny glyph
+ * detail and a huge outline then have the same visible error, instead of the
+ * same error in user units.
+ * <p>
+ * A deviation of the arcs from a curve is close to a normal of the curve. The
+ * transform from the user units to the device units stretches a normal n by
+ * |M n|, where M is its linear part, and the normals of a curve lie in the
+ * range of the directions of its hodograph turned by pi / 2. So the allowable
+ * error of a curve is the device error divided by the max of |M n| over its
+ * normals. For a similarity it is the device error divided by the scale, and
+ * for a transform which stretches one axis, a curve which runs along that
+ * axis gets a larger allowable error than one which runs across it. If the
+ * directions of a curve span pi or more, the max stretch of M is used.
+ */
+public class DeviceTolerancePolicy implements TolerancePolicy {
+
+    /* the fraction of a pixel or a step which is the default device error */
+    public static final double DEFAULT_STEP_FRACTION = 0.5;
+
+    /* the transform from the user units to the device units */
+    private final AffineTransform userToDevice;
+
+    /* the allowable error in device units */
+    private final double deviceError;
+
+    /* the elements of the symmetric matrix M^T M, where M is the linear part
+       of {@code userToDevice} */
+    private final double g11;
+    private final double g12;
+    private final double g22;
+
+    /* the max of |M n| over all unit vectors n */
+    private final double maxStretch;
+
+    /* the angle of the direction n which gives {@code maxStretch}, in the
+       range (-pi / 2, pi / 2] */
+    private final double maxStretchAngle;
+
+    /**
+     * Constructor
+     *
+     * @param userToDevice the transform from the user units to the device
+     *                     units, which is copied
+     * @param deviceError  the allowable error in device units
+     */
+    public DeviceTolerancePolicy(AffineTransform userToDevice, double deviceError) {
+
+        if (!(deviceError > 0.0) || Double.isInfinite(deviceError)) {
+            throw new IllegalArgumentException(
+                    "The device error must be positive: " + deviceError);
+        }
+        if (userToDevice.getDeterminant() == 0.0
+                || !Double.isFinite(userToDevice.getDeterminant())) {
+            throw new IllegalArgumentException(
+                    "The transform is not invertible: " + userToDevice);
+        }
+
+        this.userToDevice = new AffineTransform(userToDevice);
+        this.deviceError = deviceError;
+
+        double m00 = userToDevice.getScaleX();
+        double m01 = userToDevice.getShearX();
+        double m10 = userToDevice.getShearY();
+        double m11 = userToDevice.getScaleY();
+
+        g11 = m00 * m00 + m10 * m10;
+        g12 = m00 * m01 + m10 * m11;
+        g22 = m01 * m01 + m11 * m11;
+
+        /* n^T G n = (g11 + g22) / 2 + (g11 - g22) / 2 * cos(2 phi)
+           + g12 * sin(2 phi), whose peak is the largest eigenvalue of G */
+        double halfDifference = (g11 - g22) / 2.0;
+        maxStretch = Math.sqrt((g11 + g22) / 2.0
+                + Math.hypot(halfDifference, g12));
+        maxStretchAngle = Math.atan2(g12, halfDifference) / 2.0;
+    }
+
+    /**
+     * To create a policy for a raster device.
+     *
+     * @param dotsPerInch      the resolution of the device
+     * @param userUnitsPerInch the number of user units per inch, e.g. 72 for
+     *                         points or 96 for CSS pixels
+     * @param transform        the transform which is applied to the user
+     *                         units before the output, or null for none
+     * @return the policy with an allowable error of
+     * {@code DEFAULT_STEP_FRACTION} of a pixel
+     */
+    public static DeviceTolerancePolicy forDpi(double dotsPerInch,
+                                               double userUnitsPerInch,
+                                               AffineTransform transform) {
+
+        if (!(dotsPerInch > 0.0) || !(userUnitsPerInch > 0.0)) {
+            throw new IllegalArgumentException("The resolution must be positive: "
+                    + dotsPerInch + " dpi, " + userUnitsPerInch + " units per inch");
+        }
+
+        double scale = dotsPerInch / userUnitsPerInch;
+        AffineTransform userToDevice = AffineTransform.getScaleInstance(scale, scale);
+        if (transform != null) {
+            userToDevice.concatenate(transform);
+        }
+
+        return new DeviceTolerancePolicy(userToDevice, DEFAULT_STEP_FRACTION);
+    }
+
+    /**
+     * To create a policy for a machine which moves in steps, e.g. a plotter
+     * or a CNC machine.
+     *
+     * @param stepX         the step of the x axis in machine units
+     * @param stepY         the step of the y axis in machine units
+     * @param userToMachine the transform from the user units to the machine
+     *                      units, or null if they are the same
+     * @return the policy with an allowable error of
+     * {@code DEFAULT_STEP_FRACTION} of a step
+     */
+    public static DeviceTolerancePolicy forMachineStep(double stepX, double stepY,
+                                                       AffineTransform userToMachine) {
+
+        if (!(stepX > 0.0) || !(stepY > 0.0)) {
+            throw new IllegalArgumentException(
+                    "The steps must be positive: " + stepX + ", " + stepY);
+        }
+
+        AffineTransform userToDevice
+                = AffineTransform.getScaleInstance(1.0 / stepX, 1.0 / stepY);
+        if (userToMachine != null) {
+            userToDevice.concatenate(userToMachine);
+        }
+
+        return new DeviceTolerancePolicy(userToDevice, DEFAULT_STEP_FRACTION);
+    }
+
+    /**
+     * To create a policy with the same device error for curves which are
+     * placed by another transform, e.g. every instance of a glyph.
+     *
+     * @param placement the transform which is applied to the curves before
+     *                  the transform of this policy
+     * @return the policy
+     */
+    public DeviceTolerancePolicy withPlacement(AffineTransform placement) {
+
+        AffineTransform placedToDevice = new AffineTransform(userToDevice);
+        placedToDevice.concatenate(placement);
+
+        return new DeviceTolerancePolicy(placedToDevice, deviceError);
+    }
+
+    /**
+     * To calculate the allowable error of a curve in user units, by the max
+     * stretch of its normals.
+     *
+     * @param coordinates the array which holds the coordinates of the start
+     *                    point, the first control point, the second control
+     *                    point and the end point in this order
+     * @param offset      the index of the x coordinate of the start point
+     * @return the allowable error in user units
+     */
+    @Override
+    public double calculateAllowableError(double[] coordinates, int offset) {
+
+        /* The directions of the curve lie in the cone of the control points
+        of its hodograph, which are in proportion to P1 - P0, P2 - P1 and
+        P3 - P2. A zero vector among them doesn't widen the cone */
+        double baseAngle = Double.NaN;
+        double minAngle = 0.0;
+        double maxAngle = 0.0;
+
+        for (int i = 0; i < 3; i++) {
+
+            double dx = coordinates[offset + 2 * i + 2] - coordinates[offset + 2 * i];
+            double dy = coordinates[offset + 2 * i + 3] - coordinates[offset + 2 * i + 1];
+            if (dx == 0.0 && dy == 0.0) {
+                continue;
+            }
+
+            double angle = Math.atan2(dy, dx);
+            if (Double.isNaN(baseAngle)) {
+                baseAngle = angle;
+                continue;
+            }
+
+            double relativeAngle = Math.IEEEremainder(angle - baseAngle, 2.0 * Math.PI);
+            minAngle = Math.min(minAngle, relativeAngle);
+            maxAngle = Math.max(maxAngle, relativeAngle);
+        }
+
+        if (Double.isNaN(baseAngle) || maxAngle - minAngle >= Math.PI) {
+            return deviceError / maxStretch;
+        }
+
+        /* n^T G n has the period pi in the angle of n, so the range of the
+        normals is moved to start in [0, pi) */
+        double startAngle = baseAngle + minAngle + Math.PI / 2.0;
+        double span = maxAngle - minAngle;
+        startAngle -= Math.PI * Math.floor(startAngle / Math.PI);
+
+        double peakAngle = maxStretchAngle < 0.0
+                ? maxStretchAngle + Math.PI : maxStretchAngle;
+        if (peakAngle < startAngle) {
+            peakAngle += Math.PI;
+        }
+
+        double stretch;
+        if (peakAngle <= startAngle + span) {
+            stretch = maxStretch;
+        } else {
+            stretch = Math.sqrt(Math.max(calculateSquaredStretch(startAngle),
+                    calculateSquaredStretch(startAngle + span)));
+        }
+
+        return deviceError / stretch;
+    }
+
+    /**
+     * To get this.deviceError.
+     *
+     * @return this.deviceError
+     */
+    public double getDeviceError() {
+        return deviceError;
+    }
+
+    /**
+     * To get the allowable error in user units of a curve with any
+     * direction, i.e. the device error divided by the max stretch.
+     *
+     * @return the allowable error in user units
+     */
+    public double getUserError() {
+        return deviceError / maxStretch;
+    }
+
+    /**
+     * To calculate |M n|^2 of the unit vector n of an angle.
+     *
+     * @param angle the angle of n
+     * @return |M n|^2
+     */
+    private double calculateSquaredStretch(double angle) {
+
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle);
+
+        return g11 * cos * cos + 2.0 * g12 * cos * sin + g22 * sin * sin;
+    }
+}
@@ -0,0 +1,193 @@
+package transform;
+
+import bezierCurveToArcs.BezierCurveToArcs;
+import component.Arc;
+import component.DoublePoint;
+
+import java.awt.geom.AffineTransform;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class contains methods to convert a cubic Bezier curve under an affine
+ * transform, and to map fitted arcs by an affine transform.
+ * <p>
+ * A similarity transform (translation, rotation, uniform scaling and
+ * mirroring) maps a circle to a circle, so the fitted arcs are mapped
+ * directly: the center and the end points are transformed, the radius is
+ * scaled, and the direction is flipped on reflection. Other transforms map a
+ * circle to an ellipse, so the transformed Bezier curve is converted again.
+ * An affine transform maps a Bezier curve to the Bezier curve of the
+ * transformed control points, so no approximation is added.
+ */
+public class TransformedConversion {
+
+    /* the relative tolerance to judge if a transform is a similarity */
+    private static final double CONFORMAL_TOLERANCE = 1e-12;
+
+    /**
+     * To convert a cubic Bezier curve under an affine transform. The
+     * allowable error is measured after the transform.
+     * <p>
+     * For a similarity transform with the scale s, the curve is converted
+     * with the allowable error {@code allowableError} / s and the arcs are
+     * mapped. Otherwise the transformed curve is converted.
+     *
+     * @param A              the start point of the Bezier curve
+     * @param controlPointA  the first control point of the Bezier curve which
+     *                       is close to {@code A}
+     * @param controlPointB  the second control point of the Bezier curve which
+     *                       is close to {@code B}
+     * @param B              the end point of the Bezier curve
+     * @param transform      the affine transform
+     * @param allowableError the allowable error after the transform
+     * @param arcs           the fitted arcs after the transform
+     */
+    public static void convertACubicBezierCurveToArcs(
+            DoublePoint A, DoublePoint controlPointA, DoublePoint controlPointB,
+            DoublePoint B, AffineTransform transform, double allowableError,
+            ArrayList<Arc> arcs) {
+
+        if (isSimilarity(transform)) {
+
+            ArrayList<Arc> untransformedArcs = new ArrayList<>();
+            BezierCurveToArcs.convertACubicBezierCurveToArcs(
+                    A, controlPointA, controlPointB, B,
+                    allowableError / calculateScale(transform), untransformedArcs);
+
+            transformArcs(untransformedArcs, transform, arcs);
+
+        } else {
+
+            BezierCurveToArcs.convertACubicBezierCurveToArcs(
+                    transformPoint(A, transform),
+                    transformPoint(controlPointA, transform),
+                    transformPoint(controlPointB, transform),
+                    transformPoint(B, transform), allowableError, arcs);
+        }
+    }
+
+    /**
+     * To map a series of arcs by a similarity transform. A point is always
+     * mapped to the same point, so the joint points of adjacent arcs which
+     * are exactly the same stay the same after the transform.
+     *
+     * @param arcs            the arcs
+     * @param transform       the similarity transform
+     * @param transformedArcs the transformed arcs
+     */
+    public static void transformArcs(List<Arc> arcs, AffineTransform transform,
+                                     ArrayList<Arc> transformedArcs) {
+
+        if (!isSimilarity(transform)) {
+            throw new IllegalArgumentException(
+                    "The transform doesn't map circles to circles: " + transform);
+        }
+
+        if (!transformedArcs.isEmpty()) {
+            transformedArcs.clear();
+        }
+
+        for (Arc arc : arcs) {
+            transformedArcs.add(transformArc(arc, transform,
+                    transformPoint(arc.getStartPoint(), transform),
+                    transformPoint(arc.getEndPoint(), transform)));
+        }
+    }
+
+    /**
+     * To map an arc by a similarity transform.
+     *
+     * @param arc       the arc
+     * @param transform the similarity transform
+     * @return the transformed arc
+     */
+    public static Arc transformArc(Arc arc, AffineTransform transform) {
+
+        if (!isSimilarity(transform)) {
+            throw new IllegalArgumentException(
+                    "The transform doesn't map circles to circles: " + transform);
+        }
+
+        return transformArc(arc, transform,
+                transformPoint(arc.getStartPoint(), transform),
+                transformPoint(arc.getEndPoint(), transform));
+    }
+
+    /**
+     * To judge if an affine transform is a similarity, i.e. its linear part
+     * is a rotation or a reflection multiplied by a uniform scale.
+     *
+     * @param transform the affine transform
+     * @return true for a similarity and false for not
+     */
+    public static boolean isSimilarity(AffineTransform transform) {
+
+        double m00 = transform.getScaleX();
+        double m01 = transform.getShearX();
+        double m10 = transform.getShearY();
+        double m11 = transform.getScaleY();
+
+        double tolerance = CONFORMAL_TOLERANCE
+                * (Math.abs(m00) + Math.abs(m01) + Math.abs(m10) + Math.abs(m11));
+
+        if (tolerance == 0.0) {
+            return false;
+        }
+
+        /* [a -b; b a] for rotations and [a b; b -a] for reflections */
+        return (Math.abs(m00 - m11) <= tolerance && Math.abs(m01 + m10) <= tolerance)
+                || (Math.abs(m00 + m11) <= tolerance && Math.abs(m01 - m10) <= tolerance);
+    }
+
+    /**
+     * To calculate the scale of an affine transform, i.e. the square root of
+     * the absolute value of its determinant. For a similarity it is the ratio
+     * of the lengths after and before the transform.
+     *
+     * @param transform the affine transform
+     * @return the scale
+     */
+    public static double calculateScale(AffineTransform transform) {
+        return Math.sqrt(Math.abs(transform.getDeterminant()));
+    }
+
+    /**
+     * To map an arc whose end points are already transformed. The sweep of
+     * the arc is kept, so {@code generateArc} gives the direction, which is
+     * flipped on reflection.
+     *
+     * @param arc        the arc
+     * @param transform  the similarity transform
+     * @param startPoint the transformed start point
+     * @param endPoint   the transformed end point
+     * @return the transformed arc
+     */
+    private static Arc transformArc(Arc arc, AffineTransform transform,
+                                    DoublePoint startPoint, DoublePoint endPoint) {
+
+        Arc transformedArc = BezierCurveToArcs.generateArc(
+                transformPoint(arc.getCenter(), transform), startPoint, endPoint);
+
+        return new Arc(transformedArc.getCenter(),
+                arc.getRadius() * calculateScale(transform),
+                transformedArc.getStartAngle(), transformedArc.getEndAngle(),
+                transformedArc.getClockwiseFlag(), startPoint, endPoint);
+    }
+
+    /**
+     * To transform a point.
+     *
+     * @param point     the point
+     * @param transform the affine transform
+     * @return the transformed point
+     */
+    private static DoublePoint transformPoint(DoublePoint point,
+                                              AffineTransform transform) {
+
+        double[] coordinates = {point.getX(), point.getY()};
+        transform.transform(coordinates, 0, coordinates, 0, 1);
+
+        return new DoublePoint(coordinates[0], coordinates[1]);
+    }
+}
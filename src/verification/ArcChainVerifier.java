@@ -0,0 +1,442 @@
+package verification;
+
+import component.Arc;
+import component.CubicBezierCurve;
+import component.DoublePoint;
+import mathTools.cubicBezierTools.CubicBezierTools;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * This class contains methods to verify that the fitted arcs of cubic Bezier
+ * curves lie within the allowable error.
+ * <p>
+ * {@code BezierCurveToArcs} only checks one point per biarc. The methods in
+ * this class sample both the Bezier curve and every arc densely and measure
+ * the two-sided deviation: the distance from the sampled points of the
+ * Bezier curve to the arcs and the distance from the sampled points of the
+ * arcs to the Bezier curve. The sampled points are evaluated on primitive
+ * values and a per-thread buffer, so nothing is allocated per sampled point.
+ * <p>
+ * The nearest arc and the nearest point on the Bezier curve are tracked with
+ * cursors, so the cost is linear in the number of sampled points. A cursor
+ * which stops at a wrong local minimum only over-estimates the deviation.
+ * <p>
+ * The deviation bound adds half of the longest distance between two adjacent
+ * sampled points. Choose {@code samples} so that the length of the curve
+ * divided by {@code samples} is well below the allowable error when the
+ * fitted arcs should be certified.
+ */
+public class ArcChainVerifier {
+
+    /* a per-thread buffer to store the sampled points of the Bezier curve */
+    private static final ThreadLocal<double[]> CURVE_SAMPLE_BUFFER
+            = ThreadLocal.withInitial(() -> new double[0]);
+
+    /* the number of values stored in the buffer for every arc */
+    private static final int ARC_DATA_LENGTH = 7;
+
+    /**
+     * To verify the fitted arcs of a batch of cubic Bezier curves in
+     * parallel.
+     *
+     * @param curves         the original Bezier curves
+     * @param arcChains      the fitted arcs of every Bezier curve in the same
+     *                       order as {@code curves}
+     * @param allowableError the allowable error
+     * @param samples        the number of sampled points on the Bezier curve,
+     *                       which must be at least 2. About the same number of
+     *                       sampled points are distributed to the arcs
+     * @return the verification result of every Bezier curve in the same order
+     * as {@code curves}
+     */
+    public static VerificationResult[] verify(
+            List<CubicBezierCurve> curves, List<? extends List<Arc>> arcChains,
+            double allowableError, int samples) {
+
+        if (curves.size() != arcChains.size()) {
+            throw new IllegalArgumentException(
+                    "The number of curves and the number of arc chains differ");
+        }
+
+        VerificationResult[] results = new VerificationResult[curves.size()];
+
+        IntStream.range(0, curves.size()).parallel().forEach(i ->
+                results[i] = verify(curves.get(i), arcChains.get(i),
+                        allowableError, samples));
+
+        return results;
+    }
+
+    /**
+     * To count the verification results which are not certified.
+     *
+     * @param results the verification results
+     * @return the number of results which are not certified
+     */
+    public static int countUncertifiedResults(VerificationResult[] results) {
+
+        int count = 0;
+        for (VerificationResult result : results) {
+            if (!result.isCertified()) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * To verify the fitted arcs of a cubic Bezier curve.
+     *
+     * @param curve          the original Bezier curve
+     * @param arcs           the fitted arcs
+     * @param allowableError the allowable error
+     * @param samples        the number of sampled points on the Bezier curve,
+     *                       which must be at least 2. About the same number of
+     *                       sampled points are distributed to the arcs
+     * @return the verification result
+     */
+    public static VerificationResult verify(
+            CubicBezierCurve curve, List<Arc> arcs,
+            double allowableError, int samples) {
+
+        if (samples < 2) {
+            throw new IllegalArgumentException("samples must be at least 2");
+        }
+
+        double x0 = curve.getA().getX();
+        double y0 = curve.getA().getY();
+        double x1 = curve.getControlPointA().getX();
+        double y1 = curve.getControlPointA().getY();
+        double x2 = curve.getControlPointB().getX();
+        double y2 = curve.getControlPointB().getY();
+        double x3 = curve.getB().getX();
+        double y3 = curve.getB().getY();
+
+        if (arcs.isEmpty()) {
+            return new VerificationResult(Double.POSITIVE_INFINITY,
+                    Double.POSITIVE_INFINITY, x0, y0, allowableError);
+        }
+
+        /* The buffer stores the sampled points of the Bezier curve first and
+        then 7 values for every arc: the center, the radius, the vector from
+        the center to the start point and the vector from the center to the
+        end point */
+        int arcOffset = 2 * samples;
+        double[] buffer = CURVE_SAMPLE_BUFFER.get();
+        if (buffer.length < arcOffset + ARC_DATA_LENGTH * arcs.size()) {
+            buffer = new double[arcOffset + ARC_DATA_LENGTH * arcs.size()];
+            CURVE_SAMPLE_BUFFER.set(buffer);
+        }
+
+        for (int j = 0; j < arcs.size(); j++) {
+            Arc arc = arcs.get(j);
+            int offset = arcOffset + ARC_DATA_LENGTH * j;
+            boolean clockwiseFlag = arc.getClockwiseFlag();
+            buffer[offset] = arc.getCenter().getX();
+            buffer[offset + 1] = arc.getCenter().getY();
+            buffer[offset + 2] = arc.getRadius();
+            buffer[offset + 3] = (clockwiseFlag ? arc.getEndX() : arc.getStartX())
+                    - buffer[offset];
+            buffer[offset + 4] = (clockwiseFlag ? arc.getEndY() : arc.getStartY())
+                    - buffer[offset + 1];
+            buffer[offset + 5] = (clockwiseFlag ? arc.getStartX() : arc.getEndX())
+                    - buffer[offset];
+            buffer[offset + 6] = (clockwiseFlag ? arc.getStartY() : arc.getEndY())
+                    - buffer[offset + 1];
+        }
+
+        double maxDeviation = 0.0;
+        double worstX = x0;
+        double worstY = y0;
+        double longestCurveStep = 0.0;
+        double totalArcLength = 0.0;
+        for (Arc arc : arcs) {
+            totalArcLength += arc.getLength();
+        }
+
+        /* Step 1: The distance from the Bezier curve to the arcs. The nearest
+        arc is tracked with a cursor in the same way as step 2 */
+        int arcCursor = 0;
+        for (int i = 0; i < samples; i++) {
+
+            double t = (double) i / (samples - 1);
+            double x = CubicBezierTools.coordinateOnBezierCurve(t, x0, x1, x2, x3);
+            double y = CubicBezierTools.coordinateOnBezierCurve(t, y0, y1, y2, y3);
+
+            buffer[2 * i] = x;
+            buffer[2 * i + 1] = y;
+
+            arcCursor = findNearestArc(buffer, arcOffset, arcs.size(),
+                    arcCursor, x, y);
+            double distance = distanceFromPointToArc(
+                    buffer, arcOffset + ARC_DATA_LENGTH * arcCursor, x, y);
+
+            if (distance > maxDeviation) {
+                maxDeviation = distance;
+                worstX = x;
+                worstY = y;
+            }
+
+            if (i + 1 < samples) {
+                longestCurveStep = Math.max(longestCurveStep,
+                        boundLengthOfBezierCurve(t, 1.0 / (samples - 1),
+                                x0, y0, x1, y1, x2, y2, x3, y3));
+            }
+        }
+
+        double curveBound = maxDeviation + longestCurveStep / 2.0;
+
+        /* Step 2: The distance from the arcs to the Bezier curve. The
+        nearest sampled point is tracked with a cursor because the arcs follow
+        the Bezier curve. A wrong local minimum only over-estimates the
+        distance, so the bound is still safe. The sampled points are
+        distributed to the arcs according to their lengths */
+        double maxArcDeviation = 0.0;
+        double longestArcStep = 0.0;
+        int cursor = 0;
+
+        for (Arc arc : arcs) {
+
+            double centerX = arc.getCenter().getX();
+            double centerY = arc.getCenter().getY();
+            double radius = arc.getRadius();
+            double startAngle = arc.getStartAngle();
+            double sweep = arc.getEndAngle() - startAngle;
+            int arcSamples = Math.max(2, (int) Math.ceil(samples
+                    * radius * Math.abs(sweep) / totalArcLength));
+            double step = sweep / (arcSamples - 1);
+            double cosStep = Math.cos(step);
+            double sinStep = Math.sin(step);
+
+            longestArcStep = Math.max(longestArcStep, radius * Math.abs(step));
+
+            /* The sampled points are generated by rotating the vector from the
+            center to the start point step by step */
+            double vectorX = arc.getStartX() - centerX;
+            double vectorY = arc.getStartY() - centerY;
+
+            for (int k = 0; k < arcSamples; k++) {
+
+                double x = centerX + vectorX;
+                double y = centerY + vectorY;
+
+                cursor = findNearestSample(buffer, samples, cursor, x, y);
+
+                double deltaX = buffer[2 * cursor] - x;
+                double deltaY = buffer[2 * cursor + 1] - y;
+                double distance = Math.sqrt(deltaX * deltaX + deltaY * deltaY);
+
+                /* Refining only makes the distance smaller, so it is only
+                needed when the distance may become the max */
+                if (distance > maxArcDeviation) {
+                    distance = Math.min(distance,
+                            CubicBezierTools.distanceFromPointToBezierCurve(
+                                    x, y, (double) cursor / (samples - 1),
+                                    x0, y0, x1, y1, x2, y2, x3, y3));
+                }
+
+                if (distance > maxArcDeviation) {
+                    maxArcDeviation = distance;
+                    if (distance > maxDeviation) {
+                        maxDeviation = distance;
+                        worstX = x;
+                        worstY = y;
+                    }
+                }
+
+                double rotatedX = vectorX * cosStep - vectorY * sinStep;
+                vectorY = vectorX * sinStep + vectorY * cosStep;
+                vectorX = rotatedX;
+            }
+        }
+
+        double arcBound = maxArcDeviation + longestArcStep / 2.0;
+
+        return new VerificationResult(maxDeviation,
+                Math.max(curveBound, arcBound), worstX, worstY, allowableError);
+    }
+
+    /**
+     * To calculate the distance from the point (x, y) to an arc stored in the
+     * buffer. The sweep of an arc is not greater than pi, so the point lies
+     * in the sector of the arc if and only if it lies on the left of the
+     * vector to the lower angle and on the right of the vector to the upper
+     * angle. If so, the distance is the distance to the circle; otherwise it
+     * is the distance to the nearer end point.
+     *
+     * @param buffer the buffer which stores the arcs
+     * @param offset the offset of the arc in the buffer
+     * @param x      the x coordinate of the point
+     * @param y      the y coordinate of the point
+     * @return the distance from the point to the arc
+     */
+    private static double distanceFromPointToArc(
+            double[] buffer, int offset, double x, double y) {
+
+        double deltaX = x - buffer[offset];
+        double deltaY = y - buffer[offset + 1];
+        double lowerX = buffer[offset + 3];
+        double lowerY = buffer[offset + 4];
+        double upperX = buffer[offset + 5];
+        double upperY = buffer[offset + 6];
+
+        if (lowerX * deltaY - lowerY * deltaX >= 0.0
+                && deltaX * upperY - deltaY * upperX >= 0.0) {
+            return Math.abs(Math.sqrt(deltaX * deltaX + deltaY * deltaY)
+                    - buffer[offset + 2]);
+        }
+
+        double lowerDeltaX = deltaX - lowerX;
+        double lowerDeltaY = deltaY - lowerY;
+        double upperDeltaX = deltaX - upperX;
+        double upperDeltaY = deltaY - upperY;
+
+        return Math.sqrt(Math.min(
+                lowerDeltaX * lowerDeltaX + lowerDeltaY * lowerDeltaY,
+                upperDeltaX * upperDeltaX + upperDeltaY * upperDeltaY));
+    }
+
+    /**
+     * To calculate an upper bound of the length of the Bezier curve in the
+     * range [t, t + deltaT]. The derivative Q'(t) is a quadratic Bezier
+     * curve, so on the range it lies in the convex hull of Q'(t),
+     * Q'(t) + deltaT / 2 * Q''(t) and Q'(t + deltaT).
+     *
+     * @param t      the t value of the start of the range
+     * @param deltaT the length of the range
+     * @param x0     the x coordinate of the start point
+     * @param y0     the y coordinate of the start point
+     * @param x1     the x coordinate of the first control point
+     * @param y1     the y coordinate of the first control point
+     * @param x2     the x coordinate of the second control point
+     * @param y2     the y coordinate of the second control point
+     * @param x3     the x coordinate of the end point
+     * @param y3     the y coordinate of the end point
+     * @return the upper bound of the length
+     */
+    private static double boundLengthOfBezierCurve(
+            double t, double deltaT,
+            double x0, double y0, double x1, double y1,
+            double x2, double y2, double x3, double y3) {
+
+        double startDx = CubicBezierTools.coordinateOfDerivativeOnBezierCurve(
+                t, x0, x1, x2, x3);
+        double startDy = CubicBezierTools.coordinateOfDerivativeOnBezierCurve(
+                t, y0, y1, y2, y3);
+        double endDx = CubicBezierTools.coordinateOfDerivativeOnBezierCurve(
+                t + deltaT, x0, x1, x2, x3);
+        double endDy = CubicBezierTools.coordinateOfDerivativeOnBezierCurve(
+                t + deltaT, y0, y1, y2, y3);
+        double middleDx = startDx + deltaT / 2.0 * CubicBezierTools
+                .coordinateOfSecondDerivativeOnBezierCurve(t, x0, x1, x2, x3);
+        double middleDy = startDy + deltaT / 2.0 * CubicBezierTools
+                .coordinateOfSecondDerivativeOnBezierCurve(t, y0, y1, y2, y3);
+
+        return deltaT * Math.sqrt(Math.max(startDx * startDx + startDy * startDy,
+                Math.max(middleDx * middleDx + middleDy * middleDy,
+                        endDx * endDx + endDy * endDy)));
+    }
+
+    /**
+     * To find the arc which is the nearest to the point (x, y) by walking
+     * from {@code cursor} while the distance decreases.
+     *
+     * @param buffer    the buffer which stores the arcs
+     * @param arcOffset the offset of the first arc in the buffer
+     * @param arcCount  the number of the arcs
+     * @param cursor    the index to start the walk
+     * @param x         the x coordinate of the point
+     * @param y         the y coordinate of the point
+     * @return the index of the nearest arc
+     */
+    private static int findNearestArc(double[] buffer, int arcOffset,
+                                      int arcCount, int cursor,
+                                      double x, double y) {
+
+        double current = distanceFromPointToArc(
+                buffer, arcOffset + ARC_DATA_LENGTH * cursor, x, y);
+
+        while (cursor + 1 < arcCount) {
+            double next = distanceFromPointToArc(
+                    buffer, arcOffset + ARC_DATA_LENGTH * (cursor + 1), x, y);
+            if (next > current) {
+                break;
+            }
+            current = next;
+            cursor++;
+        }
+
+        while (cursor > 0) {
+            double previous = distanceFromPointToArc(
+                    buffer, arcOffset + ARC_DATA_LENGTH * (cursor - 1), x, y);
+            if (previous >= current) {
+                break;
+            }
+            current = previous;
+            cursor--;
+        }
+
+        return cursor;
+    }
+
+    /**
+     * To find the sampled point of the Bezier curve which is the nearest to
+     * the point (x, y) by walking from {@code cursor} while the distance
+     * decreases.
+     *
+     * @param curveSamples the buffer which starts with the sampled points of
+     *                     the Bezier curve
+     * @param samples      the number of the sampled points
+     * @param cursor       the index to start the walk
+     * @param x            the x coordinate of the point
+     * @param y            the y coordinate of the point
+     * @return the index of the nearest sampled point
+     */
+    private static int findNearestSample(
+            double[] curveSamples, int samples, int cursor, double x, double y) {
+
+        double current = squaredDistance(curveSamples, cursor, x, y);
+
+        while (cursor + 1 < samples) {
+            double next = squaredDistance(curveSamples, cursor + 1, x, y);
+            if (next > current) {
+                break;
+            }
+            current = next;
+            cursor++;
+        }
+
+        while (cursor > 0) {
+            double previous = squaredDistance(curveSamples, cursor - 1, x, y);
+            if (previous >= current) {
+                break;
+            }
+            current = previous;
+            cursor--;
+        }
+
+        return cursor;
+    }
+
+    /**
+     * To calculate the squared distance from a sampled point to the point
+     * (x, y).
+     *
+     * @param curveSamples the sampled points of the Bezier curve
+     * @param index        the index of the sampled point
+     * @param x            the x coordinate of the point
+     * @param y            the y coordinate of the point
+     * @return the squared distance
+     */
+    private static double squaredDistance(
+            double[] curveSamples, int index, double x, double y) {
+
+        double deltaX = curveSamples[2 * index] - x;
+        double deltaY = curveSamples[2 * index + 1] - y;
+
+        return deltaX * deltaX + deltaY * deltaY;
+    }
+}
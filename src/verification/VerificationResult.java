@@ -0,0 +1,117 @@
+package verification;
+
+/**
+ * This class is to store the result of verifying the fitted arcs of one cubic
+ * Bezier curve.
+ * <p>
+ * {@code maxDeviation} is the max two-sided deviation found on the sampled
+ * points, so the true deviation is never less than it. {@code deviationBound}
+ * adds the distance which may be hidden between two adjacent sampled points,
+ * so the true deviation is never greater than it.
+ */
+public class VerificationResult {
+
+    /* the max deviation found on the sampled points */
+    private final double maxDeviation;
+
+    /* the upper bound of the true deviation */
+    private final double deviationBound;
+
+    /* the x coordinate of the sampled point with the max deviation */
+    private final double worstX;
+
+    /* the y coordinate of the sampled point with the max deviation */
+    private final double worstY;
+
+    /* the allowable error which the fitted arcs are verified against */
+    private final double allowableError;
+
+    /**
+     * Constructor
+     *
+     * @param maxDeviation   the max deviation found on the sampled points
+     * @param deviationBound the upper bound of the true deviation
+     * @param worstX         the x coordinate of the sampled point with the
+     *                       max deviation
+     * @param worstY         the y coordinate of the sampled point with the
+     *                       max deviation
+     * @param allowableError the allowable error which the fitted arcs are
+     *                       verified against
+     */
+    public VerificationResult(double maxDeviation, double deviationBound,
+                              double worstX, double worstY,
+                              double allowableError) {
+
+        this.maxDeviation = maxDeviation;
+        this.deviationBound = deviationBound;
+        this.worstX = worstX;
+        this.worstY = worstY;
+        this.allowableError = allowableError;
+    }
+
+    /**
+     * To judge if the fitted arcs certainly violate the allowable error, i.e.
+     * a sampled point is farther than {@code allowableError}.
+     *
+     * @return true for violated and false for not
+     */
+    public boolean isViolated() {
+        return !(maxDeviation <= allowableError);
+    }
+
+    /**
+     * To judge if the fitted arcs are proved to be within the allowable
+     * error, i.e. {@code deviationBound} is not greater than
+     * {@code allowableError}.
+     *
+     * @return true for certified and false for not
+     */
+    public boolean isCertified() {
+        return deviationBound <= allowableError;
+    }
+
+    /**
+     * To get this.maxDeviation.
+     *
+     * @return this.maxDeviation
+     */
+    public double getMaxDeviation() {
+        return maxDeviation;
+    }
+
+    /**
+     * To get this.deviationBound.
+     *
+     * @return this.deviationBound
+     */
+    public double getDeviationBound() {
+        return deviationBound;
+    }
+
+    /**
+     * To get this.worstX.
+     *
+     * @return this.worstX
+     */
+    public double getWorstX() {
+        return worstX;
+    }
+
+    /**
+     * To get this.worstY.
+     *
+     * @return this.worstY
+     */
+    public double getWorstY() {
+        return worstY;
+    }
+
+    /**
+     * To get this.allowableError.
+     *
+     * @return this.allowableError
+     */
+    public double getAllowableError() {
+        return allowableError;
+    }
+}
@@ -211,27 +211,13 @@ public class WriteSVGFile {
 
         String content = "           <path d=\"\n";
 
-        double startXPosition
-                = arcs.get(0).getCenter().getX()
-                + arcs.get(0).getRadius() * Math.cos(arcs.get(0).getStartAngle());
+        Arc firstArc = arcs.get(0);
 
-        double startYPosition
-                = arcs.get(0).getCenter().getY()
-                + arcs.get(0).getRadius() * Math.sin(arcs.get(0).getStartAngle());
-
-        content += ("                    M " + String.valueOf(startXPosition) + " "
-                + String.valueOf(startYPosition) + "\n");
+        content += ("                    M " + String.valueOf(firstArc.getStartX())
+                + " " + String.valueOf(firstArc.getStartY()) + "\n");
 
         for (Arc arc : arcs) {
 
-            double endXPosition
-                    = arc.getCenter().getX()
-                    + arc.getRadius() * Math.cos(arc.getEndAngle());
-
-            double endYPosition
-                    = arc.getCenter().getY()
-                    + arc.getRadius() * Math.sin(arc.getEndAngle());
-
             content += ("                    A " + arc.getRadius() + " "
                     + arc.getRadius() + " 0 0 ");
 
@@ -241,8 +227,8 @@ public class WriteSVGFile {
                 content += "1 ";
             }
 
-            content += String.valueOf(endXPosition) + " "
-                    + String.valueOf(endYPosition) + "\n";
+            content += String.valueOf(arc.getEndX()) + " "
+                    + String.valueOf(arc.getEndY()) + "\n";
         }
 
         content += "                    \" stroke=\""